@@ -1,5 +1,7 @@
 -- MySQL Database Setup for RideShare Application
--- Run this script to set up the database
+-- Run this script to set up the database with sample data.
+-- It creates schema version 1 (db/baseline/mysql/V1__baseline_schema.sql); the application
+-- adopts it as version 1 and applies the later Flyway migrations on startup.
 
 -- Create database
 CREATE DATABASE IF NOT EXISTS carpool_db 
@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+#
+# Server CPU per authenticated session: a full login (password check) versus
+# renewing the access token with a refresh token.
+#
+# Usage:
+#   scripts/auth-load-comparison.sh [sessions]
+#
+# Environment:
+#   PORT     HTTP port of the running application (default 8080)
+#   APP_PID  process id of the application (default: found with pgrep)
+#
+# The application must run with login throttling off, otherwise the repeated logins
+# of the benchmark account are rejected:
+#   --carpool.security.login-throttle.enabled=false
+
+set -euo pipefail
+
+SESSIONS=${1:-200}
+PORT=${PORT:-8080}
+BASE="http://localhost:${PORT}/api/auth"
+APP_PID=${APP_PID:-$(pgrep -f 'CarpoolApplication|carpool-app' | head -n 1)}
+TICKS_PER_SECOND=$(getconf CLK_TCK)
+
+if [[ -z "$APP_PID" ]]; then
+    echo "application process not found, set APP_PID" >&2
+    exit 1
+fi
+
+# utime + stime of the application, in milliseconds
+cpu_ms() {
+    local stat
+    stat=$(sed 's/^.*) //' "/proc/$APP_PID/stat")
+    read -r -a fields <<< "$stat"
+    # fields[11] and fields[12] are utime and stime (fields 14 and 15 of /proc/<pid>/stat)
+    echo $(( (fields[11] + fields[12]) * 1000 / TICKS_PER_SECOND ))
+}
+
+json_field() {
+    python3 -c "import sys, json; print(json.load(sys.stdin)['$1'])"
+}
+
+post() {
+    curl -s -w '\n%{http_code}' -X POST "$BASE/$1" -H 'Content-Type: application/json' -d "$2"
+}
+
+# Print the body and fail unless the response has the expected status
+expect() {
+    local response=$1 status=$2
+    local code=${response##*$'\n'}
+    if [[ "$code" != "$status" ]]; then
+        echo "unexpected HTTP $code: ${response%$'\n'*}" >&2
+        exit 1
+    fi
+    echo "${response%$'\n'*}"
+}
+
+EMAIL="auth-bench-$(date +%s%N)@example.com"
+PASSWORD="bench-password"
+expect "$(post register "{\"name\":\"Auth Bench\",\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\",\"role\":\"USER\"}")" 201 > /dev/null
+
+LOGIN_BODY="{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}"
+
+start=$(cpu_ms)
+for _ in $(seq 1 "$SESSIONS"); do
+    expect "$(post login "$LOGIN_BODY")" 200 > /dev/null
+done
+login_ms=$(( $(cpu_ms) - start ))
+
+refresh_token=$(expect "$(post login "$LOGIN_BODY")" 200 | json_field refreshToken)
+
+start=$(cpu_ms)
+for _ in $(seq 1 "$SESSIONS"); do
+    refresh_token=$(expect "$(post refresh "{\"refreshToken\":\"$refresh_token\"}")" 200 | json_field refreshToken)
+done
+refresh_ms=$(( $(cpu_ms) - start ))
+
+printf "%-8s %10s %22s\n" "flow" "sessions" "CPU ms per session"
+printf "%-8s %10s %22s\n" "login" "$SESSIONS" "$(awk "BEGIN { printf \"%.2f\", $login_ms / $SESSIONS }")"
+printf "%-8s %10s %22s\n" "refresh" "$SESSIONS" "$(awk "BEGIN { printf \"%.2f\", $refresh_ms / $SESSIONS }")"
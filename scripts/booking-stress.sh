@@ -0,0 +1,168 @@
+#!/usr/bin/env bash
+#
+# Concurrent booking across two instances: riders book and cancel the same few rides
+# through both nodes at once, then every ride's seat count is checked against its
+# confirmed reservations.
+#
+# Usage:
+#   scripts/booking-stress.sh [rides] [riders] [concurrency]
+#
+# Environment:
+#   PORT_A  HTTP port of the first node (default 8080)
+#   PORT_B  HTTP port of the second node (default 8081)
+#   MANAGEMENT_PORT_A, MANAGEMENT_PORT_B  their actuator ports (default 9090, 9091)
+#
+# Both nodes must use the same database and run with login throttling off:
+#   --carpool.security.login-throttle.enabled=false
+# Start them with --carpool.ride-locks.enabled=false to compare against optimistic
+# locking alone.
+
+set -euo pipefail
+
+RIDES=${1:-4}
+RIDERS=${2:-24}
+CONCURRENCY=${3:-32}
+SEATS=8
+PORT_A=${PORT_A:-8080}
+PORT_B=${PORT_B:-8081}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+json_field() {
+    python3 -c "import sys, json; print(json.load(sys.stdin)['$1'])"
+}
+
+# Sum of a metric over both nodes, 0 if it was never recorded
+metric() {
+    local total=0 port value
+    for port in "${MANAGEMENT_PORT_A:-9090}" "${MANAGEMENT_PORT_B:-9091}"; do
+        value=$(curl -s "http://localhost:$port/actuator/metrics/$1" | python3 -c "
+import sys, json
+try:
+    print(int(json.load(sys.stdin)['measurements'][0]['value']))
+except Exception:
+    print(0)")
+        total=$(( total + value ))
+    done
+    echo "$total"
+}
+
+post() {
+    curl -s -w '\n%{http_code}' -X POST "http://localhost:$PORT_A/api/$1" -H 'Content-Type: application/json' \
+        ${TOKEN:+-H "Authorization: Bearer $TOKEN"} -d "$2"
+}
+
+# Print the body and fail unless the response has the expected status
+expect() {
+    local response=$1 status=$2
+    local code=${response##*$'\n'}
+    if [[ "$code" != "$status" ]]; then
+        echo "unexpected HTTP $code: ${response%$'\n'*}" >&2
+        exit 1
+    fi
+    echo "${response%$'\n'*}"
+}
+
+# One job line (phase, job number, token, method, path, body), sent to node A or B
+# by the job number; prints "phase status"
+request() {
+    local phase job token method path body
+    read -r phase job token method path body <<< "$1"
+    local port=$PORT_A
+    if (( job % 2 )); then
+        port=$PORT_B
+    fi
+    local code
+    code=$(curl -s -o "$WORK/$phase-$job.json" -w '%{http_code}' -X "$method" \
+        "http://localhost:$port/api/$path" -H "Authorization: Bearer $token" \
+        -H 'Content-Type: application/json' ${body:+-d "$body"})
+    echo "$phase $code"
+}
+export -f request
+export PORT_A PORT_B WORK
+
+run_phase() {
+    # One job per line, passed whole: xargs would otherwise strip the JSON's quotes
+    xargs -P "$CONCURRENCY" -d '\n' -n 1 bash -c 'request "$1"' _ < "$WORK/$1.jobs" >> "$WORK/results"
+}
+
+STAMP=$(date +%s%N)
+PASSWORD="stress-password"
+expect "$(post auth/register "{\"name\":\"Stress Driver\",\"email\":\"driver-$STAMP@example.com\",\"password\":\"$PASSWORD\",\"role\":\"DRIVER\"}")" 201 > /dev/null
+TOKEN=$(expect "$(post auth/login "{\"email\":\"driver-$STAMP@example.com\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)
+DRIVER_TOKEN=$TOKEN
+
+ride_ids=()
+for i in $(seq 1 "$RIDES"); do
+    departure=$(date -d "+$(( i + 1 )) days" +%Y-%m-%dT08:00:00)
+    ride_ids+=("$(expect "$(post rides "{\"origin\":\"Stress $STAMP\",\"destination\":\"Ride $i\",\"dateTime\":\"$departure\",\"price\":5,\"availableSeats\":$SEATS}")" 201 | json_field id)")
+done
+
+rider_tokens=()
+for i in $(seq 1 "$RIDERS"); do
+    TOKEN=
+    expect "$(post auth/register "{\"name\":\"Stress Rider $i\",\"email\":\"rider-$i-$STAMP@example.com\",\"password\":\"$PASSWORD\",\"role\":\"USER\"}")" 201 > /dev/null
+    rider_tokens+=("$(expect "$(post auth/login "{\"email\":\"rider-$i-$STAMP@example.com\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)")
+done
+
+conflicts_before=$(metric carpool.write.conflicts)
+busy_before=$(metric carpool.ride-locks.busy)
+start=$(date +%s%N)
+
+# Phase 1: every rider books one seat on every ride, all at once
+job=0
+for ride in "${ride_ids[@]}"; do
+    for token in "${rider_tokens[@]}"; do
+        job=$(( job + 1 ))
+        echo "book $job $token POST reservations {\"rideId\":$ride,\"seatsReserved\":1}"
+    done
+done | shuf > "$WORK/book.jobs"
+run_phase book
+
+# Phase 2: every other booking is cancelled while the riders who missed out book again
+job=0
+for file in "$WORK"/book-*.json; do
+    n=${file##*-}
+    n=${n%.json}
+    line=$(grep -m 1 "^book $n " "$WORK/book.jobs")
+    read -r _ _ token _ _ body <<< "$line"
+    reservation=$(python3 -c "import sys, json; d = json.load(open(sys.argv[1])); print(d.get('id', '') if d.get('status') == 'CONFIRMED' else '')" "$file" 2>/dev/null || true)
+    job=$(( job + 1 ))
+    if [[ -n "$reservation" ]]; then
+        if (( n % 2 )); then
+            echo "cancel $job $token PUT reservations/$reservation/cancel"
+        fi
+    else
+        echo "rebook $job $token POST reservations $body"
+    fi
+done | shuf > "$WORK/second.jobs"
+run_phase second
+
+elapsed_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+
+printf "%-10s %s\n" "phase" "responses by status"
+for phase in book cancel rebook; do
+    printf "%-10s %s\n" "$phase" "$(grep "^$phase " "$WORK/results" | cut -d ' ' -f 2 | sort | uniq -c | awk '{ printf "%s x %s  ", $2, $1 }')"
+done
+echo
+
+# Each ride's free seats must equal its seats minus its confirmed reservations
+failed=0
+printf "%-8s %8s %10s %10s\n" "ride" "free" "confirmed" "check"
+for ride in "${ride_ids[@]}"; do
+    free=$(curl -s "http://localhost:$PORT_A/api/rides/$ride" | json_field availableSeats)
+    confirmed=$(curl -s "http://localhost:$PORT_A/api/reservations/ride/$ride" -H "Authorization: Bearer $DRIVER_TOKEN" \
+        | python3 -c "import sys, json; print(sum(r['seatsReserved'] for r in json.load(sys.stdin) if r['status'] == 'CONFIRMED'))")
+    check=ok
+    if (( free + confirmed != SEATS || free < 0 )); then
+        check=MISMATCH
+        failed=1
+    fi
+    printf "%-8s %8s %10s %10s\n" "$ride" "$free" "$confirmed" "$check"
+done
+echo
+
+printf "%-22s %10s\n" "elapsed ms" "$elapsed_ms"
+printf "%-22s %10s\n" "write conflicts" "$(( $(metric carpool.write.conflicts) - conflicts_before ))"
+printf "%-22s %10s\n" "busy (503)" "$(( $(metric carpool.ride-locks.busy) - busy_before ))"
+exit "$failed"
@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+#
+# Cross-node cache invalidation: caches a ride search on node B, changes the rides
+# through node A and measures how long B keeps serving the old listing.
+#
+# Usage:
+#   scripts/cache-invalidation-check.sh [rounds]
+#
+# Environment:
+#   PORT_A  HTTP port of the node that writes (default 8080)
+#   PORT_B  HTTP port of the node that reads (default 8081)
+#   MANAGEMENT_PORT_B  actuator port of the node that reads (default 9091)
+#
+# Both nodes must use the same database. Run with login throttling off when the
+# script is run repeatedly:
+#   --carpool.security.login-throttle.enabled=false
+
+set -euo pipefail
+
+ROUNDS=${1:-10}
+A="http://localhost:${PORT_A:-8080}/api"
+B="http://localhost:${PORT_B:-8081}/api"
+
+json_field() {
+    python3 -c "import sys, json; print(json.load(sys.stdin)['$1'])"
+}
+
+post() {
+    curl -s -w '\n%{http_code}' -X POST "$A/$1" -H 'Content-Type: application/json' \
+        ${TOKEN:+-H "Authorization: Bearer $TOKEN"} -d "$2"
+}
+
+# Print the body and fail unless the response has the expected status
+expect() {
+    local response=$1 status=$2
+    local code=${response##*$'\n'}
+    if [[ "$code" != "$status" ]]; then
+        echo "unexpected HTTP $code: ${response%$'\n'*}" >&2
+        exit 1
+    fi
+    echo "${response%$'\n'*}"
+}
+
+# Number of rides node B lists for the search
+listed_on_b() {
+    curl -s "$B/rides/search?origin=$ORIGIN&destination=Invalidation" | python3 -c "import sys, json; print(len(json.load(sys.stdin)))"
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+EMAIL="invalidation-check-$(date +%s%N)@example.com"
+PASSWORD="check-password"
+expect "$(post auth/register "{\"name\":\"Invalidation Check\",\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\",\"role\":\"DRIVER\"}")" 201 > /dev/null
+TOKEN=$(expect "$(post auth/login "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)
+
+ORIGIN="Check$(date +%s)"
+DEPARTURE=$(date -d '+3 days' +%Y-%m-%dT09:00:00)
+printf "%-8s %8s %18s\n" "round" "listed" "stale on B (ms)"
+total=0
+for round in $(seq 1 "$ROUNDS"); do
+    before=$(listed_on_b)
+    expect "$(post rides "{\"origin\":\"$ORIGIN\",\"destination\":\"Invalidation\",\"dateTime\":\"$DEPARTURE\",\"price\":5,\"availableSeats\":2}")" 201 > /dev/null
+    start=$(now_ms)
+    until (( $(listed_on_b) > before )); do
+        sleep 0.02
+    done
+    stale=$(( $(now_ms) - start ))
+    total=$(( total + stale ))
+    printf "%-8s %8s %18s\n" "$round" "$(( before + 1 ))" "$stale"
+done
+
+printf "%-8s %8s %18s\n" "mean" "" "$(( total / ROUNDS ))"
+
+# Log-to-eviction delay as measured by node B itself (excludes the polling above)
+curl -s "http://localhost:${MANAGEMENT_PORT_B:-9091}/actuator/metrics/carpool.cache.invalidation.delay" | python3 -c "
+import sys, json
+m = {s['statistic']: s['value'] for s in json.load(sys.stdin)['measurements']}
+print('node B applied %d remote invalidations, mean delay %.0f ms, max %.0f ms'
+      % (m['COUNT'], 1000 * m['TOTAL_TIME'] / max(m['COUNT'], 1), 1000 * m['MAX']))"
@@ -0,0 +1,103 @@
+#!/usr/bin/env bash
+#
+# Dashboard latency: times GET /api/dashboard against fetching the same data with
+# one request after another (profile, upcoming and past reservations, my rides,
+# reviews written and received), for a driver who also books rides.
+#
+# Usage:
+#   scripts/dashboard-latency.sh [rides] [rounds]
+#
+# Environment:
+#   PORT  HTTP port of the running application (default 8080)
+#
+# The application must run with login throttling off if the script is run repeatedly:
+#   --carpool.security.login-throttle.enabled=false
+
+set -euo pipefail
+
+RIDES=${1:-30}
+ROUNDS=${2:-50}
+PORT=${PORT:-8080}
+BASE="http://localhost:${PORT}"
+
+json_field() {
+    python3 -c "import sys, json; print(json.load(sys.stdin)['$1'])"
+}
+
+post() {
+    curl -s -w '\n%{http_code}' -X POST "$BASE/api/$1" -H 'Content-Type: application/json' \
+        ${TOKEN:+-H "Authorization: Bearer $TOKEN"} -d "$2"
+}
+
+# Print the body and fail unless the response has the expected status
+expect() {
+    local response=$1 status=$2
+    local code=${response##*$'\n'}
+    if [[ "$code" != "$status" ]]; then
+        echo "unexpected HTTP $code: ${response%$'\n'*}" >&2
+        exit 1
+    fi
+    echo "${response%$'\n'*}"
+}
+
+# Seconds taken by a GET, failing on any status but 200
+timed_get() {
+    local result
+    result=$(curl -s -o /dev/null -w '%{http_code} %{time_total}' "$BASE/api/$1" -H "Authorization: Bearer $TOKEN")
+    if [[ "$result" != 200* ]]; then
+        echo "GET $1 returned ${result%% *}" >&2
+        exit 1
+    fi
+    echo "${result#* }"
+}
+
+# Register a driver with a series of rides; prints "token id"
+driver_with_rides() {
+    local name=$1 email="$1-$STAMP@example.com" token id
+    TOKEN=
+    expect "$(post auth/register "{\"name\":\"$name\",\"email\":\"$email\",\"password\":\"$PASSWORD\",\"role\":\"DRIVER\"}")" 201 > /dev/null
+    token=$(expect "$(post auth/login "{\"email\":\"$email\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)
+    id=$(TOKEN=$token; curl -s "$BASE/api/users/profile" -H "Authorization: Bearer $TOKEN" | json_field id)
+    TOKEN=$token
+    expect "$(post rides/series "{\"origin\":\"$name $STAMP\",\"destination\":\"Dashboard\",\"startDate\":\"$(date -d '+1 day' +%F)\",\"endDate\":\"$(date -d "+$RIDES days" +%F)\",\"departureTime\":\"08:15\",\"price\":5,\"availableSeats\":4}")" 201 > /dev/null
+    echo "$token $id"
+}
+
+STAMP=$(date +%s%N)
+PASSWORD="dashboard-password"
+read -r OTHER_TOKEN _ <<< "$(driver_with_rides other)"
+read -r DRIVER_TOKEN DRIVER_ID <<< "$(driver_with_rides driver)"
+
+# The measured driver books every ride of the other driver
+TOKEN=$OTHER_TOKEN
+other_rides=$(curl -s "$BASE/api/rides/driver/my-rides" -H "Authorization: Bearer $TOKEN" | python3 -c "
+import sys, json
+print(' '.join(str(r['id']) for r in json.load(sys.stdin)))")
+TOKEN=$DRIVER_TOKEN
+for ride in $other_rides; do
+    expect "$(post reservations "{\"rideId\":$ride,\"seatsReserved\":1}")" 201 > /dev/null
+done
+
+sequential=()
+combined=()
+for round in $(seq 1 "$ROUNDS"); do
+    total=0
+    for path in users/profile reservations/upcoming reservations/past rides/driver/my-rides \
+                reviews/my-reviews "reviews/driver/$DRIVER_ID/recent"; do
+        total=$(python3 -c "print($total + $(timed_get "$path"))")
+    done
+    sequential+=("$total")
+    combined+=("$(timed_get dashboard)")
+done
+
+report() {
+    python3 -c "
+import sys
+times = sorted(float(t) * 1000 for t in sys.argv[2:])
+print('%-12s mean %6.1f ms   median %6.1f ms   p90 %6.1f ms' % (
+    sys.argv[1], sum(times) / len(times), times[len(times) // 2], times[int(len(times) * 0.9)]))" "$@"
+}
+
+echo "$RIDES rides and $RIDES reservations, $ROUNDS rounds"
+report "one by one" "${sequential[@]}"
+report "dashboard" "${combined[@]}"
@@ -0,0 +1,195 @@
+#!/usr/bin/env bash
+#
+# Insert throughput of the two id strategies, issued over plain JDBC the way Hibernate
+# does: IDENTITY ids need one INSERT per row (the generated key is read back each time),
+# while pooled table ids reserve ALLOCATION_SIZE ids in id_generators with one
+# SELECT ... FOR UPDATE + UPDATE and let the INSERTs go out as JDBC batches.
+# Rows are written in transactions of one ride series each, into scratch tables that
+# are dropped afterwards.
+#
+# Usage:
+#   scripts/insert-throughput-benchmark.sh [rows] [rows-per-transaction]
+#
+# Environment:
+#   JDBC_URL     database to use (default: in-memory H2 in MySQL mode). For MySQL add
+#                rewriteBatchedStatements=true, as the perf profile does
+#   DB_USER, DB_PASSWORD
+#
+# Needs the compiled classes (mvn compile) and a JDK.
+
+set -euo pipefail
+
+ROWS=${1:-20000}
+PER_TRANSACTION=${2:-500}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+if [[ ! -f "$ROOT/target/classes/com/carpool/entity/IdGenerators.class" ]]; then
+    echo "compile the project first (mvn compile)" >&2
+    exit 1
+fi
+(cd "$ROOT" && mvn -B -q dependency:build-classpath -Dmdep.includeScope=test \
+    -Dmdep.outputFile="$WORK/classpath.txt" > /dev/null)
+
+cat > "$WORK/InsertThroughputBenchmark.java" <<'EOF'
+import com.carpool.entity.IdGenerators;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+public class InsertThroughputBenchmark {
+
+    private static final String COLUMNS = "driver_id, origin, destination, date_time, price, available_seats, total_seats";
+    private static final int BATCH_SIZE = 50;
+
+    private static String url;
+    private static String user;
+    private static String password;
+    private static int statements;
+    // Hibernate reserves ids in its own transaction, on a second pooled connection
+    private static Connection generatorConnection;
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.parseInt(args[0]);
+        int perTransaction = Integer.parseInt(args[1]);
+        url = System.getenv().getOrDefault("JDBC_URL",
+                "jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        user = System.getenv().getOrDefault("DB_USER", "sa");
+        password = System.getenv().getOrDefault("DB_PASSWORD", "");
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_rides_identity");
+            statement.execute("DROP TABLE IF EXISTS bench_rides_pooled");
+            statement.execute("DROP TABLE IF EXISTS bench_id_generators");
+            statement.execute("CREATE TABLE bench_rides_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "driver_id BIGINT, origin VARCHAR(255), destination VARCHAR(255), date_time DATETIME(6), "
+                    + "price DECIMAL(10,2), available_seats INT, total_seats INT)");
+            statement.execute("CREATE TABLE bench_rides_pooled (id BIGINT PRIMARY KEY, "
+                    + "driver_id BIGINT, origin VARCHAR(255), destination VARCHAR(255), date_time DATETIME(6), "
+                    + "price DECIMAL(10,2), available_seats INT, total_seats INT)");
+            statement.execute("CREATE TABLE bench_id_generators (entity VARCHAR(255) PRIMARY KEY, next_val BIGINT)");
+            statement.execute("INSERT INTO bench_id_generators VALUES ('rides', 1)");
+        }
+
+        System.out.printf("%,d rows in transactions of %,d, allocation size %d, batch size %d%n%n",
+                rows, perTransaction, IdGenerators.ALLOCATION_SIZE, BATCH_SIZE);
+        System.out.printf("%-16s %12s %14s %14s%n", "ids", "rows/s", "statements", "per 1000 rows");
+        // First pass warms up the JIT and the driver; the second is reported
+        for (int pass = 0; pass < 2; pass++) {
+            run("identity", rows, perTransaction, pass == 1, InsertThroughputBenchmark::insertIdentity);
+            run("pooled table", rows, perTransaction, pass == 1, InsertThroughputBenchmark::insertPooled);
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE bench_rides_identity");
+            statement.execute("DROP TABLE bench_rides_pooled");
+            statement.execute("DROP TABLE bench_id_generators");
+        }
+    }
+
+    interface Strategy {
+        void insert(Connection connection, int rows, long seed) throws Exception;
+    }
+
+    private static void run(String name, int rows, int perTransaction, boolean report, Strategy strategy)
+            throws Exception {
+        statements = 0;
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Connection generator = DriverManager.getConnection(url, user, password)) {
+            generatorConnection = generator;
+            generator.setAutoCommit(false);
+            connection.setAutoCommit(false);
+            for (int done = 0; done < rows; done += perTransaction) {
+                strategy.insert(connection, Math.min(perTransaction, rows - done), done);
+                connection.commit();
+                statements++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (report) {
+            System.out.printf("%-16s %,12.0f %,14d %,14.0f%n", name, rows / seconds, statements,
+                    statements * 1000.0 / rows);
+        }
+    }
+
+    // One INSERT per row, reading the generated id back like Hibernate's IDENTITY path
+    private static void insertIdentity(Connection connection, int rows, long seed) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_rides_identity (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bind(insert, 1, seed + i);
+                insert.executeUpdate();
+                statements++;
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                }
+            }
+        }
+    }
+
+    // Reserve a block of ids on a separate connection, then batch the INSERTs
+    private static void insertPooled(Connection connection, int rows, long seed) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_rides_pooled (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            long nextId = 0;
+            long blockEnd = 0;
+            for (int i = 0; i < rows; i++) {
+                if (nextId == blockEnd) {
+                    nextId = reserveBlock();
+                    blockEnd = nextId + IdGenerators.ALLOCATION_SIZE;
+                }
+                insert.setLong(1, nextId++);
+                bind(insert, 2, seed + i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0 || i == rows - 1) {
+                    insert.executeBatch();
+                    statements++;
+                }
+            }
+        }
+    }
+
+    private static long reserveBlock() throws Exception {
+        Connection connection = generatorConnection;
+        long value;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_val FROM bench_id_generators WHERE entity = 'rides' FOR UPDATE");
+             ResultSet result = select.executeQuery()) {
+            result.next();
+            value = result.getLong(1);
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE bench_id_generators SET next_val = ? WHERE entity = 'rides' AND next_val = ?")) {
+            update.setLong(1, value + IdGenerators.ALLOCATION_SIZE);
+            update.setLong(2, value);
+            update.executeUpdate();
+        }
+        connection.commit();
+        statements += 3;
+        return value;
+    }
+
+    private static void bind(PreparedStatement insert, int first, long n) throws Exception {
+        insert.setLong(first, 1 + n % 100);
+        insert.setString(first + 1, "Sofia");
+        insert.setString(first + 2, "Plovdiv " + n % 50);
+        insert.setTimestamp(first + 3, Timestamp.valueOf(LocalDateTime.now().plusHours(n)));
+        insert.setBigDecimal(first + 4, new BigDecimal("12.50"));
+        insert.setInt(first + 5, 3);
+        insert.setInt(first + 6, 3);
+    }
+}
+EOF
+
+java -cp "$ROOT/target/classes:$(cat "$WORK/classpath.txt")" "$WORK/InsertThroughputBenchmark.java" "$ROWS" "$PER_TRANSACTION"
@@ -0,0 +1,139 @@
+#!/usr/bin/env bash
+#
+# Cost of answering a ride listing: serializing the DTOs with Jackson on every request
+# (what a cache miss does, optionally gzipped as Tomcat compression would) against
+# writing the bytes RideListingCache keeps pre-serialized and pre-gzipped. Reports
+# responses/s, response MB/s and bytes allocated per response on one thread.
+#
+# Usage:
+#   scripts/listing-cache-benchmark.sh [rides-per-listing] [seconds-per-run]
+#
+# Needs the compiled classes (mvn compile) and a JDK; no application has to run.
+
+set -euo pipefail
+
+RIDES=${1:-50}
+SECONDS_PER_RUN=${2:-3}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+if [[ ! -f "$ROOT/target/classes/com/carpool/cache/RideListingCache.class" ]]; then
+    echo "compile the project first (mvn compile)" >&2
+    exit 1
+fi
+(cd "$ROOT" && mvn -B -q dependency:build-classpath -Dmdep.outputFile="$WORK/classpath.txt" > /dev/null)
+
+cat > "$WORK/ListingCacheBenchmark.java" <<'EOF'
+import com.carpool.dto.RideResponseDto;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+public class ListingCacheBenchmark {
+
+    interface Response {
+        void write(OutputStream out) throws Exception;
+    }
+
+    // Copies what is written into an 8 KiB buffer, like Tomcat's output buffer
+    // in front of a socket that never blocks, and counts the bytes
+    static final class Sink extends OutputStream {
+        final byte[] buffer = new byte[8192];
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            buffer[(int) (bytes++ & 8191)] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                int chunk = Math.min(len, buffer.length);
+                System.arraycopy(b, off, buffer, 0, chunk);
+                off += chunk;
+                len -= chunk;
+                bytes += chunk;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rides = Integer.parseInt(args[0]);
+        long runNanos = Long.parseLong(args[1]) * 1_000_000_000L;
+
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        List<RideResponseDto> listing = new ArrayList<>();
+        for (int i = 0; i < rides; i++) {
+            User driver = new User("Driver " + i, "driver" + i + "@example.com", "x", User.Role.DRIVER);
+            driver.setId((long) i);
+            Ride ride = new Ride(driver, "Sofia", "Plovdiv " + i, LocalDateTime.now().plusDays(i),
+                    new BigDecimal("12.50"), 3, "Leaves from the central station, one bag per passenger");
+            ride.setId((long) i);
+            ride.setCreatedAt(LocalDateTime.now());
+            listing.add(new RideResponseDto(ride));
+        }
+
+        byte[] json = objectMapper.writeValueAsBytes(listing);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        }
+        byte[] gzipped = buffer.toByteArray();
+        System.out.printf("listing of %d rides: %,d bytes JSON, %,d bytes gzipped%n%n", rides, json.length, gzipped.length);
+
+        System.out.printf("%-22s %14s %12s %16s%n", "variant", "responses/s", "MB/s", "alloc B/resp");
+        run("serialize", runNanos, out -> objectMapper.writeValue(out, listing));
+        run("serialize + gzip", runNanos, out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out);
+            objectMapper.writeValue(gzip, listing);
+            gzip.finish();
+        });
+        run("cached", runNanos, out -> out.write(json));
+        run("cached gzip", runNanos, out -> out.write(gzipped));
+    }
+
+    private static void run(String variant, long runNanos, Response response) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Warm up the code path before measuring
+        long warmupEnd = System.nanoTime() + runNanos / 2;
+        while (System.nanoTime() < warmupEnd) {
+            response.write(new Sink());
+        }
+
+        Sink sink = new Sink();
+        long responses = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long deadline = start + runNanos;
+        while ((responses & 63) != 0 || System.nanoTime() < deadline) {
+            response.write(sink);
+            responses++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        System.out.printf("%-22s %,14.0f %12.1f %,16d%n", variant, responses / seconds,
+                sink.bytes / seconds / 1e6, allocated / responses);
+    }
+}
+EOF
+
+java -cp "$ROOT/target/classes:$(cat "$WORK/classpath.txt")" "$WORK/ListingCacheBenchmark.java" "$RIDES" "$SECONDS_PER_RUN"
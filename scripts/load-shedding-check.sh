@@ -0,0 +1,140 @@
+#!/usr/bin/env bash
+#
+# Load shedding: floods the public ride search with uncacheable queries while one
+# rider keeps booking and cancelling, then reports how each side was served and
+# the state of the adaptive concurrency limit.
+#
+# Usage:
+#   scripts/load-shedding-check.sh [browsers] [bookings]
+#
+# Environment:
+#   PORT             HTTP port of the running application (default 8080)
+#   MANAGEMENT_PORT  its actuator port (default 9090)
+#
+# The application must run with login throttling off if the script is run repeatedly:
+#   --carpool.security.login-throttle.enabled=false
+# Start it with --carpool.concurrency-limit.enabled=false to compare without shedding.
+# A small connection pool (--spring.datasource.hikari.maximum-pool-size=2) makes the
+# database the bottleneck on a development machine.
+
+set -euo pipefail
+
+BROWSERS=${1:-64}
+BOOKINGS=${2:-40}
+PORT=${PORT:-8080}
+BASE="http://localhost:${PORT}"
+MANAGEMENT="http://localhost:${MANAGEMENT_PORT:-9090}"
+WORK=$(mktemp -d)
+trap 'kill $(jobs -p) 2>/dev/null || true; rm -rf "$WORK"' EXIT
+
+json_field() {
+    python3 -c "import sys, json; print(json.load(sys.stdin)['$1'])"
+}
+
+# Value of a metric, optionally narrowed by a tag (name:value)
+metric() {
+    local url="$MANAGEMENT/actuator/metrics/$1"
+    if [[ -n "${2:-}" ]]; then
+        url="$url?tag=$2"
+    fi
+    curl -s "$url" | python3 -c "
+import sys, json
+try:
+    print(int(json.load(sys.stdin)['measurements'][0]['value']))
+except Exception:
+    print('-')"
+}
+
+post() {
+    curl -s -w '\n%{http_code}' -X POST "$BASE/api/$1" -H 'Content-Type: application/json' \
+        ${TOKEN:+-H "Authorization: Bearer $TOKEN"} -d "$2"
+}
+
+# Print the body and fail unless the response has the expected status
+expect() {
+    local response=$1 status=$2
+    local code=${response##*$'\n'}
+    if [[ "$code" != "$status" ]]; then
+        echo "unexpected HTTP $code: ${response%$'\n'*}" >&2
+        exit 1
+    fi
+    echo "${response%$'\n'*}"
+}
+
+# Status counts and latency (mean / max ms) of "status seconds" lines
+summarize() {
+    python3 -c "
+import sys, collections
+codes, times = collections.Counter(), []
+for line in open(sys.argv[1]):
+    code, seconds = line.split()
+    codes[code] += 1
+    times.append(float(seconds) * 1000)
+print('  '.join('%s x %d' % c for c in sorted(codes.items())), end='')
+if times:
+    print('   mean %.0f ms, max %.0f ms' % (sum(times) / len(times), max(times)))
+else:
+    print()" "$1"
+}
+
+STAMP=$(date +%s%N)
+PASSWORD="shedding-password"
+expect "$(post auth/register "{\"name\":\"Shedding Driver\",\"email\":\"driver-$STAMP@example.com\",\"password\":\"$PASSWORD\",\"role\":\"DRIVER\"}")" 201 > /dev/null
+TOKEN=$(expect "$(post auth/login "{\"email\":\"driver-$STAMP@example.com\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)
+from=$(date -d '+1 day' +%F)
+to=$(date -d "+$BOOKINGS days" +%F)
+expect "$(post rides/series "{\"origin\":\"Shedding $STAMP\",\"destination\":\"Check\",\"startDate\":\"$from\",\"endDate\":\"$to\",\"departureTime\":\"07:30\",\"price\":5,\"availableSeats\":8}")" 201 > /dev/null
+ride_ids=$(curl -s "$BASE/api/rides/driver/my-rides" -H "Authorization: Bearer $TOKEN" | python3 -c "
+import sys, json
+print(' '.join(str(r['id']) for r in json.load(sys.stdin)))")
+
+TOKEN=
+expect "$(post auth/register "{\"name\":\"Shedding Rider\",\"email\":\"rider-$STAMP@example.com\",\"password\":\"$PASSWORD\",\"role\":\"USER\"}")" 201 > /dev/null
+RIDER_TOKEN=$(expect "$(post auth/login "{\"email\":\"rider-$STAMP@example.com\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)
+
+# Unloaded searches first, so the limiter knows the normal latency before the flood
+for n in $(seq 1 100); do
+    curl -s -o /dev/null "$BASE/api/rides/search?origin=warmup-$n&destination=y"
+done
+
+# Browsers: searches with a unique origin each, so neither the listing cache nor
+# request coalescing can answer them
+for browser in $(seq 1 "$BROWSERS"); do
+    (
+        n=0
+        while [[ ! -e "$WORK/done" ]]; do
+            n=$(( n + 1 ))
+            result=$(curl -s -o /dev/null -w '%{http_code} %{time_total}' \
+                "$BASE/api/rides/search?origin=x$browser-$n&destination=y")
+            echo "$result" >> "$WORK/browsing"
+            # Turned away: wait as told by Retry-After (one second)
+            if [[ "$result" == 503* ]]; then
+                sleep 1
+            fi
+        done
+    ) &
+done
+sleep 2
+
+for ride in $ride_ids; do
+    response=$(curl -s -w '\n%{http_code} %{time_total}' -X POST "$BASE/api/reservations" \
+        -H "Authorization: Bearer $RIDER_TOKEN" -H 'Content-Type: application/json' \
+        -d "{\"rideId\":$ride,\"seatsReserved\":1}")
+    echo "${response##*$'\n'}" >> "$WORK/booking"
+    reservation=$(echo "${response%$'\n'*}" | python3 -c "import sys, json; print(json.load(sys.stdin).get('id', ''))" 2>/dev/null || true)
+    if [[ -n "$reservation" ]]; then
+        curl -s -o /dev/null -w '%{http_code} %{time_total}\n' -X PUT "$BASE/api/reservations/$reservation/cancel" \
+            -H "Authorization: Bearer $RIDER_TOKEN" >> "$WORK/booking"
+    fi
+done
+
+touch "$WORK/done"
+wait
+
+printf "%-10s %s\n" "browsing" "$(summarize "$WORK/browsing")"
+printf "%-10s %s\n" "booking" "$(summarize "$WORK/booking")"
+echo
+printf "%-26s %8s\n" "limit" "$(metric carpool.concurrency-limit.limit)"
+printf "%-26s %8s\n" "rtt long ms" "$(metric carpool.concurrency-limit.rtt window:long)"
+printf "%-26s %8s\n" "rejected browsing" "$(metric carpool.concurrency-limit.rejected endpoint:browsing)"
+printf "%-26s %8s\n" "rejected booking" "$(metric carpool.concurrency-limit.rejected endpoint:booking)"
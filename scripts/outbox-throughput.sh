@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+#
+# Outbox relay throughput: publishes ride series (one RIDE_CREATED event per ride)
+# and measures how fast the relay delivers the events to subscribers.
+#
+# Usage:
+#   scripts/outbox-throughput.sh [series] [rides-per-series]
+#
+# Environment:
+#   PORT             HTTP port of the running application (default 8080)
+#   MANAGEMENT_PORT  its actuator port (default 9090)
+#
+# The application must run with login throttling off if the script is run repeatedly:
+#   --carpool.security.login-throttle.enabled=false
+
+set -euo pipefail
+
+SERIES=${1:-10}
+RIDES_PER_SERIES=${2:-500}
+PORT=${PORT:-8080}
+BASE="http://localhost:${PORT}"
+MANAGEMENT="http://localhost:${MANAGEMENT_PORT:-9090}"
+
+json_field() {
+    python3 -c "import sys, json; print(json.load(sys.stdin)['$1'])"
+}
+
+# Value of a metric, optionally narrowed by a tag (name:value)
+metric() {
+    local url="$MANAGEMENT/actuator/metrics/$1"
+    if [[ -n "${2:-}" ]]; then
+        url="$url?tag=$2"
+    fi
+    curl -s "$url" | python3 -c "import sys, json; print(int(json.load(sys.stdin)['measurements'][0]['value']))"
+}
+
+post() {
+    curl -s -w '\n%{http_code}' -X POST "$BASE/api/$1" -H 'Content-Type: application/json' \
+        ${TOKEN:+-H "Authorization: Bearer $TOKEN"} -d "$2"
+}
+
+# Print the body and fail unless the response has the expected status
+expect() {
+    local response=$1 status=$2
+    local code=${response##*$'\n'}
+    if [[ "$code" != "$status" ]]; then
+        echo "unexpected HTTP $code: ${response%$'\n'*}" >&2
+        exit 1
+    fi
+    echo "${response%$'\n'*}"
+}
+
+EMAIL="outbox-bench-$(date +%s%N)@example.com"
+PASSWORD="bench-password"
+expect "$(post auth/register "{\"name\":\"Outbox Bench\",\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\",\"role\":\"DRIVER\"}")" 201 > /dev/null
+TOKEN=$(expect "$(post auth/login "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}")" 200 | json_field token)
+
+delivered_before=$(metric carpool.outbox.events result:delivered)
+start=$(date +%s%N)
+
+events=0
+for i in $(seq 1 "$SERIES"); do
+    # Each series starts a day later, so series never share departures
+    from=$(date -d "+$i days" +%F)
+    to=$(date -d "+$(( i + RIDES_PER_SERIES - 1 )) days" +%F)
+    body="{\"origin\":\"Bench $i\",\"destination\":\"Outbox\",\"startDate\":\"$from\",\"endDate\":\"$to\","
+    body+="\"departureTime\":\"07:30\",\"price\":5,\"availableSeats\":3}"
+    count=$(expect "$(post rides/series "$body")" 201 | json_field ridesCreated)
+    events=$(( events + count ))
+done
+published=$(date +%s%N)
+
+while (( $(metric carpool.outbox.events result:delivered) - delivered_before < events )); do
+    sleep 0.1
+done
+drained=$(date +%s%N)
+
+elapsed_ms=$(( (drained - start) / 1000000 ))
+printf "%-22s %10s\n" "events" "$events"
+printf "%-22s %10s\n" "publish ms" "$(( (published - start) / 1000000 ))"
+printf "%-22s %10s\n" "drained after ms" "$elapsed_ms"
+printf "%-22s %10s\n" "events per second" "$(awk "BEGIN { printf \"%.0f\", $events * 1000 / $elapsed_ms }")"
+printf "%-22s %10s\n" "still pending" "$(metric carpool.outbox.pending)"
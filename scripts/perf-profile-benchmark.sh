@@ -0,0 +1,243 @@
+#!/usr/bin/env bash
+#
+# Before/after run for the perf profile: boots the application with the default
+# configuration and then with --spring.profiles.active=perf, and puts the same load on
+# each. Every run seeds two drivers with daily ride series and a set of riders, then
+#   booking  each rider books one seat on every ride, riders in parallel
+#   search   the riders search the seeded routes in parallel for a fixed time
+# and reports requests/s, latency percentiles and non-2xx answers per phase.
+#
+# Rate limiting, login throttling, the listing cache and search coalescing are switched
+# off for both runs, so the requests reach the database.
+#
+# Usage:
+#   scripts/perf-profile-benchmark.sh [riders] [rides-per-driver] [search-seconds] [-- application arguments]
+#
+# Environment:
+#   PORT             HTTP port to use (default 8080)
+#   PROFILES         space-separated runs (default: "default perf"); "default" means no profile
+#
+# Without application arguments the runs use a fresh in-memory H2 database in MySQL
+# mode; pass datasource overrides after "--" to run against MySQL, where the profile's
+# Connector/J settings take effect. Needs the compiled classes (mvn compile) and a JDK.
+
+set -euo pipefail
+
+RIDERS=${1:-8}
+RIDES=${2:-100}
+SEARCH_SECONDS=${3:-20}
+shift $(( $# < 3 ? $# : 3 ))
+[[ "${1:-}" == "--" ]] && shift
+APP_ARGS=("$@")
+
+PORT=${PORT:-8080}
+PROFILES=${PROFILES:-"default perf"}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$(mktemp -d)
+APP_PID=
+trap '[[ -n "$APP_PID" ]] && kill "$APP_PID" 2> /dev/null; rm -rf "$WORK"' EXIT
+
+if [[ ! -f "$ROOT/target/classes/com/carpool/CarpoolApplication.class" ]]; then
+    echo "compile the project first (mvn compile)" >&2
+    exit 1
+fi
+(cd "$ROOT" && mvn -B -q dependency:build-classpath -Dmdep.includeScope=test \
+    -Dmdep.outputFile="$WORK/classpath.txt" > /dev/null)
+CP="$ROOT/target/classes:$(cat "$WORK/classpath.txt")"
+
+BENCHMARK_ARGS=(
+    "--server.port=$PORT"
+    --carpool.security.login-throttle.enabled=false
+    --carpool.rate-limit.enabled=false
+    --carpool.listing-cache.enabled=false
+    --carpool.search-coalescing.enabled=false
+)
+
+cat > "$WORK/PerfProfileLoad.java" <<'EOF'
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PerfProfileLoad {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)\\s*,\\s*\"driver");
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static String base;
+    private static String stamp;
+
+    public static void main(String[] args) throws Exception {
+        base = "http://localhost:" + args[0] + "/api";
+        int riders = Integer.parseInt(args[1]);
+        int rides = Integer.parseInt(args[2]);
+        long searchNanos = Long.parseLong(args[3]) * 1_000_000_000L;
+        stamp = Long.toString(System.nanoTime());
+
+        List<String> routes = new ArrayList<>();
+        List<Long> rideIds = new ArrayList<>();
+        for (int d = 0; d < 2; d++) {
+            String token = account("driver" + d, "DRIVER");
+            String origin = "Origin" + d + "-" + stamp;
+            routes.add("origin=" + origin + "&destination=Dest" + d);
+            send("POST", "/rides/series", token, String.format(
+                    "{\"origin\":\"%s\",\"destination\":\"Dest%d\",\"startDate\":\"%s\",\"endDate\":\"%s\","
+                            + "\"departureTime\":\"08:15\",\"price\":5,\"availableSeats\":8}",
+                    origin, d, LocalDate.now().plusDays(1), LocalDate.now().plusDays(rides)), 201);
+            Matcher ids = ID.matcher(send("GET", "/rides/driver/my-rides", token, null, 200).body());
+            while (ids.find()) {
+                rideIds.add(Long.parseLong(ids.group(1)));
+            }
+        }
+        List<String> tokens = new ArrayList<>();
+        for (int r = 0; r < riders; r++) {
+            tokens.add(account("rider" + r, "USER"));
+        }
+
+        System.out.printf("%-8s %10s %10s %9s %9s %9s %8s%n", "phase", "requests", "req/s", "p50 ms",
+                "p90 ms", "p99 ms", "non-2xx");
+        // Every rider books every ride once: seats never run out and no booking repeats. Riders
+        // start at different rides, so they do not queue on one ride's lock
+        int stride = Math.max(1, rideIds.size() / riders);
+        phase("booking", tokens, rider -> rideIds.size(), (token, rider, i) -> {
+            long rideId = rideIds.get((i + rider * stride) % rideIds.size());
+            return send("POST", "/reservations", token, "{\"rideId\":" + rideId + ",\"seatsReserved\":1}", -1);
+        });
+        long searchEnd = System.nanoTime() + searchNanos;
+        phase("search", tokens, rider -> Integer.MAX_VALUE, (token, rider, i) -> System.nanoTime() > searchEnd ? null
+                : send("GET", "/rides/search?" + routes.get((rider + i) % routes.size()), token, null, -1));
+    }
+
+    interface Count {
+        int requests(int rider);
+    }
+
+    interface Call {
+        HttpResponse<String> send(String token, int rider, int i) throws Exception;
+    }
+
+    private static void phase(String name, List<String> tokens, Count count, Call call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tokens.size());
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int r = 0; r < tokens.size(); r++) {
+            String token = tokens.get(r);
+            int rider = r;
+            int requests = count.requests(r);
+            results.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int n = 0;
+                for (int i = 0; i < requests; i++) {
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = call.send(token, rider, i);
+                    if (response == null) {
+                        break;
+                    }
+                    if (response.statusCode() / 100 != 2) {
+                        failures.incrementAndGet();
+                    }
+                    if (n == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, n * 2);
+                    }
+                    latencies[n++] = System.nanoTime() - sent;
+                }
+                return Arrays.copyOf(latencies, n);
+            }));
+        }
+        List<Long> all = new ArrayList<>();
+        for (Future<long[]> result : results) {
+            for (long latency : result.get()) {
+                all.add(latency);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        all.sort(null);
+        System.out.printf("%-8s %,10d %,10.0f %9.1f %9.1f %9.1f %,8d%n", name, all.size(), all.size() / seconds,
+                percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99), failures.get());
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, sorted.size() * p)) / 1e6;
+    }
+
+    private static String account(String name, String role) throws Exception {
+        String email = name + "-" + stamp + "@example.com";
+        send("POST", "/auth/register", null, String.format(
+                "{\"name\":\"%s\",\"email\":\"%s\",\"password\":\"perf-password\",\"role\":\"%s\"}", name, email, role), 201);
+        Matcher token = TOKEN.matcher(send("POST", "/auth/login", null, String.format(
+                "{\"email\":\"%s\",\"password\":\"perf-password\"}", email), 200).body());
+        if (!token.find()) {
+            throw new IllegalStateException("no token for " + email);
+        }
+        return token.group(1);
+    }
+
+    // Fails on an unexpected status unless expected is -1
+    private static HttpResponse<String> send(String method, String path, String token, String body, int expected)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (expected != -1 && response.statusCode() != expected) {
+            throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+}
+EOF
+
+if [[ ${#APP_ARGS[@]} -eq 0 ]]; then
+    DEFAULT_DATABASE=1
+fi
+
+for profile in $PROFILES; do
+    args=("${APP_ARGS[@]}" "${BENCHMARK_ARGS[@]}")
+    [[ "$profile" != "default" ]] && args+=("--spring.profiles.active=$profile")
+    if [[ -n "${DEFAULT_DATABASE:-}" ]]; then
+        # A new database per run, so the second run starts as empty as the first
+        args+=(
+            "--spring.datasource.url=jdbc:h2:mem:perf-$profile;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+            --spring.datasource.username=sa --spring.datasource.password=
+            --spring.datasource.driver-class-name=org.h2.Driver
+            --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+            # H2 reports the ENUM columns with a type Hibernate's validation does not accept
+            --spring.jpa.hibernate.ddl-auto=none
+        )
+    fi
+
+    java -cp "$CP" com.carpool.CarpoolApplication "${args[@]}" > "$WORK/app-$profile.log" 2>&1 &
+    APP_PID=$!
+    until [[ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/readyz" || true)" == "200" ]]; do
+        if ! kill -0 "$APP_PID" 2> /dev/null; then
+            echo "application exited during startup:" >&2
+            tail -n 30 "$WORK/app-$profile.log" >&2
+            exit 1
+        fi
+        sleep 0.5
+    done
+
+    echo "== $profile: $RIDERS riders, $(( RIDES * 2 )) rides"
+    java "$WORK/PerfProfileLoad.java" "$PORT" "$RIDERS" "$RIDES" "$SEARCH_SECONDS"
+    echo
+
+    kill "$APP_PID"
+    wait "$APP_PID" 2> /dev/null || true
+    APP_PID=
+done
@@ -0,0 +1,92 @@
+#!/usr/bin/env bash
+#
+# Cost of a rate-limit check: times StripedRateLimiter.tryAcquire from several threads
+# over many client keys, against one ConcurrentHashMap of token buckets (the login
+# throttle's layout) as the baseline.
+#
+# Usage:
+#   scripts/rate-limit-benchmark.sh [clients] [seconds-per-run]
+#
+# Needs the compiled classes (mvn compile) and a JDK; no application has to run.
+
+set -euo pipefail
+
+CLIENTS=${1:-10000}
+SECONDS_PER_RUN=${2:-3}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+if [[ ! -f "$ROOT/target/classes/com/carpool/limiter/StripedRateLimiter.class" ]]; then
+    echo "compile the project first (mvn compile)" >&2
+    exit 1
+fi
+
+cat > "$WORK/RateLimitBenchmark.java" <<'EOF'
+import com.carpool.limiter.StripedRateLimiter;
+import com.carpool.security.TokenBucket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+public class RateLimitBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.parseInt(args[0]);
+        long runNanos = Long.parseLong(args[1]) * 1_000_000_000L;
+        String[] keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "0:a10.0." + (i >> 8 & 255) + "." + (i & 255) + "/" + i;
+        }
+
+        System.out.printf("%-10s %-22s %14s %12s%n", "threads", "variant", "checks/s", "ns/check");
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= Math.max(4, cores * 2); threads *= 2) {
+            StripedRateLimiter striped = new StripedRateLimiter(64, clients * 2);
+            run(threads, runNanos, keys, "striped (64)", key -> striped.tryAcquire(key, 20, 2));
+
+            Map<String, TokenBucket> single = new ConcurrentHashMap<>();
+            run(threads, runNanos, keys, "concurrent map", key -> {
+                TokenBucket bucket = single.computeIfAbsent(key, k -> new TokenBucket(20, 2));
+                return bucket.tryConsume() ? 0 : bucket.secondsUntilNextToken();
+            });
+        }
+    }
+
+    private static void run(int threads, long runNanos, String[] keys, String variant,
+                            ToLongFunction<String> check) throws InterruptedException {
+        // Warm up the code path before measuring
+        for (int i = 0; i < 2_000_000; i++) {
+            check.applyAsLong(keys[i % keys.length]);
+        }
+
+        LongAdder checks = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        long deadline = System.nanoTime() + runNanos;
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                long sink = 0;
+                while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+                    sink += check.applyAsLong(keys[random.nextInt(keys.length)]);
+                    done++;
+                }
+                checks.add(done + (sink & 0));
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        double perSecond = checks.sum() / (runNanos / 1e9);
+        System.out.printf("%-10d %-22s %,14.0f %12.0f%n", threads, variant, perSecond, threads * 1e9 / perSecond);
+    }
+}
+EOF
+
+java -cp "$ROOT/target/classes" "$WORK/RateLimitBenchmark.java" "$CLIENTS" "$SECONDS_PER_RUN"
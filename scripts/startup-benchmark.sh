@@ -0,0 +1,117 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from JVM launch to the first successful GET /api/rides.
+#
+# Variants (select with VARIANTS, default: all):
+#   jar        java -jar on the executable jar
+#   exploded   extracted jar on a plain classpath
+#   cds        exploded + dynamic CDS archive recorded by a training run
+#   aot        exploded + Spring AOT (-Dspring.aot.enabled=true)
+#   aot-cds    exploded + Spring AOT + CDS archive
+#
+# Usage:
+#   scripts/startup-benchmark.sh [runs] [-- extra application arguments]
+#
+# Environment:
+#   PORT             HTTP port to use (default 8080)
+#   VARIANTS         space-separated list of variants to run
+#   EXTRA_CLASSPATH  appended to the classpath of the exploded variants (e.g. a JDBC driver)
+#   SKIP_BUILD=1     reuse target/*.jar instead of running mvn -Paot package
+#
+# The application needs a reachable database; pass datasource overrides after "--".
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+[[ "${1:-}" == "--" ]] && shift
+APP_ARGS=("$@")
+
+PORT=${PORT:-8080}
+VARIANTS=${VARIANTS:-"jar exploded cds aot aot-cds"}
+WORK=target/startup-benchmark
+MAIN_CLASS=com.carpool.CarpoolApplication
+URL="http://localhost:${PORT}/api/rides"
+
+if [[ "${SKIP_BUILD:-0}" != "1" ]]; then
+    mvn -B -q -Paot -DskipTests package
+fi
+
+JAR=$(ls target/*.jar | grep -v original | head -n 1)
+
+# Explode the jar so classes are loaded from a plain classpath (required for CDS)
+rm -rf "$WORK"
+mkdir -p "$WORK"
+java -Djarmode=layertools -jar "$JAR" extract --destination "$WORK/extracted" > /dev/null
+
+CLASSPATH_ENTRIES=("$WORK/extracted/application/BOOT-INF/classes")
+for lib in "$WORK"/extracted/dependencies/BOOT-INF/lib/*.jar "$WORK"/extracted/snapshot-dependencies/BOOT-INF/lib/*.jar; do
+    [[ -f "$lib" ]] && CLASSPATH_ENTRIES+=("$lib")
+done
+CP=$(IFS=:; echo "${CLASSPATH_ENTRIES[*]}")
+[[ -n "${EXTRA_CLASSPATH:-}" ]] && CP="$CP:$EXTRA_CLASSPATH"
+
+APP_ARGS+=("--server.port=$PORT")
+
+now_ms() {
+    date +%s%3N
+}
+
+# Start the app with the given JVM command, wait for the first 200 on /api/rides,
+# print the elapsed milliseconds and stop the app (SIGTERM, so CDS archives are written)
+time_to_first_request() {
+    local log="$WORK/app.log"
+    local start
+    start=$(now_ms)
+    "$@" "${APP_ARGS[@]}" > "$log" 2>&1 &
+    local pid=$!
+
+    while true; do
+        if [[ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" == "200" ]]; then
+            break
+        fi
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "application exited before serving $URL, see $log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+
+    local elapsed=$(( $(now_ms) - start ))
+    kill -TERM "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+command_for() {
+    case "$1" in
+        jar)      echo "java -jar $JAR" ;;
+        exploded) echo "java -cp $CP $MAIN_CLASS" ;;
+        cds)      echo "java -XX:SharedArchiveFile=$WORK/app.jsa -cp $CP $MAIN_CLASS" ;;
+        aot)      echo "java -Dspring.aot.enabled=true -cp $CP $MAIN_CLASS" ;;
+        aot-cds)  echo "java -Dspring.aot.enabled=true -XX:SharedArchiveFile=$WORK/app-aot.jsa -cp $CP $MAIN_CLASS" ;;
+        *)        echo "unknown variant: $1" >&2; exit 1 ;;
+    esac
+}
+
+# Training runs record the classes loaded up to the first request
+if [[ " $VARIANTS " == *" cds "* ]]; then
+    time_to_first_request java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -cp "$CP" "$MAIN_CLASS" > /dev/null
+fi
+if [[ " $VARIANTS " == *" aot-cds "* ]]; then
+    time_to_first_request java -Dspring.aot.enabled=true -XX:ArchiveClassesAtExit="$WORK/app-aot.jsa" \
+        -cp "$CP" "$MAIN_CLASS" > /dev/null
+fi
+
+printf "%-10s %10s %10s %10s\n" "variant" "min ms" "median ms" "max ms"
+for variant in $VARIANTS; do
+    read -r -a cmd <<< "$(command_for "$variant")"
+    samples=()
+    for _ in $(seq 1 "$RUNS"); do
+        samples+=("$(time_to_first_request "${cmd[@]}")")
+    done
+    sorted=($(printf "%s\n" "${samples[@]}" | sort -n))
+    printf "%-10s %10s %10s %10s\n" "$variant" "${sorted[0]}" "${sorted[$(( RUNS / 2 ))]}" "${sorted[$(( RUNS - 1 ))]}"
+done
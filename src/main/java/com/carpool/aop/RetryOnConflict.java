@@ -0,0 +1,35 @@
+package com.carpool.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retry a transactional write when it loses an optimistic-locking race.
+ * <p>
+ * The annotated method must start its own transaction (REQUIRED with no outer
+ * transaction, or REQUIRES_NEW), because a transaction that saw a conflict is
+ * rollback-only and cannot be retried from inside.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+    
+    /**
+     * Total attempts including the first call
+     */
+    int maxAttempts() default 5;
+    
+    /**
+     * Base backoff in milliseconds; doubled per attempt, with full jitter
+     */
+    long backoffMs() default 10;
+    
+    /**
+     * Upper bound for a single backoff in milliseconds
+     */
+    long maxBackoffMs() default 500;
+}
@@ -0,0 +1,73 @@
+package com.carpool.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies {@link RetryOnConflict}. Ordered ahead of the transaction interceptor
+ * so every attempt runs in a fresh transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+    
+    private final MeterRegistry meterRegistry;
+    
+    public RetryOnConflictAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." +
+                        joinPoint.getSignature().getName();
+        
+        for (int attempt = 1; ; attempt++) {
+            counter("carpool.write.attempts", method).increment();
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                counter("carpool.write.conflicts", method).increment();
+                
+                if (attempt >= retryOnConflict.maxAttempts()) {
+                    counter("carpool.write.conflicts.exhausted", method).increment();
+                    logger.warn("Giving up on {} after {} conflicting attempts", method, attempt);
+                    throw e;
+                }
+                
+                long delay = backoff(retryOnConflict, attempt);
+                logger.debug("Conflict in {} (attempt {}), retrying in {} ms", method, attempt, delay);
+                Thread.sleep(delay);
+            }
+        }
+    }
+    
+    /**
+     * Exponential backoff with full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+     */
+    private long backoff(RetryOnConflict retryOnConflict, int attempt) {
+        long ceiling = Math.min(retryOnConflict.maxBackoffMs(),
+                retryOnConflict.backoffMs() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    private Counter counter(String name, String method) {
+        return Counter.builder(name)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.carpool.aop;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a method holding the cluster-wide lock of one ride, so seat changes of that
+ * ride are serialized across all nodes. Exactly one of {@link #rideId()} and
+ * {@link #reservationId()} names the ride, as a SpEL expression over the method
+ * arguments (e.g. {@code "#p0.rideId"}).
+ * <p>
+ * Applied outside the transaction (and outside {@link RetryOnConflict}), so the
+ * lock is held until the transaction has committed.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RideLocked {
+    
+    /**
+     * Expression for the ride id
+     */
+    String rideId() default "";
+    
+    /**
+     * Expression for the id of a reservation of the ride
+     */
+    String reservationId() default "";
+}
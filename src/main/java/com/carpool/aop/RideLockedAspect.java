@@ -0,0 +1,145 @@
+package com.carpool.aop;
+
+import com.carpool.exception.ServiceUnavailableException;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.service.RideLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies {@link RideLocked}. Threads of this node queue on an in-process lock per
+ * ride first, so only one of them at a time polls the ride's lease in the database.
+ * Ordered ahead of {@link RetryOnConflictAspect} and the transaction interceptor, so
+ * the lease covers every attempt and is released after commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class RideLockedAspect {
+    
+    private static final String BUSY_MESSAGE = "The ride is busy, please try again";
+    
+    private final RideLockService rideLockService;
+    private final ReservationRepository reservationRepository;
+    
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    
+    // In-process lock per ride, removed once no thread uses it
+    private final Map<Long, LocalLock> localLocks = new ConcurrentHashMap<>();
+    
+    private final Timer waitTimer;
+    private final Counter busy;
+    
+    public RideLockedAspect(RideLockService rideLockService,
+                            ReservationRepository reservationRepository,
+                            MeterRegistry meterRegistry) {
+        this.rideLockService = rideLockService;
+        this.reservationRepository = reservationRepository;
+        this.waitTimer = Timer.builder("carpool.ride-locks.wait").register(meterRegistry);
+        this.busy = Counter.builder("carpool.ride-locks.busy").register(meterRegistry);
+    }
+    
+    @Around("@annotation(rideLocked)")
+    public Object lock(ProceedingJoinPoint joinPoint, RideLocked rideLocked) throws Throwable {
+        if (!rideLockService.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        
+        Long rideId = resolveRideId(joinPoint, rideLocked);
+        // Unknown reservation (the method reports it), or a nested call under the same lease
+        if (rideId == null || rideLockService.isHeld(rideId)) {
+            return joinPoint.proceed();
+        }
+        
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(rideLockService.getWaitMs());
+        LocalLock localLock = localLocks.compute(rideId, (id, lock) -> {
+            LocalLock current = lock != null ? lock : new LocalLock();
+            current.users++;
+            return current;
+        });
+        
+        try {
+            if (!localLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                busy.increment();
+                throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+            }
+            try {
+                long token = acquireLease(rideId, deadline);
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                
+                rideLockService.entered(rideId, token);
+                try {
+                    return joinPoint.proceed();
+                } finally {
+                    rideLockService.exited(rideId);
+                    rideLockService.release(rideId, token);
+                }
+            } finally {
+                localLock.unlock();
+            }
+        } finally {
+            localLocks.computeIfPresent(rideId, (id, lock) -> --lock.users == 0 ? null : lock);
+        }
+    }
+    
+    /**
+     * Poll the lease until it is free, backing off up to 50 ms, or fail at the deadline
+     */
+    private long acquireLease(Long rideId, long deadline) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            Long token = rideLockService.tryAcquire(rideId);
+            if (token != null) {
+                return token;
+            }
+            if (System.nanoTime() >= deadline) {
+                busy.increment();
+                throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+            }
+            long ceiling = Math.min(50, 2L << Math.min(attempt, 5));
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, ceiling + 1));
+        }
+    }
+    
+    private Long resolveRideId(ProceedingJoinPoint joinPoint, RideLocked rideLocked) {
+        if (!rideLocked.rideId().isEmpty()) {
+            return evaluate(joinPoint, rideLocked.rideId());
+        }
+        Long reservationId = evaluate(joinPoint, rideLocked.reservationId());
+        return reservationId == null ? null : reservationRepository.findRideIdById(reservationId).orElse(null);
+    }
+    
+    private Long evaluate(ProceedingJoinPoint joinPoint, String expression) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                null, signature.getMethod(), joinPoint.getArgs(), parameterNames);
+        return expressions.computeIfAbsent(expression, parser::parseExpression).getValue(context, Long.class);
+    }
+    
+    private static final class LocalLock extends ReentrantLock {
+        // Guarded by the map's compute
+        private int users;
+    }
+}
@@ -0,0 +1,15 @@
+package com.carpool.cache;
+
+import java.util.Set;
+
+/**
+ * A local cache that evicts entries on invalidations, whether raised on this node
+ * (after commit) or read from the invalidation log of another node. Eviction must
+ * be idempotent: the same key can arrive more than once.
+ */
+public interface CacheInvalidationHandler {
+
+    Set<InvalidationRegion> regions();
+
+    void evict(InvalidationRegion region, String key);
+}
@@ -0,0 +1,48 @@
+package com.carpool.cache;
+
+import com.carpool.event.RideChangedEvent;
+import com.carpool.event.RidesCompletedEvent;
+import com.carpool.event.RidesPublishedEvent;
+import com.carpool.event.UserChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns ride and user change events into cache invalidations. Runs when the event
+ * is published, inside the transaction, so the log entries commit with the change.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    private final CacheInvalidationLog invalidationLog;
+
+    public CacheInvalidationListener(CacheInvalidationLog invalidationLog) {
+        this.invalidationLog = invalidationLog;
+    }
+
+    @EventListener
+    public void onRideChanged(RideChangedEvent event) {
+        RideRoute route = new RideRoute(event.getOrigin(), event.getDestination(),
+                event.getDateTime().toLocalDate(), event.getDateTime().toLocalDate());
+        invalidationLog.invalidate(InvalidationRegion.RIDE_ROUTE, route.toKey());
+    }
+
+    @EventListener
+    public void onRidesCompleted(RidesCompletedEvent event) {
+        for (Long rideId : event.getRideIds()) {
+            invalidationLog.invalidate(InvalidationRegion.RIDE, rideId.toString());
+        }
+    }
+
+    @EventListener
+    public void onRidesPublished(RidesPublishedEvent event) {
+        RideRoute route = new RideRoute(event.getOrigin(), event.getDestination(),
+                event.getFirstDeparture().toLocalDate(), event.getLastDeparture().toLocalDate());
+        invalidationLog.invalidate(InvalidationRegion.RIDE_ROUTE, route.toKey());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidationLog.invalidate(InvalidationRegion.USER, event.getUserId().toString());
+    }
+}
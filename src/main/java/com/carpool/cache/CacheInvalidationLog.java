@@ -0,0 +1,311 @@
+package com.carpool.cache;
+
+import com.carpool.entity.CacheInvalidation;
+import com.carpool.repository.CacheInvalidationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the local caches of several nodes coherent through the shared database.
+ * Invalidations raised in a transaction are applied to this node's caches after
+ * commit and written to the cache_invalidations log in the same transaction; every
+ * node tails the log from its high-water mark and applies the other nodes' entries.
+ * <p>
+ * AUTO_INCREMENT ids are assigned at insert but become visible at commit, so a later
+ * id can be read before an earlier one. Ids skipped over are remembered as gaps and
+ * looked up again on the next polls; a gap still empty after gap-timeout-ms is taken
+ * for a rolled-back insert and dropped. A transaction that commits later than that
+ * (or a gap beyond MAX_GAPS) is missed, so its evictions never reach this node: such
+ * skips are counted and logged, and the cache TTLs (listing-cache.ttl-ms,
+ * waitlist.queue-ttl-ms) are the real bound on how stale an entry can get.
+ */
+@Component
+public class CacheInvalidationLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationLog.class);
+    private static final int MAX_GAPS = 10000;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    // Looked up lazily: handlers such as WaitlistService also write to the log
+    private final ObjectProvider<CacheInvalidationHandler> handlerProvider;
+    private volatile List<CacheInvalidationHandler> handlers;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // Highest id read from the log; -1 until the log is opened
+    private volatile long position = -1;
+    // Ids below the position that were not visible yet -> when first missed (ms)
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+    private final Counter skippedGaps;
+    private final Timer delay;
+
+    @Value("${carpool.cache-invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${carpool.cache-invalidation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${carpool.cache-invalidation.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    public CacheInvalidationLog(CacheInvalidationRepository cacheInvalidationRepository,
+                                ObjectProvider<CacheInvalidationHandler> handlerProvider,
+                                MeterRegistry meterRegistry) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.handlerProvider = handlerProvider;
+        this.localInvalidations = Counter.builder("carpool.cache.invalidations")
+                .tag("source", "local").register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("carpool.cache.invalidations")
+                .tag("source", "remote").register(meterRegistry);
+        this.skippedGaps = Counter.builder("carpool.cache.invalidation.gaps.skipped").register(meterRegistry);
+        this.delay = Timer.builder("carpool.cache.invalidation.delay")
+                .description("Time from an invalidation being written on another node to its eviction here")
+                .register(meterRegistry);
+        Gauge.builder("carpool.cache.invalidation.gaps", gaps, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Evict a key on every node: here once the current transaction commits, elsewhere
+     * once they read the log entry written with it
+     */
+    public void invalidate(InvalidationRegion region, String key) {
+        record(region, key, true);
+    }
+
+    /**
+     * Evict a key on the other nodes only, for caches this node already updated itself
+     */
+    public void invalidateOnOtherNodes(InvalidationRegion region, String key) {
+        record(region, key, false);
+    }
+
+    /**
+     * Start reading the log at its current end: caches are empty at startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() {
+        if (enabled) {
+            position = cacheInvalidationRepository.findMaxId();
+            logger.info("Cache invalidation log opened at {} (node {})", position, nodeId);
+        }
+    }
+
+    /**
+     * Apply the entries other nodes wrote since the last poll; returns how many were applied
+     */
+    public int poll() {
+        if (!enabled || position < 0) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        List<CacheInvalidation> entries = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+
+        if (!gaps.isEmpty()) {
+            for (CacheInvalidation entry : cacheInvalidationRepository.findOnPrimary(new ArrayList<>(gaps.keySet()))) {
+                gaps.remove(entry.getId());
+                entries.add(entry);
+            }
+            gaps.entrySet().removeIf(gap -> {
+                boolean expired = now - gap.getValue() >= gapTimeoutMs;
+                if (expired) {
+                    skipped.add(gap.getKey());
+                }
+                return expired;
+            });
+        }
+
+        List<CacheInvalidation> batch = cacheInvalidationRepository.findAfter(position, PageRequest.of(0, batchSize));
+        long expected = position + 1;
+        for (CacheInvalidation entry : batch) {
+            for (long missing = expected; missing < entry.getId(); missing++) {
+                if (gaps.size() >= MAX_GAPS) {
+                    skipped.add(missing);
+                } else {
+                    gaps.put(missing, now);
+                }
+            }
+            expected = entry.getId() + 1;
+            entries.add(entry);
+        }
+        if (!batch.isEmpty()) {
+            position = batch.get(batch.size() - 1).getId();
+        }
+        if (!skipped.isEmpty()) {
+            skippedGaps.increment(skipped.size());
+            // Usually rolled back; if one was only committed late, its keys are stale here until their TTL
+            logger.warn("Skipped {} cache invalidation log ids that were not visible in time (first {})",
+                    skipped.size(), skipped.get(0));
+        }
+
+        int applied = 0;
+        LocalDateTime readAt = LocalDateTime.now();
+        for (CacheInvalidation entry : entries) {
+            if (nodeId.equals(entry.getNodeId())) {
+                continue;
+            }
+            dispatch(entry.getRegion(), entry.getCacheKey());
+            remoteInvalidations.increment();
+            // Includes clock skew between the nodes
+            delay.record(Duration.between(entry.getCreatedAt(), readAt).abs());
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Delete log entries older than the cutoff; every node has read them long before
+     */
+    public int purge(LocalDateTime cutoff) {
+        return cacheInvalidationRepository.deleteCreatedBefore(cutoff);
+    }
+
+    private void record(InvalidationRegion region, String key, boolean local) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingInvalidations pending = new PendingInvalidations();
+            pending.add(region, key, local);
+            pending.write();
+            pending.apply();
+            return;
+        }
+
+        // One synchronization per transaction; a suspended outer transaction keeps its own
+        PendingInvalidations pending = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingInvalidations
+                    && ((PendingInvalidations) synchronization).owner() == this) {
+                pending = (PendingInvalidations) synchronization;
+                break;
+            }
+        }
+        if (pending == null) {
+            pending = new PendingInvalidations();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(region, key, local);
+    }
+
+    private void dispatch(InvalidationRegion region, String key) {
+        List<CacheInvalidationHandler> current = handlers;
+        if (current == null) {
+            current = handlerProvider.orderedStream().toList();
+            handlers = current;
+        }
+
+        for (CacheInvalidationHandler handler : current) {
+            if (!handler.regions().contains(region)) {
+                continue;
+            }
+            try {
+                handler.evict(region, key);
+            } catch (RuntimeException e) {
+                logger.warn("Cache invalidation {} {} failed in {}: {}", region, key,
+                        handler.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Invalidations of one transaction, deduplicated: written before commit, applied
+     * locally after it
+     */
+    private final class PendingInvalidations implements TransactionSynchronization {
+
+        private final Set<Invalidation> remote = new LinkedHashSet<>();
+        private final Set<Invalidation> local = new LinkedHashSet<>();
+
+        CacheInvalidationLog owner() {
+            return CacheInvalidationLog.this;
+        }
+
+        void add(InvalidationRegion region, String key, boolean applyLocally) {
+            Invalidation invalidation = new Invalidation(region, key);
+            remote.add(invalidation);
+            if (applyLocally) {
+                local.add(invalidation);
+            }
+        }
+
+        void write() {
+            if (!enabled || remote.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<CacheInvalidation> entries = new ArrayList<>(remote.size());
+            for (Invalidation invalidation : remote) {
+                entries.add(new CacheInvalidation(invalidation.region(), invalidation.key(), nodeId, now));
+            }
+            cacheInvalidationRepository.saveAll(entries);
+        }
+
+        void apply() {
+            for (Invalidation invalidation : local) {
+                dispatch(invalidation.region(), invalidation.key());
+                localInvalidations.increment();
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write();
+        }
+
+        @Override
+        public void afterCommit() {
+            apply();
+        }
+    }
+
+    private static final class Invalidation {
+        private final InvalidationRegion region;
+        private final String key;
+
+        Invalidation(InvalidationRegion region, String key) {
+            this.region = region;
+            this.key = key;
+        }
+
+        InvalidationRegion region() { return region; }
+        String key() { return key; }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Invalidation)) {
+                return false;
+            }
+            Invalidation invalidation = (Invalidation) other;
+            return region == invalidation.region && key.equals(invalidation.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, key);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.carpool.cache;
+
+/**
+ * What an invalidation key identifies; each node's caches evict the entries it affects
+ */
+public enum InvalidationRegion {
+    // Key: a RideRoute; ride listings whose query can contain a ride on the route
+    RIDE_ROUTE,
+    // Key: ride id; anything cached for the ride (listings containing it, its waitlist queue)
+    RIDE,
+    // Key: user id; listings showing the user as driver
+    USER,
+    // Key: ride id; the ride's waitlist queue
+    WAITLIST
+}
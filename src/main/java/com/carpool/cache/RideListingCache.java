@@ -0,0 +1,257 @@
+package com.carpool.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of pre-serialized (and optionally pre-compressed) JSON payloads for the
+ * public ride listings. Keyed by the normalized query. Each entry remembers its
+ * query and the rides and drivers it lists, so a change evicts only the listings
+ * it can affect: a ride change those whose query matches the ride's route, a
+ * driver change those listing the driver.
+ */
+@Component
+public class RideListingCache implements CacheInvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideListingCache.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ObjectMapper objectMapper;
+
+    @Value("${carpool.listing-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${carpool.listing-cache.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${carpool.listing-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${carpool.listing-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    public RideListingCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Build the cache key for a listing request
+     */
+    public static String keyFor(String origin, String destination, String date) {
+        if (origin == null || destination == null) {
+            return "all";
+        }
+
+        return "search|" + origin.toLowerCase(Locale.ROOT) + "|" +
+               destination.toLowerCase(Locale.ROOT) + "|" + (date == null ? "" : date);
+    }
+
+    /**
+     * Get a cached listing if present and not expired
+     */
+    public CachedListing get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.listing.isExpired()) {
+            entries.remove(key, entry);
+            return null;
+        }
+
+        return entry.listing;
+    }
+
+    /**
+     * Current invalidation generation; callers read it before computing a listing
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Store a serialized listing unless the cache was invalidated while it was computed
+     */
+    public void put(String origin, String destination, String date, byte[] json, String contentType,
+                    String etag, long expectedGeneration) {
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.listing.isExpired());
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+
+        byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+        CachedListing listing = new CachedListing(json, gzip, contentType, etag,
+                System.currentTimeMillis() + ttlMs);
+        Entry entry = new Entry(listing, origin == null || destination == null ? null
+                : new Query(RideRoute.normalize(origin), RideRoute.normalize(destination), parseDate(date)));
+        collectIds(json, entry);
+
+        if (generation.get() == expectedGeneration) {
+            entries.put(keyFor(origin, destination, date), entry);
+        }
+    }
+
+    /**
+     * Drop every cached listing
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public Set<InvalidationRegion> regions() {
+        return EnumSet.of(InvalidationRegion.RIDE_ROUTE, InvalidationRegion.RIDE, InvalidationRegion.USER);
+    }
+
+    @Override
+    public void evict(InvalidationRegion region, String key) {
+        if (region == InvalidationRegion.RIDE_ROUTE) {
+            RideRoute route = RideRoute.fromKey(key);
+            evictIf(entry -> entry.query == null
+                    || route.matches(entry.query.origin, entry.query.destination, entry.query.date));
+        } else if (region == InvalidationRegion.RIDE) {
+            Long rideId = Long.valueOf(key);
+            evictIf(entry -> entry.rideIds == null || entry.rideIds.contains(rideId));
+        } else if (region == InvalidationRegion.USER) {
+            Long userId = Long.valueOf(key);
+            evictIf(entry -> entry.driverIds == null || entry.driverIds.contains(userId));
+        }
+    }
+
+    private void evictIf(Predicate<Entry> affected) {
+        // Listings being computed now may predate the change: do not let them be stored
+        generation.incrementAndGet();
+        int before = entries.size();
+        entries.values().removeIf(affected);
+        logger.debug("Evicted {} of {} ride listings", before - entries.size(), before);
+    }
+
+    /**
+     * Record which rides and drivers a listing contains; if the body cannot be read
+     * the entry is treated as containing every ride and driver
+     */
+    private void collectIds(byte[] json, Entry entry) {
+        try {
+            JsonNode rides = objectMapper.readTree(json);
+            Set<Long> rideIds = new HashSet<>();
+            Set<Long> driverIds = new HashSet<>();
+            for (JsonNode ride : rides) {
+                rideIds.add(ride.path("id").asLong());
+                driverIds.add(ride.path("driver").path("id").asLong());
+            }
+            entry.rideIds = rideIds;
+            entry.driverIds = driverIds;
+        } catch (IOException e) {
+            logger.debug("Could not read ride ids of a cached listing: {}", e.getMessage());
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(date).toLocalDate();
+        } catch (DateTimeParseException e) {
+            // Unknown format: match rides on any date
+            return null;
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Search terms of a cached listing (normalized); date null matches any date
+     */
+    private static final class Query {
+        private final String origin;
+        private final String destination;
+        private final LocalDate date;
+
+        Query(String origin, String destination, LocalDate date) {
+            this.origin = origin;
+            this.destination = destination;
+            this.date = date;
+        }
+    }
+
+    /**
+     * A cached listing with what is needed to decide whether a change affects it;
+     * a null query is the listing of all rides
+     */
+    private static final class Entry {
+        private final CachedListing listing;
+        private final Query query;
+        private Set<Long> rideIds;
+        private Set<Long> driverIds;
+
+        Entry(CachedListing listing, Query query) {
+            this.listing = listing;
+            this.query = query;
+        }
+    }
+
+    /**
+     * Immutable serialized listing
+     */
+    public static class CachedListing {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String contentType;
+        private final String etag;
+        private final long expiresAt;
+
+        public CachedListing(byte[] json, byte[] gzip, String contentType, String etag, long expiresAt) {
+            this.json = json;
+            this.gzip = gzip;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+        public String getContentType() { return contentType; }
+        public String getEtag() { return etag; }
+    }
+}
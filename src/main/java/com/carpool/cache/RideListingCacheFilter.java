@@ -0,0 +1,128 @@
+package com.carpool.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Serves the public ride listings (/api/rides, /api/rides/search) from
+ * {@link RideListingCache}. Hits are written straight to the servlet output
+ * stream; misses go through the controller and the serialized body is captured.
+ * Concurrent misses for the same query are coalesced: one request runs the
+ * controller and the others are answered with its serialized body.
+ */
+public class RideListingCacheFilter extends OncePerRequestFilter {
+
+    private final RideListingCache cache;
+    private final SingleFlight<String, RideListingCache.CachedListing> flights;
+    private final long maxWaitMs;
+
+    public RideListingCacheFilter(RideListingCache cache,
+                                  SingleFlight<String, RideListingCache.CachedListing> flights,
+                                  long maxWaitMs) {
+        this.cache = cache;
+        this.flights = flights;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return (!cache.isEnabled() && flights == null) || !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = RideListingCache.keyFor(
+                request.getParameter("origin"),
+                request.getParameter("destination"),
+                request.getParameter("date"));
+
+        RideListingCache.CachedListing listing = cache.isEnabled() ? cache.get(key) : null;
+        if (listing != null) {
+            writeCached(request, response, listing);
+            return;
+        }
+
+        SingleFlight.Call<RideListingCache.CachedListing> call = flights != null ? flights.join(key) : null;
+        if (call != null && !call.isLeader()) {
+            RideListingCache.CachedListing shared;
+            try {
+                shared = call.await(maxWaitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shared = null;
+            }
+            if (shared != null) {
+                writeCached(request, response, shared);
+                return;
+            }
+            // The leader had nothing shareable (error, 304) or was too slow: compute our own
+        }
+
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        RideListingCache.CachedListing computed = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK
+                    && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+                byte[] json = wrapper.getContentAsByteArray();
+                String etag = wrapper.getHeader(HttpHeaders.ETAG);
+                computed = new RideListingCache.CachedListing(json, null, wrapper.getContentType(), etag, 0);
+                if (cache.isEnabled()) {
+                    cache.put(request.getParameter("origin"), request.getParameter("destination"),
+                            request.getParameter("date"), json, wrapper.getContentType(), etag, generation);
+                }
+            }
+        } finally {
+            if (call != null) {
+                call.complete(computed);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response,
+                             RideListingCache.CachedListing listing) throws IOException {
+        String etag = listing.getEtag();
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            // Same If-None-Match handling as the controllers (weak validators, lists); Spring 6.0
+            // does not let * match on GET, so that case is handled here
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && "*".equals(ifNoneMatch.trim())) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+                return;
+            }
+        }
+
+        byte[] body = listing.getJson();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (listing.getGzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = listing.getGzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(listing.getContentType());
+        response.setContentLength(body.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+}
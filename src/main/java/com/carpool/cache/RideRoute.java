@@ -0,0 +1,62 @@
+package com.carpool.cache;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Origin, destination and departure dates of one or more rides, as matched by the
+ * ride searches. Encoded as a compact invalidation key: the two dates, the length
+ * of the origin, then origin and destination.
+ */
+public final class RideRoute {
+
+    private final String origin;
+    private final String destination;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+
+    public RideRoute(String origin, String destination, LocalDate firstDate, LocalDate lastDate) {
+        this.origin = origin;
+        this.destination = destination;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+    }
+
+    public String toKey() {
+        return firstDate + "|" + lastDate + "|" + origin.length() + "|" + origin + destination;
+    }
+
+    public static RideRoute fromKey(String key) {
+        String[] head = key.split("\\|", 4);
+        int originLength = Integer.parseInt(head[2]);
+        return new RideRoute(head[3].substring(0, originLength), head[3].substring(originLength),
+                LocalDate.parse(head[0]), LocalDate.parse(head[1]));
+    }
+
+    /**
+     * Whether a search for the given (normalized) terms, on the given date if any,
+     * can return a ride on this route. Mirrors the case-insensitive LIKE '%term%' of
+     * the search queries; the database collation also ignores accents, so both sides
+     * are compared without them.
+     */
+    public boolean matches(String originTerm, String destinationTerm, LocalDate date) {
+        if (date != null && (date.isBefore(firstDate) || date.isAfter(lastDate))) {
+            return false;
+        }
+        return contains(origin, originTerm) && contains(destination, destinationTerm);
+    }
+
+    /**
+     * Lower-case a search term or route part and strip its accents
+     */
+    public static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "");
+    }
+
+    private static boolean contains(String value, String term) {
+        // A LIKE wildcard in the term could match anything; assume it does
+        return term.indexOf('%') >= 0 || term.indexOf('_') >= 0 || normalize(value).contains(term);
+    }
+}
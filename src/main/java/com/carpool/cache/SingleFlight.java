@@ -0,0 +1,129 @@
+package com.carpool.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent computations of the same key: the first caller (the leader)
+ * computes, and callers arriving while it runs, or within the freshness window
+ * after it finished, share its result instead of computing again.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long freshnessNanos;
+    private final int maxKeys;
+    private final Counter leaders;
+    private final Counter inFlightFollowers;
+    private final Counter freshFollowers;
+
+    public SingleFlight(String metricName, long freshnessMs, int maxKeys, MeterRegistry meterRegistry) {
+        this.freshnessNanos = TimeUnit.MILLISECONDS.toNanos(freshnessMs);
+        this.maxKeys = maxKeys;
+        this.leaders = Counter.builder(metricName).tag("role", "leader").register(meterRegistry);
+        this.inFlightFollowers = Counter.builder(metricName).tag("role", "follower-in-flight").register(meterRegistry);
+        this.freshFollowers = Counter.builder(metricName).tag("role", "follower-fresh").register(meterRegistry);
+    }
+
+    /**
+     * Join the flight for a key, becoming its leader if none is running or fresh
+     */
+    public Call<V> join(K key) {
+        while (true) {
+            long now = System.nanoTime();
+            Flight<V> current = flights.get(key);
+
+            if (current != null) {
+                if (!current.result.isDone()) {
+                    inFlightFollowers.increment();
+                    return new Call<>(this, key, current, false);
+                }
+                if (current.isFresh(now, freshnessNanos)) {
+                    freshFollowers.increment();
+                    return new Call<>(this, key, current, false);
+                }
+            }
+
+            if (current == null && flights.size() >= maxKeys) {
+                flights.values().removeIf(flight -> flight.result.isDone() && !flight.isFresh(now, freshnessNanos));
+            }
+
+            Flight<V> flight = new Flight<>();
+            boolean installed = current == null
+                    ? flights.putIfAbsent(key, flight) == null
+                    : flights.replace(key, current, flight);
+            if (installed) {
+                leaders.increment();
+                return new Call<>(this, key, flight, true);
+            }
+            // Lost the race to another leader; join its flight instead
+        }
+    }
+
+    private void finish(K key, Flight<V> flight, V value) {
+        flight.completedAt = System.nanoTime();
+        // Nothing to share, or nothing to keep: let the next caller lead
+        if (value == null || freshnessNanos == 0) {
+            flights.remove(key, flight);
+        }
+        flight.result.complete(value);
+    }
+
+    /**
+     * One caller's membership in a flight
+     */
+    public static final class Call<V> {
+        private final SingleFlight<Object, V> owner;
+        private final Object key;
+        private final Flight<V> flight;
+        private final boolean leader;
+
+        @SuppressWarnings("unchecked")
+        private Call(SingleFlight<?, V> owner, Object key, Flight<V> flight, boolean leader) {
+            this.owner = (SingleFlight<Object, V>) owner;
+            this.key = key;
+            this.flight = flight;
+            this.leader = leader;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Leader only: publish the result; null means it cannot be shared (followers compute their own)
+         */
+        public void complete(V value) {
+            if (leader) {
+                owner.finish(key, flight, value);
+            }
+        }
+
+        /**
+         * Follower only: the leader's result, or null if it had none or took longer than maxWaitMs
+         */
+        public V await(long maxWaitMs) throws InterruptedException {
+            try {
+                return flight.result.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        boolean isFresh(long now, long freshnessNanos) {
+            return result.isDone() && now - completedAt < freshnessNanos;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.carpool.config;
+
+import com.carpool.entity.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves each ID generator row past the highest id already stored, so tables that
+ * were filled through AUTO_INCREMENT (or the setup script) never collide with
+ * pooled allocation. Runs once at startup, after the schema migrations.
+ */
+@Component
+public class IdGeneratorInitializer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+    
+    // Generator row -> tables whose ids come from it (archived rows keep their original ids)
+    private static final Map<String, List<String>> SEGMENTS = new LinkedHashMap<>();
+    
+    static {
+        SEGMENTS.put("users", List.of("users"));
+        SEGMENTS.put("rides", List.of("rides", "rides_archive"));
+        SEGMENTS.put("reservations", List.of("reservations", "reservations_archive"));
+        SEGMENTS.put("reviews", List.of("reviews", "reviews_archive"));
+        SEGMENTS.put("waitlist_entries", List.of("waitlist_entries"));
+        SEGMENTS.put("outbox_events", List.of("outbox_events"));
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        // The EntityManagerFactory dependency only ensures the schema exists before this runs
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @PostConstruct
+    public void alignGenerators() {
+        for (Map.Entry<String, List<String>> segment : SEGMENTS.entrySet()) {
+            long maxId = 0;
+            for (String table : segment.getValue()) {
+                Long tableMax = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                maxId = Math.max(maxId, tableMax == null ? 0 : tableMax);
+            }
+            
+            // The pooled optimizer hands out (next_val - allocationSize, next_val]
+            long required = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+            
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? " +
+                    "WHERE " + IdGenerators.PK_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                    required, segment.getKey(), required);
+            
+            if (updated == 0) {
+                Integer rows = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + IdGenerators.TABLE + " WHERE " + IdGenerators.PK_COLUMN + " = ?",
+                        Integer.class, segment.getKey());
+                if (rows == null || rows == 0) {
+                    jdbcTemplate.update(
+                            "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.PK_COLUMN + ", " +
+                            IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)",
+                            segment.getKey(), required);
+                    updated = 1;
+                }
+            }
+            
+            if (updated > 0) {
+                logger.info("ID generator '{}' moved to {}", segment.getKey(), required);
+            }
+        }
+    }
+}
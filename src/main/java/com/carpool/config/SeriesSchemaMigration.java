@@ -0,0 +1,195 @@
+package com.carpool.config;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * Schema version 1.1: what the application added to the version 1 schema
+ * (database-setup.sql) while ddl-auto=update still managed it. That is the optimistic
+ * lock versions, the waitlist, the archive tables, the pooled ID generators and the
+ * lifecycle index, plus users.rating as DOUBLE (the type the entity maps).
+ * <p>
+ * A database adopted at version 1 may already have any of these from a build that ran
+ * with ddl-auto=update, so every change is checked against the catalog and only made
+ * when it is missing. Spring Boot hands JavaMigration beans to Flyway.
+ */
+@Component
+public class SeriesSchemaMigration implements JavaMigration {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SeriesSchemaMigration.class);
+    
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("1.1");
+    }
+    
+    @Override
+    public String getDescription() {
+        return "application schema additions";
+    }
+    
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+    
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Schema schema = new Schema(context.getConnection());
+        
+        if (schema.columnType("users", "rating") != Types.DOUBLE) {
+            schema.execute("ALTER TABLE users MODIFY rating DOUBLE DEFAULT 0");
+        }
+        
+        // Optimistic locking on rides and reservations
+        schema.addColumnIfMissing("rides", "version", "BIGINT NOT NULL DEFAULT 0");
+        schema.addColumnIfMissing("reservations", "version", "BIGINT NOT NULL DEFAULT 0");
+        
+        // Lifecycle job: active rides by departure
+        schema.createIndexIfMissing("rides", "idx_rides_status_date", "status, date_time");
+        
+        schema.createTableIfMissing("waitlist_entries",
+                "CREATE TABLE waitlist_entries (" +
+                "    id BIGINT NOT NULL PRIMARY KEY," +
+                "    ride_id BIGINT NOT NULL," +
+                "    user_id BIGINT NOT NULL," +
+                "    seats_requested INT NOT NULL," +
+                "    status ENUM('WAITING', 'PROMOTED', 'CANCELLED', 'EXPIRED') NOT NULL," +
+                "    created_at DATETIME(6) NOT NULL," +
+                "    updated_at DATETIME(6)," +
+                "    CONSTRAINT uk_waitlist_ride_user UNIQUE (ride_id, user_id)," +
+                "    CONSTRAINT fk_waitlist_ride FOREIGN KEY (ride_id) REFERENCES rides (id) ON DELETE CASCADE," +
+                "    CONSTRAINT fk_waitlist_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE" +
+                ") ENGINE=InnoDB");
+        schema.createIndexIfMissing("waitlist_entries", "idx_waitlist_ride_status", "ride_id, status, created_at");
+        
+        // Archive tables: append-only copies of finished rides, without foreign keys
+        schema.createTableIfMissing("rides_archive",
+                "CREATE TABLE rides_archive (" +
+                "    id BIGINT NOT NULL PRIMARY KEY," +
+                "    driver_id BIGINT," +
+                "    origin VARCHAR(255)," +
+                "    destination VARCHAR(255)," +
+                "    date_time DATETIME(6)," +
+                "    price DECIMAL(10,2)," +
+                "    available_seats INT," +
+                "    total_seats INT," +
+                "    description TEXT," +
+                "    status ENUM('ACTIVE', 'COMPLETED', 'CANCELLED')," +
+                "    created_at DATETIME(6)," +
+                "    updated_at DATETIME(6)," +
+                "    archived_at DATETIME(6)" +
+                ") ENGINE=InnoDB");
+        schema.createIndexIfMissing("rides_archive", "idx_rides_archive_driver_date", "driver_id, date_time");
+        
+        schema.createTableIfMissing("reservations_archive",
+                "CREATE TABLE reservations_archive (" +
+                "    id BIGINT NOT NULL PRIMARY KEY," +
+                "    ride_id BIGINT," +
+                "    user_id BIGINT," +
+                "    seats_reserved INT," +
+                "    status ENUM('CONFIRMED', 'CANCELLED', 'COMPLETED')," +
+                "    notes TEXT," +
+                "    created_at DATETIME(6)," +
+                "    updated_at DATETIME(6)," +
+                "    archived_at DATETIME(6)" +
+                ") ENGINE=InnoDB");
+        schema.createIndexIfMissing("reservations_archive", "idx_reservations_archive_user", "user_id, created_at");
+        schema.createIndexIfMissing("reservations_archive", "idx_reservations_archive_ride", "ride_id");
+        
+        schema.createTableIfMissing("reviews_archive",
+                "CREATE TABLE reviews_archive (" +
+                "    id BIGINT NOT NULL PRIMARY KEY," +
+                "    ride_id BIGINT," +
+                "    reviewer_id BIGINT," +
+                "    driver_id BIGINT," +
+                "    rating INT," +
+                "    comment TEXT," +
+                "    created_at DATETIME(6)," +
+                "    updated_at DATETIME(6)," +
+                "    archived_at DATETIME(6)" +
+                ") ENGINE=InnoDB");
+        schema.createIndexIfMissing("reviews_archive", "idx_reviews_archive_driver", "driver_id, created_at");
+        schema.createIndexIfMissing("reviews_archive", "idx_reviews_archive_reviewer", "reviewer_id, created_at");
+        
+        // Pooled ID allocation; IdGeneratorInitializer moves the rows past existing ids
+        schema.createTableIfMissing("id_generators",
+                "CREATE TABLE id_generators (" +
+                "    entity VARCHAR(255) NOT NULL PRIMARY KEY," +
+                "    next_val BIGINT" +
+                ") ENGINE=InnoDB");
+    }
+    
+    /**
+     * Catalog lookups and DDL on the migration connection
+     */
+    private static class Schema {
+        
+        private final Connection connection;
+        private final DatabaseMetaData metaData;
+        
+        Schema(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.metaData = connection.getMetaData();
+        }
+        
+        void execute(String sql) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+            logger.info("Schema 1.1: {}", sql.length() > 80 ? sql.substring(0, 80) + "..." : sql);
+        }
+        
+        void createTableIfMissing(String table, String ddl) throws SQLException {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(),
+                    table, new String[] {"TABLE"})) {
+                if (tables.next()) {
+                    return;
+                }
+            }
+            execute(ddl);
+        }
+        
+        void addColumnIfMissing(String table, String column, String definition) throws SQLException {
+            if (columnType(table, column) == Types.NULL) {
+                execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            }
+        }
+        
+        void createIndexIfMissing(String table, String index, String columns) throws SQLException {
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    table, false, false)) {
+                while (indexes.next()) {
+                    if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                        return;
+                    }
+                }
+            }
+            execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+        }
+        
+        // java.sql.Types code of a column, Types.NULL when there is no such column
+        int columnType(String table, String column) throws SQLException {
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(),
+                    table, column)) {
+                return columns.next() ? columns.getInt("DATA_TYPE") : Types.NULL;
+            }
+        }
+    }
+}
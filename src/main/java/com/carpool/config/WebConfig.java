@@ -1,14 +1,81 @@
 package com.carpool.config;
 
+import com.carpool.cache.RideListingCache;
+import com.carpool.cache.RideListingCacheFilter;
+import com.carpool.cache.SingleFlight;
+import com.carpool.limiter.AdaptiveConcurrencyLimit;
+import com.carpool.limiter.ConcurrencyLimitFilter;
+import com.carpool.limiter.ClientRateLimiter;
+import com.carpool.limiter.ConcurrencyLimitProperties;
+import com.carpool.limiter.RateLimitFilter;
+import com.carpool.limiter.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableConfigurationProperties({ConcurrencyLimitProperties.class, RateLimitProperties.class})
 public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void configurePathMatch(PathMatchConfigurer configurer) {
         configurer.addPathPrefix("/api", c -> c.getPackage().getName().startsWith("com.carpool.controller"));
     }
+    
+    @Bean
+    public FilterRegistrationBean<RideListingCacheFilter> rideListingCacheFilter(
+            RideListingCache rideListingCache, MeterRegistry meterRegistry,
+            @Value("${carpool.search-coalescing.enabled:true}") boolean coalescingEnabled,
+            @Value("${carpool.search-coalescing.freshness-ms:250}") long freshnessMs,
+            @Value("${carpool.search-coalescing.max-wait-ms:5000}") long maxWaitMs,
+            @Value("${carpool.search-coalescing.max-keys:1024}") int maxKeys) {
+        // Identical concurrent listing requests share one controller call (and one serialization)
+        SingleFlight<String, RideListingCache.CachedListing> flights = coalescingEnabled
+                ? new SingleFlight<>("carpool.search.coalescing", freshnessMs, maxKeys, meterRegistry)
+                : null;
+        
+        FilterRegistrationBean<RideListingCacheFilter> registration =
+                new FilterRegistrationBean<>(new RideListingCacheFilter(rideListingCache, flights, maxWaitMs));
+        registration.addUrlPatterns("/api/rides", "/api/rides/search");
+        // Run after the security chain so CORS and security headers are still applied on cache hits
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registration;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "carpool.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties, meterRegistry);
+        
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limit, exceptionResolver, properties.getRetryAfterSeconds()));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of the security chain: shed requests before the JWT filter looks up their user
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "carpool.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ClientRateLimiter clientRateLimiter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(clientRateLimiter, exceptionResolver));
+        registration.addUrlPatterns("/api/*");
+        // After the security chain (user ids are known), before the listing cache
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
 }
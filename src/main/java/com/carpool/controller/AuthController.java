@@ -1,11 +1,17 @@
 package com.carpool.controller;
 
 import com.carpool.dto.JwtResponseDto;
+import com.carpool.dto.TokenRefreshDto;
 import com.carpool.dto.UserLoginDto;
 import com.carpool.dto.UserRegistrationDto;
 import com.carpool.dto.UserResponseDto;
+import com.carpool.exception.ServiceUnavailableException;
 import com.carpool.security.JwtUtils;
+import com.carpool.security.LoginThrottle;
+import com.carpool.security.UserPrincipal;
+import com.carpool.service.RefreshTokenService;
 import com.carpool.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -16,6 +22,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/auth")
@@ -30,8 +38,17 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
     
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody UserRegistrationDto registrationDto,
+                                          HttpServletRequest request) {
+        loginThrottle.checkRegistration(request.getRemoteAddr());
+        
         try {
             UserResponseDto userResponse = userService.registerUser(registrationDto);
             
@@ -41,17 +58,25 @@ public class AuthController {
                 userResponse.getId(), 
                 userResponse.getRole().name()
             );
+            RefreshTokenService.IssuedToken refreshToken = refreshTokenService.issue(
+                userResponse.getId(), userResponse.getEmail(), userResponse.getRole());
             
-            JwtResponseDto jwtResponse = new JwtResponseDto(jwt, userResponse);
+            JwtResponseDto jwtResponse = new JwtResponseDto(jwt, refreshToken.getToken(),
+                    jwtUtils.getExpirationSeconds(), userResponse);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(jwtResponse);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody UserLoginDto loginDto) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody UserLoginDto loginDto,
+                                              HttpServletRequest request) {
+        loginThrottle.checkLogin(loginDto.getEmail(), request.getRemoteAddr());
+        
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginDto.getEmail(), loginDto.getPassword())
@@ -60,21 +85,51 @@ public class AuthController {
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
             
-            // Get user details
-            UserResponseDto userResponse = userService.getUserProfile(
-                jwtUtils.getUserIdFromJwtToken(jwt)
-            );
+            // The profile comes from the row read during authentication, not a second query
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+            UserResponseDto userResponse = new UserResponseDto(principal.getUser());
             
-            JwtResponseDto jwtResponse = new JwtResponseDto(jwt, userResponse);
+            RefreshTokenService.IssuedToken refreshToken = refreshTokenService.issue(
+                principal.getId(), principal.getEmail(), principal.getRole());
+            
+            JwtResponseDto jwtResponse = new JwtResponseDto(jwt, refreshToken.getToken(),
+                    jwtUtils.getExpirationSeconds(), userResponse);
             
             return ResponseEntity.ok(jwtResponse);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: Invalid credentials");
         }
     }
     
+    /**
+     * Exchange a refresh token for a new access token (and a new refresh token);
+     * no password check, so no hashing
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody TokenRefreshDto refreshDto) {
+        Optional<RefreshTokenService.IssuedToken> rotated = refreshTokenService.rotate(refreshDto.getRefreshToken());
+        if (rotated.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Error: Invalid refresh token");
+        }
+        
+        RefreshTokenService.IssuedToken refreshToken = rotated.get();
+        String jwt = jwtUtils.generateTokenFromEmail(
+            refreshToken.getEmail(),
+            refreshToken.getUserId(),
+            refreshToken.getRole().name()
+        );
+        
+        return ResponseEntity.ok(new JwtResponseDto(jwt, refreshToken.getToken(),
+                jwtUtils.getExpirationSeconds(), null));
+    }
+    
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser() {
+    public ResponseEntity<?> logoutUser(@RequestBody(required = false) TokenRefreshDto refreshDto) {
+        if (refreshDto != null && refreshDto.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshDto.getRefreshToken());
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok("User logged out successfully");
     }
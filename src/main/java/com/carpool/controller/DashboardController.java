@@ -0,0 +1,26 @@
+package com.carpool.controller;
+
+import com.carpool.dto.DashboardResponseDto;
+import com.carpool.security.UserPrincipal;
+import com.carpool.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @GetMapping
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public ResponseEntity<DashboardResponseDto> getDashboard(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        DashboardResponseDto dashboard = dashboardService.getDashboard(userPrincipal.getId());
+        return ResponseEntity.ok(dashboard);
+    }
+}
@@ -3,6 +3,7 @@ package com.carpool.controller;
 import com.carpool.dto.ReservationCreateDto;
 import com.carpool.dto.ReservationResponseDto;
 import com.carpool.security.UserPrincipal;
+import com.carpool.service.IdempotencyService;
 import com.carpool.service.ReservationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,14 +24,41 @@ public class ReservationController {
     @Autowired
     private ReservationService reservationService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
     public ResponseEntity<ReservationResponseDto> createReservation(@Valid @RequestBody ReservationCreateDto reservationDto,
+                                                                   @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
                                                                    @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        ReservationResponseDto reservation = reservationService.createReservation(reservationDto, userPrincipal.getId());
+        IdempotencyService.Outcome<ReservationResponseDto> outcome = idempotencyService.execute("reservations",
+                userPrincipal.getId(), idempotencyKey, reservationDto, ReservationResponseDto.class,
+                () -> reservationService.createReservation(reservationDto, userPrincipal.getId()));
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (outcome.isReplayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(outcome.getResponse());
+    }
+    
+    @PostMapping("/holds")
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public ResponseEntity<ReservationResponseDto> holdSeats(@Valid @RequestBody ReservationCreateDto reservationDto,
+                                                           @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        ReservationResponseDto reservation = reservationService.holdSeats(reservationDto, userPrincipal.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
     }
     
+    @PutMapping("/{id}/confirm")
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public ResponseEntity<ReservationResponseDto> confirmHold(@PathVariable Long id,
+                                                             @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        ReservationResponseDto reservation = reservationService.confirmHold(id, userPrincipal.getId());
+        return ResponseEntity.ok(reservation);
+    }
+    
     @GetMapping("/my-reservations")
     @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
     public ResponseEntity<List<ReservationResponseDto>> getMyReservations(@AuthenticationPrincipal UserPrincipal userPrincipal) {
@@ -3,6 +3,7 @@ package com.carpool.controller;
 import com.carpool.dto.ReviewCreateDto;
 import com.carpool.dto.ReviewResponseDto;
 import com.carpool.security.UserPrincipal;
+import com.carpool.service.IdempotencyService;
 import com.carpool.service.ReviewService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,22 +24,43 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
     public ResponseEntity<ReviewResponseDto> createReview(@Valid @RequestBody ReviewCreateDto reviewDto,
+                                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
                                                          @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        ReviewResponseDto review = reviewService.createReview(reviewDto, userPrincipal.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(review);
+        IdempotencyService.Outcome<ReviewResponseDto> outcome = idempotencyService.execute("reviews",
+                userPrincipal.getId(), idempotencyKey, reviewDto, ReviewResponseDto.class,
+                () -> reviewService.createReview(reviewDto, userPrincipal.getId()));
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (outcome.isReplayed()) {
+            response.header(IdempotencyService.REPLAYED_HEADER, "true");
+        }
+        return response.body(outcome.getResponse());
     }
     
     @GetMapping("/driver/{driverId}")
-    public ResponseEntity<List<ReviewResponseDto>> getReviewsByDriver(@PathVariable Long driverId) {
+    public ResponseEntity<List<ReviewResponseDto>> getReviewsByDriver(@PathVariable Long driverId, WebRequest request) {
+        String etag = reviewService.getReviewsByDriverETag(driverId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         List<ReviewResponseDto> reviews = reviewService.getReviewsByDriver(driverId);
         return ResponseEntity.ok(reviews);
     }
     
     @GetMapping("/driver/{driverId}/recent")
-    public ResponseEntity<List<ReviewResponseDto>> getRecentReviewsByDriver(@PathVariable Long driverId) {
+    public ResponseEntity<List<ReviewResponseDto>> getRecentReviewsByDriver(@PathVariable Long driverId, WebRequest request) {
+        String etag = reviewService.getReviewsByDriverETag(driverId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         List<ReviewResponseDto> reviews = reviewService.getRecentReviewsByDriver(driverId);
         return ResponseEntity.ok(reviews);
     }
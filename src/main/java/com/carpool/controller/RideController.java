@@ -2,6 +2,8 @@ package com.carpool.controller;
 
 import com.carpool.dto.RideCreateDto;
 import com.carpool.dto.RideResponseDto;
+import com.carpool.dto.RideSeriesCreateDto;
+import com.carpool.dto.RideSeriesResponseDto;
 import com.carpool.entity.Ride;
 import com.carpool.security.UserPrincipal;
 import com.carpool.service.RideService;
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -33,8 +36,21 @@ public class RideController {
         return ResponseEntity.status(HttpStatus.CREATED).body(rideResponse);
     }
     
+    @PostMapping("/series")
+    @PreAuthorize("hasRole('DRIVER')")
+    public ResponseEntity<RideSeriesResponseDto> createRideSeries(@Valid @RequestBody RideSeriesCreateDto seriesDto,
+                                                                  @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        RideSeriesResponseDto seriesResponse = rideService.createRideSeries(seriesDto, userPrincipal.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(seriesResponse);
+    }
+    
     @GetMapping
-    public ResponseEntity<List<RideResponseDto>> getAllRides() {
+    public ResponseEntity<List<RideResponseDto>> getAllRides(WebRequest request) {
+        String etag = rideService.getAllActiveRidesETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         List<RideResponseDto> rides = rideService.getAllActiveRides();
         return ResponseEntity.ok(rides);
     }
@@ -43,11 +59,16 @@ public class RideController {
     public ResponseEntity<List<RideResponseDto>> searchRides(
             @RequestParam(required = false) String origin,
             @RequestParam(required = false) String destination,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            WebRequest request) {
         
         if (origin == null || destination == null) {
-            List<RideResponseDto> rides = rideService.getAllActiveRides();
-            return ResponseEntity.ok(rides);
+            return getAllRides(request);
+        }
+        
+        String etag = rideService.getSearchRidesETag(origin, destination, date);
+        if (request.checkNotModified(etag)) {
+            return null;
         }
         
         List<RideResponseDto> rides = rideService.searchRides(origin, destination, date);
@@ -55,7 +76,12 @@ public class RideController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<RideResponseDto> getRideById(@PathVariable Long id) {
+    public ResponseEntity<RideResponseDto> getRideById(@PathVariable Long id, WebRequest request) {
+        String etag = rideService.getRideETag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         RideResponseDto ride = rideService.getRideById(id);
         return ResponseEntity.ok(ride);
     }
@@ -0,0 +1,47 @@
+package com.carpool.controller;
+
+import com.carpool.dto.WaitlistCreateDto;
+import com.carpool.dto.WaitlistEntryResponseDto;
+import com.carpool.security.UserPrincipal;
+import com.carpool.service.WaitlistService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/waitlist")
+public class WaitlistController {
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @PostMapping
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public ResponseEntity<WaitlistEntryResponseDto> joinWaitlist(@Valid @RequestBody WaitlistCreateDto waitlistDto,
+                                                                 @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        WaitlistEntryResponseDto entry = waitlistService.joinWaitlist(waitlistDto, userPrincipal.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+    }
+    
+    @GetMapping("/my-entries")
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public ResponseEntity<List<WaitlistEntryResponseDto>> getMyEntries(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        List<WaitlistEntryResponseDto> entries = waitlistService.getEntriesByUser(userPrincipal.getId());
+        return ResponseEntity.ok(entries);
+    }
+    
+    @PutMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('USER') or hasRole('DRIVER')")
+    public ResponseEntity<WaitlistEntryResponseDto> cancelEntry(@PathVariable Long id,
+                                                                @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        WaitlistEntryResponseDto entry = waitlistService.cancelEntry(id, userPrincipal.getId());
+        return ResponseEntity.ok(entry);
+    }
+}
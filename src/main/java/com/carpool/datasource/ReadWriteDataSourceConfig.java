@@ -0,0 +1,94 @@
+package com.carpool.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with primary/replica routing when
+ * carpool.datasource.routing.enabled is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "carpool.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadWriteDataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                       DataSourceProperties primaryProperties,
+                                                       ReplicaProperties replicaProperties,
+                                                       MeterRegistry meterRegistry) {
+        List<ReadWriteRoutingDataSource.ReplicaNode> replicas = new ArrayList<>();
+        
+        for (int i = 0; i < replicaProperties.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = replicaProperties.getReplicas().get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + (i + 1);
+            
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("carpool-" + name);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.getUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.getPassword());
+            pool.setDriverClassName(primaryProperties.determineDriverClassName());
+            pool.setMaximumPoolSize(replicaProperties.getReplicaPoolSize());
+            pool.setReadOnly(true);
+            // Do not fail startup when a replica is down; the lag check keeps it out of rotation
+            pool.setInitializationFailTimeout(-1);
+            
+            replicas.add(new ReadWriteRoutingDataSource.ReplicaNode(name, pool, replicaProperties.getMaxCheckAgeMs()));
+        }
+        
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                replicaProperties.getMaxReplicaLagSeconds(), replicaProperties.getLagQuery(),
+                replicaProperties.getLagColumn(), meterRegistry);
+        routingDataSource.checkReplicas();
+        return routingDataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+    
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource routingDataSource) {
+        return new ReplicaLagMonitor(routingDataSource);
+    }
+    
+    /**
+     * Re-checks replica lag on a fixed delay
+     */
+    public static class ReplicaLagMonitor {
+        
+        private final ReadWriteRoutingDataSource routingDataSource;
+        
+        public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource) {
+            this.routingDataSource = routingDataSource;
+        }
+        
+        @Scheduled(fixedDelayString = "${carpool.datasource.replica-check-interval-ms:5000}")
+        public void checkReplicas() {
+            routingDataSource.checkReplicas();
+        }
+    }
+}
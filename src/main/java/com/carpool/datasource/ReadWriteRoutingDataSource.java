@@ -0,0 +1,186 @@
+package com.carpool.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica (round-robin)
+ * and everything else to the primary. A replica is only used while its last lag
+ * check succeeded within the allowed lag and is recent enough (a stuck or slow
+ * monitor must not keep a replica in rotation); if none qualifies, or a replica
+ * refuses a connection, the read falls back to the primary.
+ * <p>
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the connection is fetched
+ * after the transaction's read-only flag has been set.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    
+    private final Counter replicaReads;
+    private final Counter primaryFallbacks;
+    
+    public ReadWriteRoutingDataSource(DataSource primary, List<ReplicaNode> replicas, long maxLagSeconds,
+                                      String lagQuery, String lagColumn, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.replicaReads = Counter.builder("carpool.datasource.reads")
+                .tag("target", "replica").register(meterRegistry);
+        this.primaryFallbacks = Counter.builder("carpool.datasource.reads")
+                .tag("target", "primary-fallback").register(meterRegistry);
+        
+        for (ReplicaNode replica : replicas) {
+            Gauge.builder("carpool.datasource.replica.lag.seconds", replica, ReplicaNode::getLagSeconds)
+                    .tag("replica", replica.getName()).register(meterRegistry);
+            Gauge.builder("carpool.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName()).register(meterRegistry);
+            Gauge.builder("carpool.datasource.replica.check.age.seconds", replica, ReplicaNode::getCheckAgeSeconds)
+                    .tag("replica", replica.getName()).register(meterRegistry);
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return primary.getConnection();
+        }
+        
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaNode replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            
+            try {
+                Connection connection = replica.getDataSource().getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markUnhealthy();
+                logger.warn("Replica {} refused a connection, falling back: {}", replica.getName(), e.getMessage());
+            }
+        }
+        
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+    
+    /**
+     * Probe every replica's replication lag and update its health
+     */
+    public void checkReplicas() {
+        for (ReplicaNode replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            
+            try (Connection connection = replica.getDataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                
+                if (!resultSet.next()) {
+                    replica.markUnhealthy();
+                } else {
+                    long lag = resultSet.getLong(lagColumn);
+                    if (resultSet.wasNull()) {
+                        // Replication threads are stopped
+                        replica.markUnhealthy();
+                    } else {
+                        replica.update(lag, lag <= maxLagSeconds);
+                    }
+                }
+            } catch (SQLException e) {
+                replica.markUnhealthy();
+                logger.debug("Lag check failed on replica {}: {}", replica.getName(), e.getMessage());
+            }
+            
+            if (!wasHealthy && replica.isHealthy()) {
+                logger.info("Replica {} is in rotation (lag {}s)", replica.getName(), replica.getLagSeconds());
+            } else if (wasHealthy && !replica.isHealthy()) {
+                logger.warn("Replica {} is out of rotation", replica.getName());
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        for (ReplicaNode replica : replicas) {
+            if (replica.getDataSource() instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+    
+    /**
+     * A replica pool with its last observed health; a result older than maxCheckAgeMs
+     * counts as unhealthy
+     */
+    public static class ReplicaNode {
+        private final String name;
+        private final DataSource dataSource;
+        private final long maxCheckAgeNanos;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+        // System.nanoTime() of the last completed lag check
+        private volatile long lastCheckedAt;
+        private volatile boolean checked;
+        
+        public ReplicaNode(String name, DataSource dataSource, long maxCheckAgeMs) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.maxCheckAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxCheckAgeMs);
+        }
+        
+        void update(long lag, boolean withinLimit) {
+            this.lagSeconds = lag;
+            this.healthy = withinLimit;
+            checked();
+        }
+        
+        void markUnhealthy() {
+            this.healthy = false;
+            this.lagSeconds = Double.NaN;
+            checked();
+        }
+        
+        private void checked() {
+            this.lastCheckedAt = System.nanoTime();
+            this.checked = true;
+        }
+        
+        public String getName() { return name; }
+        public DataSource getDataSource() { return dataSource; }
+        public boolean isHealthy() { return healthy && checked && System.nanoTime() - lastCheckedAt <= maxCheckAgeNanos; }
+        public double getLagSeconds() { return lagSeconds; }
+        public double getCheckAgeSeconds() { return checked ? (System.nanoTime() - lastCheckedAt) / 1e9 : Double.NaN; }
+    }
+}
@@ -0,0 +1,108 @@
+package com.carpool.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica settings (carpool.datasource.*). The primary keeps using spring.datasource.*.
+ */
+@ConfigurationProperties(prefix = "carpool.datasource")
+public class ReplicaProperties {
+    
+    private List<Replica> replicas = new ArrayList<>();
+    private int replicaPoolSize = 10;
+    private long maxReplicaLagSeconds = 5;
+    private long maxCheckAgeMs = 15000;
+    private String lagQuery = "SHOW REPLICA STATUS";
+    private String lagColumn = "Seconds_Behind_Source";
+    
+    // Getters and Setters
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+    
+    public int getReplicaPoolSize() {
+        return replicaPoolSize;
+    }
+    
+    public void setReplicaPoolSize(int replicaPoolSize) {
+        this.replicaPoolSize = replicaPoolSize;
+    }
+    
+    public long getMaxReplicaLagSeconds() {
+        return maxReplicaLagSeconds;
+    }
+    
+    public void setMaxReplicaLagSeconds(long maxReplicaLagSeconds) {
+        this.maxReplicaLagSeconds = maxReplicaLagSeconds;
+    }
+    
+    public long getMaxCheckAgeMs() {
+        return maxCheckAgeMs;
+    }
+    
+    public void setMaxCheckAgeMs(long maxCheckAgeMs) {
+        this.maxCheckAgeMs = maxCheckAgeMs;
+    }
+    
+    public String getLagQuery() {
+        return lagQuery;
+    }
+    
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+    
+    public String getLagColumn() {
+        return lagColumn;
+    }
+    
+    public void setLagColumn(String lagColumn) {
+        this.lagColumn = lagColumn;
+    }
+    
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public String getUrl() {
+            return url;
+        }
+        
+        public void setUrl(String url) {
+            this.url = url;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+        
+        public void setUsername(String username) {
+            this.username = username;
+        }
+        
+        public String getPassword() {
+            return password;
+        }
+        
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.carpool.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DashboardResponseDto {
+    
+    private UserResponseDto user;
+    private List<ReservationResponseDto> upcomingReservations = new ArrayList<>();
+    private List<ReservationResponseDto> pastReservations = new ArrayList<>();
+    private List<RideResponseDto> myRides = new ArrayList<>();
+    private List<ReviewResponseDto> reviewsReceived = new ArrayList<>();
+    private List<ReviewResponseDto> reviewsWritten = new ArrayList<>();
+    
+    // Constructors
+    public DashboardResponseDto() {}
+    
+    public DashboardResponseDto(UserResponseDto user) {
+        this.user = user;
+    }
+    
+    // Getters and Setters
+    public UserResponseDto getUser() {
+        return user;
+    }
+    
+    public void setUser(UserResponseDto user) {
+        this.user = user;
+    }
+    
+    public List<ReservationResponseDto> getUpcomingReservations() {
+        return upcomingReservations;
+    }
+    
+    public void setUpcomingReservations(List<ReservationResponseDto> upcomingReservations) {
+        this.upcomingReservations = upcomingReservations;
+    }
+    
+    public List<ReservationResponseDto> getPastReservations() {
+        return pastReservations;
+    }
+    
+    public void setPastReservations(List<ReservationResponseDto> pastReservations) {
+        this.pastReservations = pastReservations;
+    }
+    
+    public List<RideResponseDto> getMyRides() {
+        return myRides;
+    }
+    
+    public void setMyRides(List<RideResponseDto> myRides) {
+        this.myRides = myRides;
+    }
+    
+    public List<ReviewResponseDto> getReviewsReceived() {
+        return reviewsReceived;
+    }
+    
+    public void setReviewsReceived(List<ReviewResponseDto> reviewsReceived) {
+        this.reviewsReceived = reviewsReceived;
+    }
+    
+    public List<ReviewResponseDto> getReviewsWritten() {
+        return reviewsWritten;
+    }
+    
+    public void setReviewsWritten(List<ReviewResponseDto> reviewsWritten) {
+        this.reviewsWritten = reviewsWritten;
+    }
+}
@@ -4,6 +4,8 @@ public class JwtResponseDto {
     
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
+    private Long expiresIn;
     private UserResponseDto user;
     
     // Constructors
@@ -14,6 +16,13 @@ public class JwtResponseDto {
         this.user = user;
     }
     
+    public JwtResponseDto(String token, String refreshToken, Long expiresIn, UserResponseDto user) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+        this.user = user;
+    }
+    
     // Getters and Setters
     public String getToken() {
         return token;
@@ -31,6 +40,22 @@ public class JwtResponseDto {
         this.type = type;
     }
     
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+    
     public UserResponseDto getUser() {
         return user;
     }
@@ -1,6 +1,8 @@
 package com.carpool.dto;
 
+import com.carpool.entity.ArchivedReservation;
 import com.carpool.entity.Reservation;
+import com.carpool.entity.User;
 
 import java.time.LocalDateTime;
 
@@ -13,6 +15,7 @@ public class ReservationResponseDto {
     private Reservation.ReservationStatus status;
     private String notes;
     private LocalDateTime createdAt;
+    private LocalDateTime heldUntil;
     
     // Constructors
     public ReservationResponseDto() {}
@@ -25,6 +28,17 @@ public class ReservationResponseDto {
         this.status = reservation.getStatus();
         this.notes = reservation.getNotes();
         this.createdAt = reservation.getCreatedAt();
+        this.heldUntil = reservation.getHeldUntil();
+    }
+    
+    public ReservationResponseDto(ArchivedReservation reservation, RideResponseDto ride, User user) {
+        this.id = reservation.getId();
+        this.ride = ride;
+        this.user = new UserResponseDto(user);
+        this.seatsReserved = reservation.getSeatsReserved();
+        this.status = reservation.getStatus();
+        this.notes = reservation.getNotes();
+        this.createdAt = reservation.getCreatedAt();
     }
     
     // Getters and Setters
@@ -83,4 +97,12 @@ public class ReservationResponseDto {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+    
+    public LocalDateTime getHeldUntil() {
+        return heldUntil;
+    }
+    
+    public void setHeldUntil(LocalDateTime heldUntil) {
+        this.heldUntil = heldUntil;
+    }
 }
@@ -0,0 +1,59 @@
+package com.carpool.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Lightweight version probe used to build HTTP validators (ETags) without
+ * loading the full entity graph. Populated by aggregate JPQL queries.
+ */
+public class ResourceVersion {
+
+    private final Long count;
+    private final LocalDateTime lastModified;
+    private final LocalDateTime relatedLastModified;
+
+    // Constructors
+    public ResourceVersion(Long count, LocalDateTime lastModified) {
+        this(count, lastModified, null);
+    }
+
+    public ResourceVersion(Long count, LocalDateTime lastModified, LocalDateTime relatedLastModified) {
+        this.count = count;
+        this.lastModified = lastModified;
+        this.relatedLastModified = relatedLastModified;
+    }
+
+    /**
+     * Check if the probe matched at least one row
+     */
+    public boolean exists() {
+        return count != null && count > 0;
+    }
+
+    /**
+     * Build an opaque ETag value from the probe
+     */
+    public String toETag() {
+        return Long.toHexString(count == null ? 0 : count) + "-" +
+               Long.toHexString(toEpochMillis(lastModified)) + "-" +
+               Long.toHexString(toEpochMillis(relatedLastModified));
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0L : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    // Getters
+    public Long getCount() {
+        return count;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    public LocalDateTime getRelatedLastModified() {
+        return relatedLastModified;
+    }
+}
@@ -1,6 +1,8 @@
 package com.carpool.dto;
 
+import com.carpool.entity.ArchivedReview;
 import com.carpool.entity.Review;
+import com.carpool.entity.User;
 
 import java.time.LocalDateTime;
 
@@ -27,6 +29,16 @@ public class ReviewResponseDto {
         this.createdAt = review.getCreatedAt();
     }
     
+    public ReviewResponseDto(ArchivedReview review, User reviewer, User driver) {
+        this.id = review.getId();
+        this.rideId = review.getRideId();
+        this.reviewer = new UserResponseDto(reviewer);
+        this.driver = new UserResponseDto(driver);
+        this.rating = review.getRating();
+        this.comment = review.getComment();
+        this.createdAt = review.getCreatedAt();
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
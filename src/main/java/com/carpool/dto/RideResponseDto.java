@@ -1,6 +1,8 @@
 package com.carpool.dto;
 
+import com.carpool.entity.ArchivedRide;
 import com.carpool.entity.Ride;
+import com.carpool.entity.User;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,6 +38,20 @@ public class RideResponseDto {
         this.createdAt = ride.getCreatedAt();
     }
     
+    public RideResponseDto(ArchivedRide ride, User driver) {
+        this.id = ride.getId();
+        this.driver = new UserResponseDto(driver);
+        this.origin = ride.getOrigin();
+        this.destination = ride.getDestination();
+        this.dateTime = ride.getDateTime();
+        this.price = ride.getPrice();
+        this.availableSeats = ride.getAvailableSeats();
+        this.totalSeats = ride.getTotalSeats();
+        this.description = ride.getDescription();
+        this.status = ride.getStatus();
+        this.createdAt = ride.getCreatedAt();
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
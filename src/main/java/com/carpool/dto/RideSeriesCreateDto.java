@@ -0,0 +1,122 @@
+package com.carpool.dto;
+
+import jakarta.validation.constraints.*;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+public class RideSeriesCreateDto {
+    
+    @NotBlank(message = "Origin is required")
+    @Size(max = 255, message = "Origin must not exceed 255 characters")
+    private String origin;
+    
+    @NotBlank(message = "Destination is required")
+    @Size(max = 255, message = "Destination must not exceed 255 characters")
+    private String destination;
+    
+    @NotNull(message = "Start date is required")
+    @FutureOrPresent(message = "Start date must not be in the past")
+    private LocalDate startDate;
+    
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+    
+    @NotNull(message = "Departure time is required")
+    private LocalTime departureTime;
+    
+    // Empty means every day
+    private Set<DayOfWeek> daysOfWeek;
+    
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Price must be greater than 0")
+    @Digits(integer = 10, fraction = 2, message = "Price must have at most 2 decimal places")
+    private BigDecimal price;
+    
+    @NotNull(message = "Available seats is required")
+    @Min(value = 1, message = "Available seats must be at least 1")
+    @Max(value = 8, message = "Available seats cannot exceed 8")
+    private Integer availableSeats;
+    
+    @Size(max = 1000, message = "Description must not exceed 1000 characters")
+    private String description;
+    
+    // Constructors
+    public RideSeriesCreateDto() {}
+    
+    // Getters and Setters
+    public String getOrigin() {
+        return origin;
+    }
+    
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+    
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+    
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+    
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+    
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+    
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public Integer getAvailableSeats() {
+        return availableSeats;
+    }
+    
+    public void setAvailableSeats(Integer availableSeats) {
+        this.availableSeats = availableSeats;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
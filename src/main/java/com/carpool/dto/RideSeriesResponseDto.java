@@ -0,0 +1,44 @@
+package com.carpool.dto;
+
+import java.time.LocalDateTime;
+
+public class RideSeriesResponseDto {
+    
+    private int ridesCreated;
+    private LocalDateTime firstDeparture;
+    private LocalDateTime lastDeparture;
+    
+    // Constructors
+    public RideSeriesResponseDto() {}
+    
+    public RideSeriesResponseDto(int ridesCreated, LocalDateTime firstDeparture, LocalDateTime lastDeparture) {
+        this.ridesCreated = ridesCreated;
+        this.firstDeparture = firstDeparture;
+        this.lastDeparture = lastDeparture;
+    }
+    
+    // Getters and Setters
+    public int getRidesCreated() {
+        return ridesCreated;
+    }
+    
+    public void setRidesCreated(int ridesCreated) {
+        this.ridesCreated = ridesCreated;
+    }
+    
+    public LocalDateTime getFirstDeparture() {
+        return firstDeparture;
+    }
+    
+    public void setFirstDeparture(LocalDateTime firstDeparture) {
+        this.firstDeparture = firstDeparture;
+    }
+    
+    public LocalDateTime getLastDeparture() {
+        return lastDeparture;
+    }
+    
+    public void setLastDeparture(LocalDateTime lastDeparture) {
+        this.lastDeparture = lastDeparture;
+    }
+}
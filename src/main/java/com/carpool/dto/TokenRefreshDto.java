@@ -0,0 +1,25 @@
+package com.carpool.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class TokenRefreshDto {
+    
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+    
+    // Constructors
+    public TokenRefreshDto() {}
+    
+    public TokenRefreshDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
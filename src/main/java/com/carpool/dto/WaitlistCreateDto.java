@@ -0,0 +1,41 @@
+package com.carpool.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class WaitlistCreateDto {
+    
+    @NotNull(message = "Ride ID is required")
+    private Long rideId;
+    
+    @NotNull(message = "Number of seats is required")
+    @Min(value = 1, message = "Number of seats must be at least 1")
+    @Max(value = 8, message = "Number of seats cannot exceed 8")
+    private Integer seatsRequested;
+    
+    // Constructors
+    public WaitlistCreateDto() {}
+    
+    public WaitlistCreateDto(Long rideId, Integer seatsRequested) {
+        this.rideId = rideId;
+        this.seatsRequested = seatsRequested;
+    }
+    
+    // Getters and Setters
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public void setRideId(Long rideId) {
+        this.rideId = rideId;
+    }
+    
+    public Integer getSeatsRequested() {
+        return seatsRequested;
+    }
+    
+    public void setSeatsRequested(Integer seatsRequested) {
+        this.seatsRequested = seatsRequested;
+    }
+}
@@ -0,0 +1,86 @@
+package com.carpool.dto;
+
+import com.carpool.entity.WaitlistEntry;
+
+import java.time.LocalDateTime;
+
+public class WaitlistEntryResponseDto {
+    
+    private Long id;
+    private Long rideId;
+    private Long userId;
+    private Integer seatsRequested;
+    private WaitlistEntry.WaitlistStatus status;
+    private Integer position;
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public WaitlistEntryResponseDto() {}
+    
+    public WaitlistEntryResponseDto(WaitlistEntry entry, Integer position) {
+        this.id = entry.getId();
+        this.rideId = entry.getRide().getId();
+        this.userId = entry.getUser().getId();
+        this.seatsRequested = entry.getSeatsRequested();
+        this.status = entry.getStatus();
+        this.position = position;
+        this.createdAt = entry.getCreatedAt();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public void setRideId(Long rideId) {
+        this.rideId = rideId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getSeatsRequested() {
+        return seatsRequested;
+    }
+    
+    public void setSeatsRequested(Integer seatsRequested) {
+        this.seatsRequested = seatsRequested;
+    }
+    
+    public WaitlistEntry.WaitlistStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(WaitlistEntry.WaitlistStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getPosition() {
+        return position;
+    }
+    
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
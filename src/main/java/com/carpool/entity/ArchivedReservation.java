@@ -0,0 +1,121 @@
+package com.carpool.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reservation moved out of the hot reservations table together with its ride
+ */
+@Entity
+@Immutable
+@Table(name = "reservations_archive", indexes = {
+    @Index(name = "idx_reservations_archive_user", columnList = "user_id, created_at"),
+    @Index(name = "idx_reservations_archive_ride", columnList = "ride_id")
+})
+public class ArchivedReservation {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "ride_id")
+    private Long rideId;
+    
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "seats_reserved")
+    private Integer seatsReserved;
+    
+    @Enumerated(EnumType.STRING)
+    private Reservation.ReservationStatus status;
+    
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+    
+    // Constructors
+    public ArchivedReservation() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public void setRideId(Long rideId) {
+        this.rideId = rideId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Integer getSeatsReserved() {
+        return seatsReserved;
+    }
+    
+    public void setSeatsReserved(Integer seatsReserved) {
+        this.seatsReserved = seatsReserved;
+    }
+    
+    public Reservation.ReservationStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Reservation.ReservationStatus status) {
+        this.status = status;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
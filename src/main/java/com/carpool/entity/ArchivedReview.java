@@ -0,0 +1,120 @@
+package com.carpool.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Review moved out of the hot reviews table together with its ride
+ */
+@Entity
+@Immutable
+@Table(name = "reviews_archive", indexes = {
+    @Index(name = "idx_reviews_archive_driver", columnList = "driver_id, created_at"),
+    @Index(name = "idx_reviews_archive_reviewer", columnList = "reviewer_id, created_at")
+})
+public class ArchivedReview {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "ride_id")
+    private Long rideId;
+    
+    @Column(name = "reviewer_id")
+    private Long reviewerId;
+    
+    @Column(name = "driver_id")
+    private Long driverId;
+    
+    private Integer rating;
+    
+    @Column(columnDefinition = "TEXT")
+    private String comment;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+    
+    // Constructors
+    public ArchivedReview() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public void setRideId(Long rideId) {
+        this.rideId = rideId;
+    }
+    
+    public Long getReviewerId() {
+        return reviewerId;
+    }
+    
+    public void setReviewerId(Long reviewerId) {
+        this.reviewerId = reviewerId;
+    }
+    
+    public Long getDriverId() {
+        return driverId;
+    }
+    
+    public void setDriverId(Long driverId) {
+        this.driverId = driverId;
+    }
+    
+    public Integer getRating() {
+        return rating;
+    }
+    
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+    
+    public String getComment() {
+        return comment;
+    }
+    
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
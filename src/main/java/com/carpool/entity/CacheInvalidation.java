@@ -0,0 +1,86 @@
+package com.carpool.entity;
+
+import com.carpool.cache.InvalidationRegion;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the cache invalidation log that every node tails. Ids come from
+ * AUTO_INCREMENT rather than the pooled generators, so they follow insertion
+ * order across nodes and a node can read the log from a high-water mark.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+    @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at")
+})
+public class CacheInvalidation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private InvalidationRegion region;
+    
+    @Column(name = "cache_key", nullable = false, length = 600)
+    private String cacheKey;
+    
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public CacheInvalidation() {}
+    
+    public CacheInvalidation(InvalidationRegion region, String cacheKey, String nodeId, LocalDateTime createdAt) {
+        this.region = region;
+        this.cacheKey = cacheKey;
+        this.nodeId = nodeId;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public InvalidationRegion getRegion() {
+        return region;
+    }
+    
+    public void setRegion(InvalidationRegion region) {
+        this.region = region;
+    }
+    
+    public String getCacheKey() {
+        return cacheKey;
+    }
+    
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.carpool.entity;
+
+/**
+ * Shared settings of the pooled table-based ID generators. Each entity has its
+ * own row in the generator table; a node reserves a block of ALLOCATION_SIZE ids
+ * per round-trip, which keeps inserts batchable (IDENTITY columns are not).
+ */
+public final class IdGenerators {
+    
+    public static final String TABLE = "id_generators";
+    public static final String PK_COLUMN = "entity";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+    
+    private IdGenerators() {}
+}
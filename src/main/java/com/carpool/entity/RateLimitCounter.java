@@ -0,0 +1,51 @@
+package com.carpool.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Requests of one client to one rate-limited route in one window, over all nodes
+ */
+@Entity
+@Table(name = "rate_limit_counters")
+public class RateLimitCounter {
+    
+    @Id
+    @Column(name = "counter_key", length = 191)
+    private String counterKey;
+    
+    @Column(nullable = false)
+    private Long hits;
+    
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+    
+    // Constructors
+    public RateLimitCounter() {}
+    
+    // Getters and Setters
+    public String getCounterKey() {
+        return counterKey;
+    }
+    
+    public void setCounterKey(String counterKey) {
+        this.counterKey = counterKey;
+    }
+    
+    public Long getHits() {
+        return hits;
+    }
+    
+    public void setHits(Long hits) {
+        this.hits = hits;
+    }
+    
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+    
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+}
@@ -3,6 +3,7 @@ package com.carpool.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,11 +12,18 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reservations", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"ride_id", "user_id"})
+}, indexes = {
+    @Index(name = "idx_reservations_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_reservations_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_reservations_status_held_until", columnList = "status, held_until")
 })
 public class Reservation {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservation_ids")
+    @TableGenerator(name = "reservation_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+                    valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "reservations",
+                    allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,9 +43,18 @@ public class Reservation {
     @Column(nullable = false)
     private ReservationStatus status = ReservationStatus.CONFIRMED;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     @Column(columnDefinition = "TEXT")
     private String notes;
     
+    // Set while the reservation is HELD; the hold is released if not confirmed by then
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -123,6 +140,14 @@ public class Reservation {
         this.notes = notes;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -139,7 +164,15 @@ public class Reservation {
         this.updatedAt = updatedAt;
     }
     
+    public LocalDateTime getHeldUntil() {
+        return heldUntil;
+    }
+    
+    public void setHeldUntil(LocalDateTime heldUntil) {
+        this.heldUntil = heldUntil;
+    }
+    
     public enum ReservationStatus {
-        CONFIRMED, CANCELLED, COMPLETED
+        CONFIRMED, CANCELLED, COMPLETED, HELD
     }
 }
@@ -10,11 +10,17 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"ride_id", "reviewer_id"})
+}, indexes = {
+    @Index(name = "idx_reviews_driver_created", columnList = "driver_id, created_at"),
+    @Index(name = "idx_reviews_reviewer_created", columnList = "reviewer_id, created_at")
 })
 public class Review {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "review_ids")
+    @TableGenerator(name = "review_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+                    valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "reviews",
+                    allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
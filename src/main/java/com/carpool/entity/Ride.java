@@ -2,6 +2,7 @@ package com.carpool.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,11 +11,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "rides")
+@Table(name = "rides", indexes = {
+    @Index(name = "idx_rides_status_date", columnList = "status, date_time"),
+    @Index(name = "idx_rides_driver_date", columnList = "driver_id, date_time")
+})
 public class Ride {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ride_ids")
+    @TableGenerator(name = "ride_ids", table = IdGenerators.TABLE, pkColumnName = IdGenerators.PK_COLUMN,
+                    valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "rides",
+                    allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,7 +50,7 @@ public class Ride {
     private BigDecimal price;
     
     @NotNull(message = "Available seats is required")
-    @Min(value = 1, message = "Available seats must be at least 1")
+    @Min(value = 0, message = "Available seats cannot be negative")
     @Max(value = 8, message = "Available seats cannot exceed 8")
     @Column(name = "available_seats", nullable = false)
     private Integer availableSeats;
@@ -59,6 +66,11 @@ public class Ride {
     @Column(nullable = false)
     private RideStatus status = RideStatus.ACTIVE;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -170,6 +182,14 @@ public class Ride {
         this.status = status;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,64 @@
+package com.carpool.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cluster-wide lease on a ride's seats. Every acquisition increments the fencing
+ * token, so a holder whose lease expired and was taken over can be told apart from
+ * the current one.
+ */
+@Entity
+@Table(name = "ride_locks")
+public class RideLock {
+    
+    @Id
+    @Column(name = "ride_id")
+    private Long rideId;
+    
+    @Column(length = 64)
+    private String holder;
+    
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Constructors
+    public RideLock() {}
+    
+    // Getters and Setters
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public void setRideId(Long rideId) {
+        this.rideId = rideId;
+    }
+    
+    public String getHolder() {
+        return holder;
+    }
+    
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+    
+    public long getFencingToken() {
+        return fencingToken;
+    }
+    
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.carpool.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a ride whose departure reminder has been sent
+ */
+@Entity
+@Table(name = "ride_reminders")
+public class RideReminder {
+    
+    @Id
+    @Column(name = "ride_id")
+    private Long rideId;
+    
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+    
+    // Constructors
+    public RideReminder() {}
+    
+    public RideReminder(Long rideId, LocalDateTime sentAt) {
+        this.rideId = rideId;
+        this.sentAt = sentAt;
+    }
+    
+    // Getters and Setters
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public void setRideId(Long rideId) {
+        this.rideId = rideId;
+    }
+    
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+    
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.carpool.event;
+
+/**
+ * Domain changes recorded in the transactional outbox, with the aggregate they belong to
+ */
+public enum OutboxEventType {
+    
+    RIDE_CREATED("ride"),
+    RIDE_STATUS_CHANGED("ride"),
+    RIDE_ARCHIVED("ride"),
+    RESERVATION_CREATED("reservation"),
+    RESERVATION_HELD("reservation"),
+    RESERVATION_CONFIRMED("reservation"),
+    RESERVATION_CANCELLED("reservation"),
+    RESERVATION_RELEASED("reservation"),
+    REVIEW_CREATED("review");
+    
+    private final String aggregateType;
+    
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+    
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
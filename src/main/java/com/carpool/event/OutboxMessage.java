@@ -0,0 +1,40 @@
+package com.carpool.event;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * An outbox event as delivered to subscribers. Delivery is at-least-once, so the
+ * same message (same id) can arrive more than once.
+ */
+public class OutboxMessage {
+    
+    private final Long id;
+    private final OutboxEventType type;
+    private final Long aggregateId;
+    private final Map<String, Object> payload;
+    private final LocalDateTime createdAt;
+    
+    public OutboxMessage(Long id, OutboxEventType type, Long aggregateId, Map<String, Object> payload,
+                         LocalDateTime createdAt) {
+        this.id = id;
+        this.type = type;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+    
+    /**
+     * A numeric payload field, or null if absent
+     */
+    public Long getLong(String field) {
+        Object value = payload.get(field);
+        return value == null ? null : ((Number) value).longValue();
+    }
+    
+    public Long getId() { return id; }
+    public OutboxEventType getType() { return type; }
+    public Long getAggregateId() { return aggregateId; }
+    public Map<String, Object> getPayload() { return payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
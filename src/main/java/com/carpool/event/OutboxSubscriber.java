@@ -0,0 +1,21 @@
+package com.carpool.event;
+
+import java.util.Set;
+
+/**
+ * In-process consumer of outbox events. Handlers must be idempotent: a message is
+ * delivered again if any subscriber failed on it, or if the relay stopped before
+ * marking it published.
+ */
+public interface OutboxSubscriber {
+    
+    /**
+     * Event types this subscriber wants
+     */
+    Set<OutboxEventType> eventTypes();
+    
+    /**
+     * Handle one message; throwing leaves it pending for a later attempt
+     */
+    void onEvent(OutboxMessage message);
+}
@@ -0,0 +1,40 @@
+package com.carpool.event;
+
+import com.carpool.entity.Ride;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a ride is created or modified (status, seats). Carries the
+ * ride's route so listing caches can tell which queries it can appear in.
+ */
+public class RideChangedEvent {
+    
+    private final Long rideId;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime dateTime;
+    
+    public RideChangedEvent(Ride ride) {
+        this.rideId = ride.getId();
+        this.origin = ride.getOrigin();
+        this.destination = ride.getDestination();
+        this.dateTime = ride.getDateTime();
+    }
+    
+    public Long getRideId() {
+        return rideId;
+    }
+    
+    public String getOrigin() {
+        return origin;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+}
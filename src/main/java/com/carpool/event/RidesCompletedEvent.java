@@ -0,0 +1,19 @@
+package com.carpool.event;
+
+import java.util.List;
+
+/**
+ * Published after the lifecycle job moves a batch of departed rides to COMPLETED
+ */
+public class RidesCompletedEvent {
+    
+    private final List<Long> rideIds;
+    
+    public RidesCompletedEvent(List<Long> rideIds) {
+        this.rideIds = rideIds;
+    }
+    
+    public List<Long> getRideIds() {
+        return rideIds;
+    }
+}
@@ -0,0 +1,50 @@
+package com.carpool.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a driver publishes a series of rides in bulk
+ */
+public class RidesPublishedEvent {
+    
+    private final Long driverId;
+    private final int rideCount;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime firstDeparture;
+    private final LocalDateTime lastDeparture;
+    
+    public RidesPublishedEvent(Long driverId, int rideCount, String origin, String destination,
+                               LocalDateTime firstDeparture, LocalDateTime lastDeparture) {
+        this.driverId = driverId;
+        this.rideCount = rideCount;
+        this.origin = origin;
+        this.destination = destination;
+        this.firstDeparture = firstDeparture;
+        this.lastDeparture = lastDeparture;
+    }
+    
+    public Long getDriverId() {
+        return driverId;
+    }
+    
+    public int getRideCount() {
+        return rideCount;
+    }
+    
+    public String getOrigin() {
+        return origin;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public LocalDateTime getFirstDeparture() {
+        return firstDeparture;
+    }
+    
+    public LocalDateTime getLastDeparture() {
+        return lastDeparture;
+    }
+}
@@ -0,0 +1,17 @@
+package com.carpool.event;
+
+/**
+ * Published after a user's public profile (name, email, rating) is modified
+ */
+public class UserChangedEvent {
+    
+    private final Long userId;
+    
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
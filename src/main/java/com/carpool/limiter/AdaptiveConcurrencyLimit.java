@@ -0,0 +1,146 @@
+package com.carpool.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit on the requests a node works on at once, adapted to latency in the manner
+ * of the gradient limiter of Netflix's concurrency-limits: while the short-term
+ * latency stays within rttTolerance of the long-term average, the limit grows by
+ * about its square root; when requests start queueing (in the connection pool, on
+ * row locks) latency rises and the limit shrinks in proportion, so excess requests
+ * are turned away instead of waiting for a thread.
+ * <p>
+ * The limit is shared by all endpoint classes. Once it is reached a class is still
+ * admitted up to its own share of it, so a flood of one class (browsing) cannot
+ * lock another (booking) out.
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    // Smoothing factors of the short-term (about 10 samples) and long-term (about 600) latency
+    private static final double SHORT_ALPHA = 2.0 / 11;
+    private static final double LONG_ALPHA = 2.0 / 601;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final Map<EndpointClass, Double> shares;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<EndpointClass, AtomicInteger> inFlightByClass = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejected = new EnumMap<>(EndpointClass.class);
+    
+    private volatile double limit;
+    // Guarded by this
+    private double shortRttNanos;
+    private double longRttNanos;
+    
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.rttTolerance = properties.getRttTolerance();
+        this.smoothing = properties.getSmoothing();
+        this.shares = new EnumMap<>(properties.getShares());
+        this.limit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            AtomicInteger count = new AtomicInteger();
+            inFlightByClass.put(endpointClass, count);
+            Gauge.builder("carpool.concurrency-limit.in-flight", count, AtomicInteger::get)
+                    .tag("endpoint", endpointClass.tag()).register(meterRegistry);
+            rejected.put(endpointClass, Counter.builder("carpool.concurrency-limit.rejected")
+                    .tag("endpoint", endpointClass.tag()).register(meterRegistry));
+        }
+        Gauge.builder("carpool.concurrency-limit.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("carpool.concurrency-limit.rtt", this, l -> l.rttMillis(false))
+                .tag("window", "short").register(meterRegistry);
+        Gauge.builder("carpool.concurrency-limit.rtt", this, l -> l.rttMillis(true))
+                .tag("window", "long").register(meterRegistry);
+    }
+    
+    /**
+     * Admit a request of the given class; null if the node is at its limit
+     */
+    public Permit tryAcquire(EndpointClass endpointClass) {
+        AtomicInteger classInFlight = inFlightByClass.get(endpointClass);
+        int total = inFlight.incrementAndGet();
+        int ofClass = classInFlight.incrementAndGet();
+        
+        int currentLimit = getLimit();
+        if (total <= currentLimit || ofClass <= guaranteed(endpointClass, currentLimit)) {
+            return new Permit(classInFlight, total);
+        }
+        
+        inFlight.decrementAndGet();
+        classInFlight.decrementAndGet();
+        rejected.get(endpointClass).increment();
+        return null;
+    }
+    
+    public int getLimit() {
+        return (int) limit;
+    }
+    
+    private int guaranteed(EndpointClass endpointClass, int currentLimit) {
+        return Math.max(1, (int) Math.ceil(currentLimit * shares.getOrDefault(endpointClass, 0.0)));
+    }
+    
+    // Package-private so tests can feed latencies without waiting for them
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos + (rttNanos - shortRttNanos) * SHORT_ALPHA;
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            // While latency is over tolerance the baseline follows it only slowly, so a
+            // sustained overload does not become the new normal
+            boolean congested = shortRttNanos > rttTolerance * longRttNanos;
+            longRttNanos += (rttNanos - longRttNanos) * (congested ? LONG_ALPHA / 10 : LONG_ALPHA);
+        }
+        
+        // After a long overload the average is inflated: let it come back down quickly
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        // Only grow a limit that is in use: with few requests in flight latency says nothing about it
+        if (target > limit && inFlightAtStart < limit / 2) {
+            return;
+        }
+        double next = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+    
+    private synchronized double rttMillis(boolean longTerm) {
+        return (longTerm ? longRttNanos : shortRttNanos) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    /**
+     * An admitted request; release it exactly once when the request completes
+     */
+    public final class Permit {
+        private final AtomicInteger classInFlight;
+        private final int inFlightAtStart;
+        private final long startNanos = System.nanoTime();
+        
+        private Permit(AtomicInteger classInFlight, int inFlightAtStart) {
+            this.classInFlight = classInFlight;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+        
+        public void release() {
+            inFlight.decrementAndGet();
+            classInFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart);
+        }
+    }
+}
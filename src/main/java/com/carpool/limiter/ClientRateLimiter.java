@@ -0,0 +1,123 @@
+package com.carpool.limiter;
+
+import com.carpool.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Per-client token buckets for the configured routes (carpool.rate-limit.routes),
+ * kept in a {@link StripedRateLimiter}. Each client gets its own bucket per route;
+ * with the shared mode on, {@link SharedRateLimitCounters} also holds clients to the
+ * route's limit across nodes.
+ */
+@Component
+public class ClientRateLimiter {
+    
+    private static final String MESSAGE = "Too many requests, please slow down";
+    
+    private final List<Route> routes = new ArrayList<>();
+    private final StripedRateLimiter buckets;
+    private final SharedRateLimitCounters sharedCounters;
+    private final boolean keyByUser;
+    
+    public ClientRateLimiter(RateLimitProperties properties,
+                             ObjectProvider<SharedRateLimitCounters> sharedCounters,
+                             MeterRegistry meterRegistry) {
+        this.buckets = new StripedRateLimiter(properties.getStripes(), properties.getMaxTrackedKeys());
+        this.sharedCounters = sharedCounters.getIfAvailable();
+        this.keyByUser = "user-or-address".equals(properties.getKeyBy());
+        
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            Counter rejected = Counter.builder("carpool.rate-limit.rejected")
+                    .tag("route", route.getPattern()).register(meterRegistry);
+            long allowance = this.sharedCounters != null
+                    ? this.sharedCounters.allowance(route.getCapacity(), route.getRefillPerSecond())
+                    : 0;
+            routes.add(new Route(routes.size(), route, allowance, rejected));
+        }
+        Gauge.builder("carpool.rate-limit.tracked", buckets, StripedRateLimiter::size).register(meterRegistry);
+        FunctionCounter.builder("carpool.rate-limit.displaced", buckets, StripedRateLimiter::displaced)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * The limited route a request falls under, or null
+     */
+    public Route match(String method, String path) {
+        if (routes.isEmpty()) {
+            return null;
+        }
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (route.methods.contains(method) && route.pattern.matches(pathContainer)) {
+                return route;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Charge a request to the client's bucket for the route
+     *
+     * @param userId signed-in user, or null
+     * @param address client address
+     */
+    public void check(Route route, Long userId, String address) {
+        String client = keyByUser && userId != null ? "u" + userId : "a" + address;
+        String key = route.id + ":" + client;
+        
+        long waitSeconds = buckets.tryAcquire(key, route.capacity, route.refillPerSecond);
+        if (waitSeconds == 0 && sharedCounters != null) {
+            waitSeconds = sharedCounters.record(key, route.allowance);
+        }
+        if (waitSeconds > 0) {
+            route.rejected.increment();
+            throw new TooManyRequestsException(MESSAGE, waitSeconds);
+        }
+    }
+    
+    /**
+     * Forget buckets that have refilled completely
+     */
+    public int evictIdleBuckets() {
+        return buckets.evictFull();
+    }
+    
+    /**
+     * A configured route with its path pattern parsed
+     */
+    public static final class Route {
+        private final int id;
+        private final PathPattern pattern;
+        private final Set<String> methods = new HashSet<>();
+        private final int capacity;
+        private final double refillPerSecond;
+        private final long allowance;
+        private final Counter rejected;
+        
+        private Route(int id, RateLimitProperties.Route route, long allowance, Counter rejected) {
+            this.id = id;
+            this.pattern = PathPatternParser.defaultInstance.parse(route.getPattern());
+            for (String method : route.getMethods()) {
+                methods.add(method.toUpperCase(Locale.ROOT));
+            }
+            this.capacity = route.getCapacity();
+            this.refillPerSecond = route.getRefillPerSecond();
+            this.allowance = allowance;
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.carpool.limiter;
+
+import com.carpool.exception.ServiceUnavailableException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Admits API requests through {@link AdaptiveConcurrencyLimit}. Runs ahead of the
+ * security chain, so a rejected request costs no token parsing or user lookup; it
+ * is answered 503 with Retry-After through the usual exception handling.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private static final String BUSY_MESSAGE = "The service is busy, please try again shortly";
+    
+    private final AdaptiveConcurrencyLimit limit;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final long retryAfterSeconds;
+    
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, HandlerExceptionResolver exceptionResolver,
+                                  long retryAfterSeconds) {
+        this.limit = limit;
+        this.exceptionResolver = exceptionResolver;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire(EndpointClass.of(request.getMethod(), path));
+        if (permit == null) {
+            exceptionResolver.resolveException(request, response, null,
+                    new ServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds));
+            return;
+        }
+        
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permit.release();
+        }
+    }
+}
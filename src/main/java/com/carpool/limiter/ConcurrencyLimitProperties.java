@@ -0,0 +1,88 @@
+package com.carpool.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limit settings (carpool.concurrency-limit.*)
+ */
+@ConfigurationProperties(prefix = "carpool.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    // Latency may grow this much over the long-term average before the limit shrinks
+    private double rttTolerance = 1.5;
+    private double smoothing = 0.2;
+    private long retryAfterSeconds = 1;
+    // Fraction of the limit each endpoint class may always use, even when the rest is busy
+    private Map<EndpointClass, Double> shares = defaultShares();
+    
+    private static Map<EndpointClass, Double> defaultShares() {
+        Map<EndpointClass, Double> shares = new EnumMap<>(EndpointClass.class);
+        shares.put(EndpointClass.BOOKING, 0.5);
+        shares.put(EndpointClass.BROWSING, 0.2);
+        shares.put(EndpointClass.OTHER, 0.3);
+        return shares;
+    }
+    
+    // Getters and Setters
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+    
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+    
+    public int getMinLimit() {
+        return minLimit;
+    }
+    
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+    
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+    
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+    
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+    
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+    
+    public double getSmoothing() {
+        return smoothing;
+    }
+    
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    public void setRetryAfterSeconds(long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public Map<EndpointClass, Double> getShares() {
+        return shares;
+    }
+    
+    public void setShares(Map<EndpointClass, Double> shares) {
+        this.shares = shares;
+    }
+}
@@ -0,0 +1,34 @@
+package com.carpool.limiter;
+
+/**
+ * Groups of API endpoints that get their own share of the concurrency limit
+ */
+public enum EndpointClass {
+    
+    /** Reservations and waitlist changes: shed last */
+    BOOKING,
+    
+    /** Ride listings, ride details and reviews */
+    BROWSING,
+    
+    /** Everything else: accounts, authentication, driver tools */
+    OTHER;
+    
+    /**
+     * Class of a request by its method and path (without the context path)
+     */
+    public static EndpointClass of(String method, String path) {
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        if (!read && (path.startsWith("/api/reservations") || path.startsWith("/api/waitlist"))) {
+            return BOOKING;
+        }
+        if (read && (path.startsWith("/api/rides") || path.startsWith("/api/reviews"))) {
+            return BROWSING;
+        }
+        return OTHER;
+    }
+    
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,54 @@
+package com.carpool.limiter;
+
+import com.carpool.exception.TooManyRequestsException;
+import com.carpool.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link ClientRateLimiter} to the public routes. Runs after the security
+ * chain, so a signed-in client is limited by user id rather than by an address it
+ * may share, and before the listing cache, so cached answers count too.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private final ClientRateLimiter rateLimiter;
+    private final HandlerExceptionResolver exceptionResolver;
+    
+    public RateLimitFilter(ClientRateLimiter rateLimiter, HandlerExceptionResolver exceptionResolver) {
+        this.rateLimiter = rateLimiter;
+        this.exceptionResolver = exceptionResolver;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        ClientRateLimiter.Route route = rateLimiter.match(request.getMethod(), path);
+        if (route != null) {
+            try {
+                rateLimiter.check(route, currentUserId(), request.getRemoteAddr());
+            } catch (TooManyRequestsException e) {
+                exceptionResolver.resolveException(request, response, null, e);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+}
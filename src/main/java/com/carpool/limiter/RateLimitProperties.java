@@ -0,0 +1,136 @@
+package com.carpool.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-client rate limits of the public routes (carpool.rate-limit.*)
+ */
+@ConfigurationProperties(prefix = "carpool.rate-limit")
+public class RateLimitProperties {
+    
+    // address: every client by its address; user-or-address: signed-in clients by user id
+    private String keyBy = "user-or-address";
+    private int stripes = 64;
+    private int maxTrackedKeys = 100000;
+    private List<Route> routes = new ArrayList<>();
+    private Shared shared = new Shared();
+    
+    // Getters and Setters
+    public String getKeyBy() {
+        return keyBy;
+    }
+    
+    public void setKeyBy(String keyBy) {
+        this.keyBy = keyBy;
+    }
+    
+    public int getStripes() {
+        return stripes;
+    }
+    
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+    
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+    
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+    
+    public List<Route> getRoutes() {
+        return routes;
+    }
+    
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+    
+    public Shared getShared() {
+        return shared;
+    }
+    
+    public void setShared(Shared shared) {
+        this.shared = shared;
+    }
+    
+    /**
+     * A limited route: a path pattern (/api/rides/{id}) and the bucket each client gets
+     */
+    public static class Route {
+        private String pattern;
+        private List<String> methods = new ArrayList<>(List.of("GET"));
+        private int capacity = 30;
+        private double refillPerSecond = 1;
+        
+        public String getPattern() {
+            return pattern;
+        }
+        
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+        
+        public List<String> getMethods() {
+            return methods;
+        }
+        
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+        
+        public int getCapacity() {
+            return capacity;
+        }
+        
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+        
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+    
+    /**
+     * Cluster-wide limits through the rate_limit_counters table
+     */
+    public static class Shared {
+        private boolean enabled = false;
+        private long syncIntervalMs = 1000;
+        private int windowSeconds = 60;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public long getSyncIntervalMs() {
+            return syncIntervalMs;
+        }
+        
+        public void setSyncIntervalMs(long syncIntervalMs) {
+            this.syncIntervalMs = syncIntervalMs;
+        }
+        
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+        
+        public void setWindowSeconds(int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+    }
+}
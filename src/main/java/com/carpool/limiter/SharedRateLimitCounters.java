@@ -0,0 +1,126 @@
+package com.carpool.limiter;
+
+import com.carpool.entity.RateLimitCounter;
+import com.carpool.repository.RateLimitCounterRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes the public-route limits hold across nodes. Requests admitted by the local
+ * buckets are counted in memory and added to fixed-window counters in
+ * rate_limit_counters every sync-interval-ms; a client whose cluster-wide count
+ * passes what one node would allow in a window is turned away on every node until
+ * the window ends. Requests cost no database access; the price is that a client
+ * can overshoot by up to one sync interval of requests.
+ */
+@Service
+@ConditionalOnProperty(name = "carpool.rate-limit.shared.enabled", havingValue = "true")
+public class SharedRateLimitCounters {
+    
+    private final RateLimitCounterRepository rateLimitCounterRepository;
+    private final long windowMs;
+    
+    // Bucket key -> requests admitted here and not yet added to the shared counter
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    // Bucket key -> end of the window (epoch ms) in which the cluster used up its allowance
+    private final Map<String, Long> blockedUntil = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public SharedRateLimitCounters(RateLimitCounterRepository rateLimitCounterRepository,
+                                   RateLimitProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.rateLimitCounterRepository = rateLimitCounterRepository;
+        this.windowMs = properties.getShared().getWindowSeconds() * 1000L;
+        Gauge.builder("carpool.rate-limit.shared.blocked", blockedUntil, Map::size).register(meterRegistry);
+    }
+    
+    /**
+     * Most requests the route admits from one client in a window
+     */
+    public long allowance(int capacity, double refillPerSecond) {
+        return capacity + (long) (refillPerSecond * windowMs / 1000);
+    }
+    
+    /**
+     * Count a request admitted by the local bucket: 0, or the seconds until the window
+     * ends if the cluster has used up the key's allowance
+     */
+    public long record(String key, long allowance) {
+        Long until = blockedUntil.get(key);
+        if (until != null) {
+            long remainingMs = until - System.currentTimeMillis();
+            if (remainingMs > 0) {
+                return (remainingMs + 999) / 1000;
+            }
+            blockedUntil.remove(key, until);
+        }
+        pending.computeIfAbsent(key, k -> new Pending(allowance)).hits.increment();
+        return 0;
+    }
+    
+    /**
+     * Add this node's counts to the current window's counters and block the keys whose
+     * cluster-wide count passed their allowance; returns how many keys were synced
+     */
+    @Transactional
+    public int sync() {
+        long now = System.currentTimeMillis();
+        long windowStart = now - now % windowMs;
+        LocalDateTime windowEnd = LocalDateTime.ofInstant(Instant.ofEpochMilli(windowStart + windowMs),
+                ZoneId.systemDefault());
+        
+        Map<String, Pending> synced = new HashMap<>();
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            long hits = entry.getValue().hits.sumThenReset();
+            if (hits == 0) {
+                // Idle since the last sync; a request racing this removal is counted next time
+                pending.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            String counterKey = entry.getKey() + "@" + windowStart / 1000;
+            rateLimitCounterRepository.add(counterKey, hits, windowEnd);
+            synced.put(counterKey, entry.getValue());
+        }
+        if (synced.isEmpty()) {
+            return 0;
+        }
+        
+        for (RateLimitCounter counter : rateLimitCounterRepository.findByCounterKeyIn(synced.keySet())) {
+            if (counter.getHits() > synced.get(counter.getCounterKey()).allowance) {
+                String key = counter.getCounterKey().substring(0, counter.getCounterKey().lastIndexOf('@'));
+                blockedUntil.put(key, windowStart + windowMs);
+            }
+        }
+        return synced.size();
+    }
+    
+    /**
+     * Delete the counters of windows that ended before the given time
+     */
+    @Transactional
+    public int purge(LocalDateTime before) {
+        blockedUntil.values().removeIf(until -> until < System.currentTimeMillis());
+        return rateLimitCounterRepository.deleteWindowsEndedBefore(before);
+    }
+    
+    private static final class Pending {
+        private final LongAdder hits = new LongAdder();
+        private final long allowance;
+        
+        Pending(long allowance) {
+            this.allowance = allowance;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.carpool.limiter;
+
+import com.carpool.security.TokenBucket;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per key, spread over a fixed number of stripes that each have their
+ * own lock and map. The stripe lock covers only the lookup, so checks for different
+ * clients rarely meet on a lock, and a check costs one hash lookup and a few
+ * arithmetic operations. Buckets that have refilled
+ * completely carry no state and are dropped by {@link #evictFull()}.
+ * <p>
+ * A stripe keeps its buckets in access order. A new key arriving at a full stripe
+ * displaces the least recently used bucket, so a flood of new keys costs the
+ * idlest clients their partial burst instead of locking every new client out.
+ */
+public class StripedRateLimiter {
+    
+    private final Stripe[] stripes;
+    private final int mask;
+    private final int maxKeysPerStripe;
+    private final LongAdder displaced = new LongAdder();
+    
+    public StripedRateLimiter(int stripes, int maxTrackedKeys) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+        this.maxKeysPerStripe = Math.max(1, maxTrackedKeys / count);
+    }
+    
+    /**
+     * Take a token from the key's bucket: 0 if one was available, otherwise the
+     * seconds until the next one
+     */
+    public long tryAcquire(String key, int capacity, double tokensPerSecond) {
+        Stripe stripe = stripeOf(key);
+        TokenBucket bucket;
+        synchronized (stripe) {
+            bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxKeysPerStripe) {
+                    Iterator<TokenBucket> eldest = stripe.buckets.values().iterator();
+                    if (!eldest.next().isFull()) {
+                        displaced.increment();
+                    }
+                    eldest.remove();
+                }
+                bucket = new TokenBucket(capacity, tokensPerSecond);
+                stripe.buckets.put(key, bucket);
+            }
+        }
+        // Outside the stripe lock: only requests of the same client wait on the bucket.
+        // A bucket dropped meanwhile is still charged by the requests that already hold it.
+        return bucket.tryConsume() ? 0 : bucket.secondsUntilNextToken();
+    }
+    
+    /**
+     * Forget buckets that have refilled completely; returns how many were dropped
+     */
+    public int evictFull() {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                int before = stripe.buckets.size();
+                stripe.buckets.values().removeIf(TokenBucket::isFull);
+                evicted += before - stripe.buckets.size();
+            }
+        }
+        return evicted;
+    }
+    
+    /**
+     * Buckets still mid-burst that were dropped to make room for a new key
+     */
+    public long displaced() {
+        return displaced.sum();
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+    
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+    
+    private static final class Stripe {
+        // Access order: the first entry is the least recently used
+        private final Map<String, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    }
+}
@@ -0,0 +1,10 @@
+package com.carpool.notification;
+
+/**
+ * Delivers departure reminders. One call covers one ride: its driver and all of its
+ * confirmed riders, so an implementation can send them as a single batch.
+ */
+public interface DepartureNotifier {
+    
+    void notifyDeparture(DepartureReminder reminder);
+}
@@ -0,0 +1,56 @@
+package com.carpool.notification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reminder for one upcoming ride, addressed to its driver and confirmed riders
+ */
+public class DepartureReminder {
+    
+    private final Long rideId;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime dateTime;
+    private final Recipient driver;
+    private final List<Recipient> riders;
+    
+    public DepartureReminder(Long rideId, String origin, String destination, LocalDateTime dateTime,
+                             Recipient driver, List<Recipient> riders) {
+        this.rideId = rideId;
+        this.origin = origin;
+        this.destination = destination;
+        this.dateTime = dateTime;
+        this.driver = driver;
+        this.riders = riders;
+    }
+    
+    public Long getRideId() { return rideId; }
+    public String getOrigin() { return origin; }
+    public String getDestination() { return destination; }
+    public LocalDateTime getDateTime() { return dateTime; }
+    public Recipient getDriver() { return driver; }
+    public List<Recipient> getRiders() { return riders; }
+    
+    /**
+     * A person to remind; seats is 0 for the driver
+     */
+    public static class Recipient {
+        private final Long userId;
+        private final String name;
+        private final String email;
+        private final int seats;
+        
+        public Recipient(Long userId, String name, String email, int seats) {
+            this.userId = userId;
+            this.name = name;
+            this.email = email;
+            this.seats = seats;
+        }
+        
+        public Long getUserId() { return userId; }
+        public String getName() { return name; }
+        public String getEmail() { return email; }
+        public int getSeats() { return seats; }
+    }
+}
@@ -0,0 +1,62 @@
+package com.carpool.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Stand-in notifier that appends each reminder batch to a local file, one line per
+ * recipient. Replaced by a real channel (e-mail, push) through carpool.reminders.notifier.
+ */
+@Component
+@ConditionalOnProperty(name = "carpool.reminders.notifier", havingValue = "log-file", matchIfMissing = true)
+public class LogFileDepartureNotifier implements DepartureNotifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogFileDepartureNotifier.class);
+    
+    private final Path file;
+    
+    public LogFileDepartureNotifier(@Value("${carpool.reminders.log-file:logs/departure-reminders.log}") String file) {
+        this.file = Path.of(file);
+    }
+    
+    @Override
+    public synchronized void notifyDeparture(DepartureReminder reminder) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writeLine(writer, reminder, "driver", reminder.getDriver());
+                for (DepartureReminder.Recipient rider : reminder.getRiders()) {
+                    writeLine(writer, reminder, "rider", rider);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write departure reminders to " + file, e);
+        }
+        logger.debug("Wrote departure reminders for ride {} ({} riders)", reminder.getRideId(),
+                reminder.getRiders().size());
+    }
+    
+    private void writeLine(BufferedWriter writer, DepartureReminder reminder, String role,
+                           DepartureReminder.Recipient recipient) throws IOException {
+        writer.write(LocalDateTime.now() + " ride=" + reminder.getRideId() + " " + role +
+                " user=" + recipient.getUserId() + " <" + recipient.getEmail() + "> " +
+                reminder.getOrigin() + " -> " + reminder.getDestination() + " departs " + reminder.getDateTime() +
+                (recipient.getSeats() > 0 ? " seats=" + recipient.getSeats() : ""));
+        writer.newLine();
+    }
+}
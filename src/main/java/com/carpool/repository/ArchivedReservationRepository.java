@@ -0,0 +1,31 @@
+package com.carpool.repository;
+
+import com.carpool.entity.ArchivedReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+    
+    /**
+     * Find archived reservations by user
+     */
+    List<ArchivedReservation> findByUserIdOrderByCreatedAtDesc(Long userId);
+    
+    /**
+     * Copy the reservations of the given rides into the archive
+     */
+    @Modifying
+    @Query(value = "INSERT INTO reservations_archive (id, ride_id, user_id, seats_reserved, status, notes, " +
+                   "created_at, updated_at, archived_at) " +
+                   "SELECT id, ride_id, user_id, seats_reserved, status, notes, created_at, updated_at, :now " +
+                   "FROM reservations WHERE ride_id IN (:rideIds)",
+           nativeQuery = true)
+    int archiveReservationsForRides(@Param("rideIds") List<Long> rideIds, @Param("now") LocalDateTime now);
+}
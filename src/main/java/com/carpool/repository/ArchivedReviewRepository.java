@@ -0,0 +1,47 @@
+package com.carpool.repository;
+
+import com.carpool.entity.ArchivedReview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedReviewRepository extends JpaRepository<ArchivedReview, Long> {
+    
+    /**
+     * Find archived reviews by driver
+     */
+    List<ArchivedReview> findByDriverIdOrderByCreatedAtDesc(Long driverId);
+    
+    /**
+     * Find archived reviews by reviewer
+     */
+    List<ArchivedReview> findByReviewerIdOrderByCreatedAtDesc(Long reviewerId);
+    
+    /**
+     * Count archived reviews for a driver
+     */
+    long countByDriverId(Long driverId);
+    
+    /**
+     * Sum of archived ratings for a driver
+     */
+    @Query("SELECT COALESCE(SUM(r.rating), 0) FROM ArchivedReview r WHERE r.driverId = :driverId")
+    Long sumRatingsByDriverId(@Param("driverId") Long driverId);
+    
+    /**
+     * Copy the reviews of the given rides into the archive
+     */
+    @Modifying
+    @Query(value = "INSERT INTO reviews_archive (id, ride_id, reviewer_id, driver_id, rating, comment, " +
+                   "created_at, updated_at, archived_at) " +
+                   "SELECT id, ride_id, reviewer_id, driver_id, rating, comment, created_at, updated_at, :now " +
+                   "FROM reviews WHERE ride_id IN (:rideIds)",
+           nativeQuery = true)
+    int archiveReviewsForRides(@Param("rideIds") List<Long> rideIds, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,31 @@
+package com.carpool.repository;
+
+import com.carpool.entity.ArchivedRide;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedRideRepository extends JpaRepository<ArchivedRide, Long> {
+    
+    /**
+     * Find archived rides by driver
+     */
+    List<ArchivedRide> findByDriverIdOrderByDateTimeDesc(Long driverId);
+    
+    /**
+     * Copy rides from the hot table into the archive
+     */
+    @Modifying
+    @Query(value = "INSERT INTO rides_archive (id, driver_id, origin, destination, date_time, price, " +
+                   "available_seats, total_seats, description, status, created_at, updated_at, archived_at) " +
+                   "SELECT id, driver_id, origin, destination, date_time, price, available_seats, total_seats, " +
+                   "description, status, created_at, updated_at, :now FROM rides WHERE id IN (:rideIds)",
+           nativeQuery = true)
+    int archiveRides(@Param("rideIds") List<Long> rideIds, @Param("now") LocalDateTime now);
+}
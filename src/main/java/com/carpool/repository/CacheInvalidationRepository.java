@@ -0,0 +1,47 @@
+package com.carpool.repository;
+
+import com.carpool.entity.CacheInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    
+    /**
+     * Log entries after a position, in id order; read-write so it goes to the primary
+     */
+    @Transactional
+    @Query("SELECT c FROM CacheInvalidation c WHERE c.id > :afterId ORDER BY c.id")
+    List<CacheInvalidation> findAfter(@Param("afterId") long afterId, Pageable pageable);
+    
+    /**
+     * Log entries that were missing when later ids were read (not committed yet)
+     */
+    @Transactional
+    @Query("SELECT c FROM CacheInvalidation c WHERE c.id IN :ids")
+    List<CacheInvalidation> findOnPrimary(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Current end of the log
+     */
+    @Transactional
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CacheInvalidation c")
+    long findMaxId();
+    
+    /**
+     * Delete entries older than the cutoff
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CacheInvalidation c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,32 @@
+package com.carpool.repository;
+
+import com.carpool.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /**
+     * Find a stored response; read-write so it goes to the primary, since a key
+     * stored moments ago may not have reached a replica yet
+     */
+    @Transactional
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.keyHash = :keyHash")
+    Optional<IdempotencyRecord> findOnPrimary(@Param("keyHash") String keyHash);
+    
+    /**
+     * Delete expired records
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
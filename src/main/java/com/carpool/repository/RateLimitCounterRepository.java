@@ -0,0 +1,32 @@
+package com.carpool.repository;
+
+import com.carpool.entity.RateLimitCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RateLimitCounterRepository extends JpaRepository<RateLimitCounter, String> {
+    
+    /**
+     * Add a node's hits to a counter, creating it on the window's first hit
+     */
+    @Modifying
+    @Query(value = "INSERT INTO rate_limit_counters (counter_key, hits, window_end) " +
+                   "VALUES (:counterKey, :hits, :windowEnd) ON DUPLICATE KEY UPDATE hits = hits + :hits",
+           nativeQuery = true)
+    int add(@Param("counterKey") String counterKey, @Param("hits") long hits,
+            @Param("windowEnd") LocalDateTime windowEnd);
+    
+    List<RateLimitCounter> findByCounterKeyIn(Collection<String> counterKeys);
+    
+    @Modifying
+    @Query("DELETE FROM RateLimitCounter c WHERE c.windowEnd < :before")
+    int deleteWindowsEndedBefore(@Param("before") LocalDateTime before);
+}
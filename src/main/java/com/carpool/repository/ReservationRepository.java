@@ -3,10 +3,13 @@ package com.carpool.repository;
 import com.carpool.entity.Reservation;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -48,8 +51,8 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     /**
      * Find upcoming reservations for a user
      */
-    @Query("SELECT r FROM Reservation r WHERE r.user = :user AND r.ride.dateTime > :currentTime AND r.status = 'CONFIRMED' ORDER BY r.ride.dateTime ASC")
-    List<Reservation> findUpcomingReservationsByUser(@Param("user") User user, @Param("currentTime") LocalDateTime currentTime);
+    @Query("SELECT r FROM Reservation r WHERE r.user = :user AND r.status = 'CONFIRMED' ORDER BY r.ride.dateTime ASC")
+    List<Reservation> findUpcomingReservationsByUser(@Param("user") User user);
     
     /**
      * Find past reservations for a user
@@ -62,4 +65,53 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      */
     @Query("SELECT COALESCE(SUM(r.seatsReserved), 0) FROM Reservation r WHERE r.ride = :ride AND r.status = 'CONFIRMED'")
     Integer countConfirmedSeatsForRide(@Param("ride") Ride ride);
+    
+    /**
+     * Bulk-complete confirmed reservations of the given rides
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'COMPLETED', r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.ride.id IN :rideIds AND r.status = 'CONFIRMED'")
+    int completeReservationsForRides(@Param("rideIds") List<Long> rideIds, @Param("now") LocalDateTime now);
+    
+    /**
+     * Bulk-delete the reservations of the given rides
+     */
+    @Modifying
+    @Query("DELETE FROM Reservation r WHERE r.ride.id IN :rideIds")
+    int deleteByRideIdIn(@Param("rideIds") List<Long> rideIds);
+    
+    /**
+     * Confirmed reservations of a ride with their riders, in one query
+     */
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.user WHERE r.ride.id = :rideId AND r.status = 'CONFIRMED'")
+    List<Reservation> findConfirmedWithUsersByRideId(@Param("rideId") Long rideId);
+    
+    /**
+     * Page through held reservations in id order, to rebuild the hold expiry schedule
+     */
+    @Query("SELECT r.id AS id, r.heldUntil AS heldUntil FROM Reservation r " +
+           "WHERE r.status = 'HELD' AND r.id > :afterId ORDER BY r.id")
+    List<HeldReservation> findHeldAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Holds that ran out before the cutoff, oldest first
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.status = 'HELD' AND r.heldUntil < :cutoff ORDER BY r.heldUntil")
+    List<Long> findHeldIdsExpiredBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * Ride of a reservation; read-write so it goes to the primary
+     */
+    @Transactional
+    @Query("SELECT r.ride.id FROM Reservation r WHERE r.id = :reservationId")
+    Optional<Long> findRideIdById(@Param("reservationId") Long reservationId);
+    
+    /**
+     * Id and expiry of a held reservation
+     */
+    interface HeldReservation {
+        Long getId();
+        LocalDateTime getHeldUntil();
+    }
 }
@@ -1,9 +1,11 @@
 package com.carpool.repository;
 
+import com.carpool.dto.ResourceVersion;
 import com.carpool.entity.Review;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -50,4 +52,24 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     @Query("SELECT r FROM Review r WHERE r.driver = :driver ORDER BY r.createdAt DESC")
     List<Review> findRecentReviewsByDriver(@Param("driver") User driver);
+    
+    /**
+     * Version probe for reviews received by a driver (review and reviewer timestamps)
+     */
+    @Query("SELECT new com.carpool.dto.ResourceVersion(COUNT(r), MAX(r.updatedAt), MAX(rv.updatedAt)) " +
+           "FROM Review r JOIN r.reviewer rv WHERE r.driver.id = :driverId")
+    ResourceVersion findVersionByDriverId(@Param("driverId") Long driverId);
+    
+    /**
+     * Sum of ratings for a driver
+     */
+    @Query("SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.driver = :driver")
+    Long sumRatingsByDriver(@Param("driver") User driver);
+    
+    /**
+     * Bulk-delete the reviews of the given rides
+     */
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.ride.id IN :rideIds")
+    int deleteByRideIdIn(@Param("rideIds") List<Long> rideIds);
 }
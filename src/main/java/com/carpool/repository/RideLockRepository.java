@@ -0,0 +1,59 @@
+package com.carpool.repository;
+
+import com.carpool.entity.RideLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RideLockRepository extends JpaRepository<RideLock, Long> {
+    
+    /**
+     * Take over a ride's lease if it is free or expired; 0 means it is held
+     */
+    @Modifying
+    @Query("UPDATE RideLock l SET l.holder = :holder, l.fencingToken = l.fencingToken + 1, " +
+           "l.expiresAt = :expiresAt WHERE l.rideId = :rideId AND l.expiresAt <= :now")
+    int takeOver(@Param("rideId") Long rideId, @Param("holder") String holder,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+    
+    /**
+     * Create the lease of a ride that was never locked; 0 means another node created it first
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO ride_locks (ride_id, holder, fencing_token, expires_at) " +
+                   "VALUES (:rideId, :holder, 1, :expiresAt)", nativeQuery = true)
+    int create(@Param("rideId") Long rideId, @Param("holder") String holder,
+               @Param("expiresAt") LocalDateTime expiresAt);
+    
+    /**
+     * Fencing token of the lease if held by the given holder
+     */
+    @Query("SELECT l.fencingToken FROM RideLock l WHERE l.rideId = :rideId AND l.holder = :holder")
+    Optional<Long> findToken(@Param("rideId") Long rideId, @Param("holder") String holder);
+    
+    /**
+     * Give up a lease, unless it was taken over in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RideLock l SET l.holder = NULL, l.expiresAt = :now " +
+           "WHERE l.rideId = :rideId AND l.fencingToken = :token")
+    int release(@Param("rideId") Long rideId, @Param("token") long token, @Param("now") LocalDateTime now);
+    
+    /**
+     * Lease row locked until the end of the caller's transaction
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM RideLock l WHERE l.rideId = :rideId")
+    Optional<RideLock> findForUpdate(@Param("rideId") Long rideId);
+}
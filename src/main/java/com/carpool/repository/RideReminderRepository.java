@@ -0,0 +1,23 @@
+package com.carpool.repository;
+
+import com.carpool.entity.RideReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RideReminderRepository extends JpaRepository<RideReminder, Long> {
+    
+    /**
+     * Claim a ride's reminder; 0 means it was already claimed. Ignoring the duplicate key
+     * keeps a lost race from failing the surrounding transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO ride_reminders (ride_id, sent_at) VALUES (:rideId, :now)",
+           nativeQuery = true)
+    int claim(@Param("rideId") Long rideId, @Param("now") LocalDateTime now);
+}
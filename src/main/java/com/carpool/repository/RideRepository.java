@@ -1,8 +1,11 @@
 package com.carpool.repository;
 
+import com.carpool.dto.ResourceVersion;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,11 +22,10 @@ public interface RideRepository extends JpaRepository<Ride, Long> {
     @Query("SELECT r FROM Ride r WHERE " +
            "LOWER(r.origin) LIKE LOWER(CONCAT('%', :origin, '%')) AND " +
            "LOWER(r.destination) LIKE LOWER(CONCAT('%', :destination, '%')) AND " +
-           "r.status = 'ACTIVE' AND r.availableSeats > 0 AND r.dateTime > :currentTime " +
+           "r.status = 'ACTIVE' AND r.availableSeats > 0 " +
            "ORDER BY r.dateTime ASC")
     List<Ride> findByOriginAndDestination(@Param("origin") String origin, 
-                                         @Param("destination") String destination,
-                                         @Param("currentTime") LocalDateTime currentTime);
+                                         @Param("destination") String destination);
     
     /**
      * Find rides by origin, destination and date
@@ -32,18 +34,17 @@ public interface RideRepository extends JpaRepository<Ride, Long> {
            "LOWER(r.origin) LIKE LOWER(CONCAT('%', :origin, '%')) AND " +
            "LOWER(r.destination) LIKE LOWER(CONCAT('%', :destination, '%')) AND " +
            "DATE(r.dateTime) = DATE(:date) AND " +
-           "r.status = 'ACTIVE' AND r.availableSeats > 0 AND r.dateTime > :currentTime " +
+           "r.status = 'ACTIVE' AND r.availableSeats > 0 " +
            "ORDER BY r.dateTime ASC")
     List<Ride> findByOriginDestinationAndDate(@Param("origin") String origin, 
                                              @Param("destination") String destination,
-                                             @Param("date") LocalDateTime date,
-                                             @Param("currentTime") LocalDateTime currentTime);
+                                             @Param("date") LocalDateTime date);
     
     /**
      * Find all active rides with available seats
      */
-    @Query("SELECT r FROM Ride r WHERE r.status = 'ACTIVE' AND r.availableSeats > 0 AND r.dateTime > :currentTime ORDER BY r.dateTime ASC")
-    List<Ride> findActiveRidesWithAvailableSeats(@Param("currentTime") LocalDateTime currentTime);
+    @Query("SELECT r FROM Ride r WHERE r.status = 'ACTIVE' AND r.availableSeats > 0 ORDER BY r.dateTime ASC")
+    List<Ride> findActiveRidesWithAvailableSeats();
     
     /**
      * Find rides by driver
@@ -66,4 +67,108 @@ public interface RideRepository extends JpaRepository<Ride, Long> {
      */
     @Query("SELECT r FROM Ride r WHERE r.driver = :driver AND r.dateTime < :currentTime ORDER BY r.dateTime DESC")
     List<Ride> findPastRidesByDriver(@Param("driver") User driver, @Param("currentTime") LocalDateTime currentTime);
+    
+    /**
+     * Version probe for a single ride (ride and driver timestamps)
+     */
+    @Query("SELECT new com.carpool.dto.ResourceVersion(COUNT(r), MAX(r.updatedAt), MAX(d.updatedAt)) " +
+           "FROM Ride r JOIN r.driver d WHERE r.id = :rideId")
+    ResourceVersion findVersionById(@Param("rideId") Long rideId);
+    
+    /**
+     * Version probe for all active rides with available seats
+     */
+    @Query("SELECT new com.carpool.dto.ResourceVersion(COUNT(r), MAX(r.updatedAt), MAX(d.updatedAt)) " +
+           "FROM Ride r JOIN r.driver d WHERE " +
+           "r.status = 'ACTIVE' AND r.availableSeats > 0")
+    ResourceVersion findActiveRidesVersion();
+    
+    /**
+     * Version probe for rides by origin and destination
+     */
+    @Query("SELECT new com.carpool.dto.ResourceVersion(COUNT(r), MAX(r.updatedAt), MAX(d.updatedAt)) " +
+           "FROM Ride r JOIN r.driver d WHERE " +
+           "LOWER(r.origin) LIKE LOWER(CONCAT('%', :origin, '%')) AND " +
+           "LOWER(r.destination) LIKE LOWER(CONCAT('%', :destination, '%')) AND " +
+           "r.status = 'ACTIVE' AND r.availableSeats > 0")
+    ResourceVersion findSearchVersion(@Param("origin") String origin,
+                                      @Param("destination") String destination);
+    
+    /**
+     * Version probe for rides by origin, destination and date
+     */
+    @Query("SELECT new com.carpool.dto.ResourceVersion(COUNT(r), MAX(r.updatedAt), MAX(d.updatedAt)) " +
+           "FROM Ride r JOIN r.driver d WHERE " +
+           "LOWER(r.origin) LIKE LOWER(CONCAT('%', :origin, '%')) AND " +
+           "LOWER(r.destination) LIKE LOWER(CONCAT('%', :destination, '%')) AND " +
+           "DATE(r.dateTime) = DATE(:date) AND " +
+           "r.status = 'ACTIVE' AND r.availableSeats > 0")
+    ResourceVersion findSearchVersionByDate(@Param("origin") String origin,
+                                            @Param("destination") String destination,
+                                            @Param("date") LocalDateTime date);
+    
+    /**
+     * Read current available seats directly from the database
+     */
+    @Query("SELECT r.availableSeats FROM Ride r WHERE r.id = :rideId")
+    Integer findAvailableSeatsById(@Param("rideId") Long rideId);
+    
+    /**
+     * Atomically take seats if enough are available; returns the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats - :seats, r.version = r.version + 1, " +
+           "r.updatedAt = :now WHERE r.id = :rideId AND r.availableSeats >= :seats")
+    int takeSeats(@Param("rideId") Long rideId, @Param("seats") Integer seats, @Param("now") LocalDateTime now);
+    
+    /**
+     * Atomically return seats to a ride
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats + :seats, r.version = r.version + 1, " +
+           "r.updatedAt = :now WHERE r.id = :rideId")
+    int returnSeats(@Param("rideId") Long rideId, @Param("seats") Integer seats, @Param("now") LocalDateTime now);
+    
+    /**
+     * Find ids of ACTIVE rides that have already departed (oldest first)
+     */
+    @Query("SELECT r.id FROM Ride r WHERE r.status = 'ACTIVE' AND r.dateTime <= :currentTime ORDER BY r.dateTime ASC")
+    List<Long> findDepartedActiveRideIds(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
+    
+    /**
+     * Bulk-complete ACTIVE rides by id
+     */
+    @Modifying
+    @Query("UPDATE Ride r SET r.status = 'COMPLETED', r.version = r.version + 1, r.updatedAt = :now " +
+           "WHERE r.id IN :rideIds AND r.status = 'ACTIVE'")
+    int completeRides(@Param("rideIds") List<Long> rideIds, @Param("now") LocalDateTime now);
+    
+    /**
+     * Find ids of finished rides that departed before the cutoff (oldest first)
+     */
+    @Query("SELECT r.id FROM Ride r WHERE r.status <> 'ACTIVE' AND r.dateTime < :cutoff ORDER BY r.dateTime ASC")
+    List<Long> findArchivableRideIds(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    /**
+     * Bulk-delete rides by id (after they were copied to the archive)
+     */
+    @Modifying
+    @Query("DELETE FROM Ride r WHERE r.id IN :rideIds")
+    int deleteByIdIn(@Param("rideIds") List<Long> rideIds);
+    
+    /**
+     * Active rides departing in [from, to) whose departure reminder has not been sent
+     */
+    @Query("SELECT r.id AS id, r.dateTime AS dateTime FROM Ride r " +
+           "WHERE r.status = 'ACTIVE' AND r.dateTime >= :from AND r.dateTime < :to " +
+           "AND NOT EXISTS (SELECT 1 FROM RideReminder rr WHERE rr.rideId = r.id)")
+    List<Departure> findUnremindedDepartures(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * Id and departure time of a ride
+     */
+    interface Departure {
+        Long getId();
+        LocalDateTime getDateTime();
+    }
 }
@@ -1,7 +1,9 @@
 package com.carpool.repository;
 
+import com.carpool.dto.ResourceVersion;
 import com.carpool.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,4 +33,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("UPDATE User u SET u.rating = :rating, u.totalReviews = :totalReviews WHERE u.id = :userId")
     void updateUserRating(@Param("userId") Long userId, @Param("rating") Double rating, @Param("totalReviews") Integer totalReviews);
+    
+    /**
+     * Version probe for a single user
+     */
+    @Query("SELECT new com.carpool.dto.ResourceVersion(COUNT(u), MAX(u.updatedAt)) FROM User u WHERE u.id = :userId")
+    ResourceVersion findVersionById(@Param("userId") Long userId);
+    
+    /**
+     * Replace the stored password hash (rehash on login; the profile version is unchanged)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
@@ -0,0 +1,65 @@
+package com.carpool.repository;
+
+import com.carpool.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    /**
+     * Find waiting entries for a ride in FIFO order
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.ride.id = :rideId AND w.status = 'WAITING' ORDER BY w.createdAt ASC, w.id ASC")
+    List<WaitlistEntry> findWaitingByRideId(@Param("rideId") Long rideId);
+    
+    /**
+     * Find a user's entry for a ride
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.ride.id = :rideId AND w.user.id = :userId")
+    Optional<WaitlistEntry> findByRideIdAndUserId(@Param("rideId") Long rideId, @Param("userId") Long userId);
+    
+    /**
+     * Find entries by user
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.user.id = :userId ORDER BY w.createdAt DESC")
+    List<WaitlistEntry> findByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Current status of an entry, without loading it
+     */
+    @Query("SELECT w.status FROM WaitlistEntry w WHERE w.id = :id")
+    Optional<WaitlistEntry.WaitlistStatus> findStatusById(@Param("id") Long id);
+    
+    /**
+     * Atomically move an entry from one status to another; returns the number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WaitlistEntry w SET w.status = :to, w.updatedAt = :now WHERE w.id = :id AND w.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") WaitlistEntry.WaitlistStatus from,
+                   @Param("to") WaitlistEntry.WaitlistStatus to,
+                   @Param("now") LocalDateTime now);
+    
+    /**
+     * Bulk-expire waiting entries of the given rides
+     */
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED', w.updatedAt = :now " +
+           "WHERE w.ride.id IN :rideIds AND w.status = 'WAITING'")
+    int expireWaitingForRides(@Param("rideIds") List<Long> rideIds, @Param("now") LocalDateTime now);
+    
+    /**
+     * Bulk-delete the waitlist entries of the given rides
+     */
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.ride.id IN :rideIds")
+    int deleteByRideIdIn(@Param("rideIds") List<Long> rideIds);
+}
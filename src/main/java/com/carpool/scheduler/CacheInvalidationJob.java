@@ -0,0 +1,71 @@
+package com.carpool.scheduler;
+
+import com.carpool.cache.CacheInvalidationLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Applies the other nodes' cache invalidations and purges old log entries. The poll
+ * runs on its own thread rather than the shared scheduler, so it is not held up by
+ * the longer jobs (lifecycle, archive, outbox relay) running there.
+ */
+@Component
+public class CacheInvalidationJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationJob.class);
+    
+    @Autowired
+    private CacheInvalidationLog cacheInvalidationLog;
+    
+    @Value("${carpool.cache-invalidation.retention-minutes:60}")
+    private int retentionMinutes;
+    
+    @Value("${carpool.cache-invalidation.poll-interval-ms:250}")
+    private long pollIntervalMs;
+    
+    private final ThreadPoolTaskScheduler pollScheduler = new ThreadPoolTaskScheduler();
+    
+    /**
+     * Start polling on the dedicated thread
+     */
+    @PostConstruct
+    public void start() {
+        pollScheduler.setThreadNamePrefix("cache-invalidation-");
+        pollScheduler.setDaemon(true);
+        pollScheduler.initialize();
+        pollScheduler.scheduleWithFixedDelay(this::applyRemoteInvalidations, Duration.ofMillis(pollIntervalMs));
+    }
+    
+    /**
+     * Stop the polling thread
+     */
+    @PreDestroy
+    public void stop() {
+        pollScheduler.shutdown();
+    }
+    
+    public void applyRemoteInvalidations() {
+        int applied = cacheInvalidationLog.poll();
+        if (applied > 0) {
+            logger.debug("Applied {} cache invalidations from other nodes", applied);
+        }
+    }
+    
+    @Scheduled(cron = "${carpool.cache-invalidation.cleanup-cron:0 */10 * * * *}")
+    public void purgeOldEntries() {
+        int deleted = cacheInvalidationLog.purge(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (deleted > 0) {
+            logger.info("Deleted {} cache invalidation log entries", deleted);
+        }
+    }
+}
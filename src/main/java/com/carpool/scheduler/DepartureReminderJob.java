@@ -0,0 +1,52 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.DepartureReminderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads the next departure window and sends the reminders that fell due
+ */
+@Component
+public class DepartureReminderJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DepartureReminderJob.class);
+    
+    @Autowired
+    private DepartureReminderService departureReminderService;
+    
+    @Value("${carpool.reminders.enabled:true}")
+    private boolean enabled;
+    
+    @Scheduled(fixedDelayString = "${carpool.reminders.interval-ms:30000}",
+               initialDelayString = "${carpool.reminders.initial-delay-ms:10000}")
+    public void sendDueReminders() {
+        if (!enabled) {
+            return;
+        }
+        
+        departureReminderService.loadUpcomingDepartures();
+        
+        List<Long> due = departureReminderService.pollDue();
+        int sent = 0;
+        for (Long rideId : due) {
+            try {
+                if (departureReminderService.sendReminder(rideId)) {
+                    sent++;
+                }
+            } catch (Exception e) {
+                logger.warn("Could not send departure reminder for ride {}: {}", rideId, e.getMessage());
+            }
+        }
+        
+        if (sent > 0) {
+            logger.info("Sent departure reminders for {} rides", sent);
+        }
+    }
+}
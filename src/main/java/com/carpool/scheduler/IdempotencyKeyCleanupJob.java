@@ -0,0 +1,28 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes stored idempotent responses past their TTL
+ */
+@Component
+public class IdempotencyKeyCleanupJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyCleanupJob.class);
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Scheduled(cron = "${carpool.idempotency.cleanup-cron:0 45 3 * * *}")
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyService.purgeExpired();
+        if (deleted > 0) {
+            logger.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+}
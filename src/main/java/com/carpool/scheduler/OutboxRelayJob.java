@@ -0,0 +1,58 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.OutboxRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Relays pending outbox events to their subscribers and purges old published ones
+ */
+@Component
+public class OutboxRelayJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayJob.class);
+    
+    @Autowired
+    private OutboxRelay outboxRelay;
+    
+    @Value("${carpool.outbox.relay-enabled:true}")
+    private boolean relayEnabled;
+    
+    @Value("${carpool.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${carpool.outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+    
+    @Value("${carpool.outbox.retention-hours:24}")
+    private int retentionHours;
+    
+    @Scheduled(fixedDelayString = "${carpool.outbox.interval-ms:500}")
+    public void relayPendingEvents() {
+        if (!relayEnabled) {
+            return;
+        }
+        
+        // Keep draining while batches come back full, up to a bound per run
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (outboxRelay.relayBatch() < batchSize) {
+                break;
+            }
+        }
+        outboxRelay.updatePendingCount();
+    }
+    
+    @Scheduled(cron = "${carpool.outbox.cleanup-cron:0 15 4 * * *}")
+    public void purgePublishedEvents() {
+        int deleted = outboxRelay.purgePublished(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            logger.info("Deleted {} published outbox events", deleted);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.carpool.scheduler;
+
+import com.carpool.limiter.ClientRateLimiter;
+import com.carpool.limiter.SharedRateLimitCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Drops idle rate-limit buckets and, in the shared mode, syncs and purges the
+ * cluster-wide counters
+ */
+@Component
+public class RateLimitJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitJob.class);
+    
+    @Autowired
+    private ClientRateLimiter clientRateLimiter;
+    
+    @Autowired(required = false)
+    private SharedRateLimitCounters sharedRateLimitCounters;
+    
+    @Value("${carpool.rate-limit.shared.window-seconds:60}")
+    private int windowSeconds;
+    
+    @Scheduled(fixedDelayString = "${carpool.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        int evicted = clientRateLimiter.evictIdleBuckets();
+        if (evicted > 0) {
+            logger.debug("Dropped {} idle rate-limit buckets", evicted);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${carpool.rate-limit.shared.sync-interval-ms:1000}")
+    public void syncSharedCounters() {
+        if (sharedRateLimitCounters != null) {
+            sharedRateLimitCounters.sync();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${carpool.rate-limit.cleanup-interval-ms:60000}")
+    public void purgeSharedCounters() {
+        if (sharedRateLimitCounters != null) {
+            int deleted = sharedRateLimitCounters.purge(LocalDateTime.now().minusSeconds(windowSeconds));
+            if (deleted > 0) {
+                logger.debug("Deleted {} rate-limit counters", deleted);
+            }
+        }
+    }
+}
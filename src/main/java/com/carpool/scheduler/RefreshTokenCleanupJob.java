@@ -0,0 +1,29 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes expired refresh tokens. Revoked tokens are kept until they expire so a
+ * replayed token is still recognised as reuse.
+ */
+@Component
+public class RefreshTokenCleanupJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenCleanupJob.class);
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Scheduled(cron = "${carpool.refresh-tokens.cleanup-cron:0 30 3 * * *}")
+    public void purgeExpiredTokens() {
+        int deleted = refreshTokenService.purgeExpired();
+        if (deleted > 0) {
+            logger.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.ArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves finished rides older than the retention window (and their reservations
+ * and reviews) to the archive tables, keeping the hot tables small.
+ */
+@Component
+public class RideArchiveJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideArchiveJob.class);
+    
+    @Autowired
+    private ArchiveService archiveService;
+    
+    @Value("${carpool.archive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${carpool.archive.retention-days:180}")
+    private int retentionDays;
+    
+    @Value("${carpool.archive.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${carpool.archive.max-chunks-per-run:1000}")
+    private int maxChunksPerRun;
+    
+    @Scheduled(cron = "${carpool.archive.cron:0 0 3 * * *}")
+    public void archiveOldRides() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int archived = archiveService.archiveChunk(cutoff, chunkSize);
+            total += archived;
+            if (archived < chunkSize) {
+                break;
+            }
+        }
+        
+        if (total > 0) {
+            logger.info("Archived {} rides that departed before {}", total, cutoff);
+        }
+    }
+}
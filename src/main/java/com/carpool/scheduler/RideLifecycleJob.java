@@ -0,0 +1,56 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.RideLifecycleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves rides whose departure time has passed to COMPLETED, so the hot
+ * queries can filter on status alone.
+ */
+@Component
+public class RideLifecycleJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideLifecycleJob.class);
+    
+    @Autowired
+    private RideLifecycleService rideLifecycleService;
+    
+    @Value("${carpool.lifecycle.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${carpool.lifecycle.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${carpool.lifecycle.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+    
+    @Scheduled(fixedDelayString = "${carpool.lifecycle.interval-ms:60000}",
+               initialDelayString = "${carpool.lifecycle.initial-delay-ms:10000}")
+    public void completeDepartedRides() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime currentTime = LocalDateTime.now();
+        int total = 0;
+        
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int processed = rideLifecycleService.completeDepartedRides(currentTime, chunkSize);
+            total += processed;
+            if (processed < chunkSize) {
+                break;
+            }
+        }
+        
+        if (total > 0) {
+            logger.info("Completed {} departed rides", total);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.carpool.scheduler;
+
+import com.carpool.service.ReservationService;
+import com.carpool.service.SeatHoldService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Advances the seat hold wheel once per tick and releases the holds that expired.
+ * A slower sweep releases overdue holds placed by nodes that are gone.
+ */
+@Component
+public class SeatHoldExpiryJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldExpiryJob.class);
+    
+    @Autowired
+    private SeatHoldService seatHoldService;
+    
+    @Autowired
+    private ReservationService reservationService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Scheduled(fixedDelayString = "${carpool.seat-holds.tick-ms:1000}")
+    public void releaseExpiredHolds() {
+        List<Long> due = seatHoldService.pollExpired();
+        if (due.isEmpty()) {
+            return;
+        }
+        
+        int released = release(due, "wheel");
+        if (released > 0) {
+            logger.info("Released {} expired seat holds", released);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${carpool.seat-holds.sweep-interval-ms:60000}",
+               initialDelayString = "${carpool.seat-holds.sweep-interval-ms:60000}")
+    public void sweepOverdueHolds() {
+        List<Long> overdue = seatHoldService.findOverdueHolds();
+        if (overdue.isEmpty()) {
+            return;
+        }
+        
+        int released = release(overdue, "sweep");
+        if (released > 0) {
+            logger.warn("Released {} overdue seat holds that no node was tracking", released);
+        }
+    }
+    
+    private int release(List<Long> reservationIds, String source) {
+        int released = 0;
+        for (Long reservationId : reservationIds) {
+            try {
+                if (reservationService.expireHold(reservationId)) {
+                    released++;
+                }
+            } catch (Exception e) {
+                // Still held: try again on the next tick
+                logger.warn("Could not release seat hold {}: {}", reservationId, e.getMessage());
+                seatHoldService.track(reservationId, LocalDateTime.now());
+            }
+        }
+        
+        Counter.builder("carpool.seat-holds.expired").tag("source", source)
+                .register(meterRegistry).increment(released);
+        return released;
+    }
+}
@@ -0,0 +1,134 @@
+package com.carpool.security;
+
+import com.carpool.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a fixed-size pool so a burst of logins or registrations
+ * cannot occupy every core. Callers wait at most {@code maxWaitMs} for a hashing
+ * thread and are turned away immediately once the queue is full.
+ * <p>
+ * A caller that times out cancels its hash, but bcrypt and PBKDF2 never check for
+ * interruption: a hash that has started runs to completion and keeps its thread, and
+ * only hashes still in the queue are dropped. Queueing more hashes than the pool can
+ * finish within {@code maxWaitMs} therefore only buys timeouts, so a hash is also
+ * turned away at once when, at the mean hash time so far, the queue ahead of it and its
+ * own hash would take longer than that. {@code queueCapacity} remains the hard limit; around
+ * threads x maxWaitMs / hash time is the useful size.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String BUSY_MESSAGE = "Authentication is busy, please try again shortly";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxWaitMs;
+    private final Counter rejected;
+    private final Timer hashTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.maxWaitMs = maxWaitMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("carpool.auth.hashing.rejected").register(meterRegistry);
+        this.hashTimer = Timer.builder("carpool.auth.hashing").register(meterRegistry);
+        Gauge.builder("carpool.auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("carpool.auth.hashing.queued", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stop the hashing threads (bean destroy method)
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        if (wouldTimeOut()) {
+            rejected.increment();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the hash if it is still queued; a running one finishes regardless
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Whether a hash queued now cannot finish within maxWaitMs, even if the running ones are about to end
+    private boolean wouldTimeOut() {
+        int queued = executor.getQueue().size();
+        double meanHashMs = hashTimer.mean(TimeUnit.MILLISECONDS);
+        if (queued == 0 || meanHashMs <= 0) {
+            return false;
+        }
+        return ((double) queued / threads + 1) * meanHashMs > maxWaitMs;
+    }
+}
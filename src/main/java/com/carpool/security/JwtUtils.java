@@ -22,6 +22,13 @@ public class JwtUtils {
     @Value("${spring.security.jwt.expiration}")
     private int jwtExpirationMs;
     
+    /**
+     * Lifetime of an access token in seconds
+     */
+    public long getExpirationSeconds() {
+        return jwtExpirationMs / 1000L;
+    }
+    
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes());
     }
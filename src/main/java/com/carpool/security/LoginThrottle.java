@@ -0,0 +1,109 @@
+package com.carpool.security;
+
+import com.carpool.exception.TooManyRequestsException;
+import com.carpool.limiter.StripedRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Per-account and per-client-address token buckets for the credential endpoints.
+ * Attempts are charged before any password is hashed, so a brute-force burst is
+ * rejected without spending CPU on it. Past max-tracked-keys, a new account or
+ * address displaces the least recently seen bucket of its stripe, so a flood of
+ * random emails cannot lock everyone else out of logging in.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final String MESSAGE = "Too many attempts, please try again later";
+
+    private final StripedRateLimiter accountBuckets;
+    private final StripedRateLimiter addressBuckets;
+    private final Counter accountThrottled;
+    private final Counter addressThrottled;
+
+    @Value("${carpool.security.login-throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${carpool.security.login-throttle.account-capacity:5}")
+    private int accountCapacity;
+
+    @Value("${carpool.security.login-throttle.account-refill-per-minute:5}")
+    private double accountRefillPerMinute;
+
+    @Value("${carpool.security.login-throttle.address-capacity:30}")
+    private int addressCapacity;
+
+    @Value("${carpool.security.login-throttle.address-refill-per-minute:30}")
+    private double addressRefillPerMinute;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${carpool.security.login-throttle.stripes:64}") int stripes,
+                         @Value("${carpool.security.login-throttle.max-tracked-keys:100000}") int maxTrackedKeys) {
+        this.accountBuckets = new StripedRateLimiter(stripes, maxTrackedKeys);
+        this.addressBuckets = new StripedRateLimiter(stripes, maxTrackedKeys);
+        this.accountThrottled = Counter.builder("carpool.auth.throttled")
+                .tag("scope", "account").register(meterRegistry);
+        this.addressThrottled = Counter.builder("carpool.auth.throttled")
+                .tag("scope", "address").register(meterRegistry);
+        Gauge.builder("carpool.auth.throttle.tracked", accountBuckets, StripedRateLimiter::size)
+                .tag("scope", "account").register(meterRegistry);
+        Gauge.builder("carpool.auth.throttle.tracked", addressBuckets, StripedRateLimiter::size)
+                .tag("scope", "address").register(meterRegistry);
+        FunctionCounter.builder("carpool.auth.throttle.displaced", accountBuckets, StripedRateLimiter::displaced)
+                .tag("scope", "account").register(meterRegistry);
+        FunctionCounter.builder("carpool.auth.throttle.displaced", addressBuckets, StripedRateLimiter::displaced)
+                .tag("scope", "address").register(meterRegistry);
+    }
+
+    /**
+     * Charge a login attempt to the client address and the account
+     */
+    public void checkLogin(String email, String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        // Address first, so a throttled client does not also drain the account's bucket
+        acquire(addressBuckets, clientAddress, addressCapacity, addressRefillPerMinute, addressThrottled);
+        acquire(accountBuckets, normalize(email), accountCapacity, accountRefillPerMinute, accountThrottled);
+    }
+
+    /**
+     * Charge a registration attempt to the client address
+     */
+    public void checkRegistration(String clientAddress) {
+        if (!enabled) {
+            return;
+        }
+        acquire(addressBuckets, clientAddress, addressCapacity, addressRefillPerMinute, addressThrottled);
+    }
+
+    /**
+     * Forget buckets that have refilled completely
+     */
+    @Scheduled(fixedDelayString = "${carpool.security.login-throttle.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        accountBuckets.evictFull();
+        addressBuckets.evictFull();
+    }
+
+    private void acquire(StripedRateLimiter buckets, String key, int capacity,
+                         double refillPerMinute, Counter throttled) {
+        long waitSeconds = buckets.tryAcquire(key, capacity, refillPerMinute / 60.0);
+        if (waitSeconds > 0) {
+            throttled.increment();
+            throw new TooManyRequestsException(MESSAGE, waitSeconds);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.carpool.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+
+/**
+ * Re-encodes a password hash that is below the configured encoder/cost once the login
+ * has succeeded. The upgrade is best-effort: when the hashing pool is busy or the update
+ * fails, the old hash stays and the next login tries again; the login itself succeeds.
+ * <p>
+ * The password service is deliberately not handed to {@link DaoAuthenticationProvider},
+ * whose own upgrade lets such a failure fail the authentication.
+ */
+public class PasswordUpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUpgradingAuthenticationProvider.class);
+
+    private final UserDetailsPasswordService passwordService;
+
+    public PasswordUpgradingAuthenticationProvider(UserDetailsPasswordService passwordService) {
+        this.passwordService = passwordService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (getPasswordEncoder().upgradeEncoding(user.getPassword())) {
+            try {
+                String newPassword = getPasswordEncoder().encode(authentication.getCredentials().toString());
+                passwordService.updatePassword(user, newPassword);
+            } catch (RuntimeException e) {
+                logger.warn("Password re-encoding for user {} skipped: {}", user.getUsername(), e.toString());
+            }
+        }
+
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,59 @@
+package com.carpool.security;
+
+/**
+ * Token bucket that refills continuously at a fixed rate up to its capacity.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, double tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Take one token if one is available
+     */
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Whole seconds until the next token is available (at least 1)
+     */
+    public synchronized long secondsUntilNextToken() {
+        refill();
+        double missing = 1 - tokens;
+        if (missing <= 0) {
+            return 1;
+        }
+        return Math.max(1, (long) Math.ceil(missing / tokensPerNano / NANOS_PER_SECOND));
+    }
+
+    /**
+     * A full bucket carries no state and can be dropped
+     */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -16,6 +16,9 @@ public class UserPrincipal implements UserDetails {
     private User.Role role;
     private Collection<? extends GrantedAuthority> authorities;
     
+    // The user row this principal was loaded from (null when built from token claims)
+    private User user;
+    
     public UserPrincipal(Long id, String email, String password, User.Role role, 
                         Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
@@ -30,13 +33,24 @@ public class UserPrincipal implements UserDetails {
                 new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
         );
         
-        return new UserPrincipal(
+        UserPrincipal principal = new UserPrincipal(
                 user.getId(),
                 user.getEmail(),
                 user.getPassword(),
                 user.getRole(),
                 authorities
         );
+        principal.user = user;
+        return principal;
+    }
+    
+    /**
+     * Copy of this principal with a re-encoded password
+     */
+    public UserPrincipal withPassword(String newPassword) {
+        UserPrincipal principal = new UserPrincipal(id, email, newPassword, role, authorities);
+        principal.user = user;
+        return principal;
     }
     
     // UserDetails implementation
@@ -87,4 +101,8 @@ public class UserPrincipal implements UserDetails {
     public User.Role getRole() {
         return role;
     }
+    
+    public User getUser() {
+        return user;
+    }
 }
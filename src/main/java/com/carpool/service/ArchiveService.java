@@ -0,0 +1,83 @@
+package com.carpool.service;
+
+import com.carpool.event.OutboxEventType;
+import com.carpool.repository.ArchivedReservationRepository;
+import com.carpool.repository.ArchivedReviewRepository;
+import com.carpool.repository.ArchivedRideRepository;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.repository.ReviewRepository;
+import com.carpool.repository.RideRepository;
+import com.carpool.repository.WaitlistEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class ArchiveService {
+    
+    private final RideRepository rideRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReviewRepository reviewRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ArchivedRideRepository archivedRideRepository;
+    private final ArchivedReservationRepository archivedReservationRepository;
+    private final ArchivedReviewRepository archivedReviewRepository;
+    private final OutboxService outboxService;
+    
+    @Autowired
+    public ArchiveService(RideRepository rideRepository,
+                          ReservationRepository reservationRepository,
+                          ReviewRepository reviewRepository,
+                          WaitlistEntryRepository waitlistEntryRepository,
+                          ArchivedRideRepository archivedRideRepository,
+                          ArchivedReservationRepository archivedReservationRepository,
+                          ArchivedReviewRepository archivedReviewRepository,
+                          OutboxService outboxService) {
+        this.rideRepository = rideRepository;
+        this.reservationRepository = reservationRepository;
+        this.reviewRepository = reviewRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.archivedRideRepository = archivedRideRepository;
+        this.archivedReservationRepository = archivedReservationRepository;
+        this.archivedReviewRepository = archivedReviewRepository;
+        this.outboxService = outboxService;
+    }
+    
+    /**
+     * Move one chunk of finished rides that departed before the cutoff, with their
+     * reservations and reviews, from the hot tables into the archive tables.
+     * Copy and delete happen in the same transaction, so a row is always in
+     * exactly one of the two. Returns the number of rides archived.
+     * <p>
+     * Each ride gets an archived event in the outbox, which stands for its reservations
+     * and reviews moving with it.
+     */
+    public int archiveChunk(LocalDateTime cutoff, int chunkSize) {
+        List<Long> rideIds = rideRepository.findArchivableRideIds(cutoff, PageRequest.of(0, chunkSize));
+        if (rideIds.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        archivedRideRepository.archiveRides(rideIds, now);
+        archivedReservationRepository.archiveReservationsForRides(rideIds, now);
+        archivedReviewRepository.archiveReviewsForRides(rideIds, now);
+        
+        // Children first because of the foreign keys; waitlists of finished rides are not kept
+        reviewRepository.deleteByRideIdIn(rideIds);
+        reservationRepository.deleteByRideIdIn(rideIds);
+        waitlistEntryRepository.deleteByRideIdIn(rideIds);
+        rideRepository.deleteByIdIn(rideIds);
+        for (Long rideId : rideIds) {
+            outboxService.record(OutboxEventType.RIDE_ARCHIVED, rideId, Map.of("archivedAt", now));
+        }
+        
+        return rideIds.size();
+    }
+}
@@ -0,0 +1,150 @@
+package com.carpool.service;
+
+import com.carpool.dto.DashboardResponseDto;
+import com.carpool.dto.UserResponseDto;
+import com.carpool.entity.User;
+import com.carpool.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds the dashboard in one call. The user is loaded once and the reservation,
+ * ride and review reads then run side by side on a bounded pool, each in its own
+ * read-only transaction, so the response takes about as long as the slowest read.
+ * When the pool's queue is full or the pool has shut down, the reads run on the request
+ * thread instead.
+ *
+ * Deliberately not @Transactional: the request thread would otherwise hold a
+ * connection while it waits for the reads.
+ */
+@Service
+public class DashboardService {
+    
+    private static final String BUSY_MESSAGE = "The dashboard is busy, please try again shortly";
+    
+    private final UserService userService;
+    private final ReservationService reservationService;
+    private final RideService rideService;
+    private final ReviewService reviewService;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+    private final Counter ranInline;
+    private final Timer dashboardTimer;
+    
+    @Autowired
+    public DashboardService(UserService userService,
+                            ReservationService reservationService,
+                            RideService rideService,
+                            ReviewService reviewService,
+                            MeterRegistry meterRegistry,
+                            @Value("${carpool.dashboard.threads:6}") int threads,
+                            @Value("${carpool.dashboard.queue-capacity:64}") int queueCapacity,
+                            @Value("${carpool.dashboard.max-wait-ms:5000}") long maxWaitMs) {
+        this.userService = userService;
+        this.reservationService = reservationService;
+        this.rideService = rideService;
+        this.reviewService = reviewService;
+        this.maxWaitMs = maxWaitMs;
+        
+        this.ranInline = Counter.builder("carpool.dashboard.inline").register(meterRegistry);
+        this.dashboardTimer = Timer.builder("carpool.dashboard").register(meterRegistry);
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> {
+                    // Also after shutdown: a dropped read would leave its request waiting out max-wait-ms
+                    ranInline.increment();
+                    runnable.run();
+                });
+        
+        Gauge.builder("carpool.dashboard.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("carpool.dashboard.queued", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Get the dashboard of a user: profile, reservations, and for drivers their rides
+     * and the reviews they received
+     */
+    public DashboardResponseDto getDashboard(Long userId) {
+        long start = System.nanoTime();
+        try {
+            User user = userService.findById(userId);
+            DashboardResponseDto dashboard = new DashboardResponseDto(new UserResponseDto(user));
+            
+            List<CompletableFuture<?>> reads = new ArrayList<>();
+            reads.add(read(() -> reservationService.getUpcomingReservationsByUser(user),
+                    dashboard::setUpcomingReservations));
+            reads.add(read(() -> reservationService.getPastReservationsByUser(user),
+                    dashboard::setPastReservations));
+            reads.add(read(() -> reviewService.getReviewsByReviewer(user), dashboard::setReviewsWritten));
+            if (user.getRole() == User.Role.DRIVER) {
+                reads.add(read(() -> rideService.getRidesByDriver(user), dashboard::setMyRides));
+                reads.add(read(() -> reviewService.getRecentReviewsByDriver(user), dashboard::setReviewsReceived));
+            }
+            
+            await(reads);
+            return dashboard;
+        } finally {
+            dashboardTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Stop the dashboard threads
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private <T> CompletableFuture<Void> read(Supplier<T> query, Consumer<T> setter) {
+        return CompletableFuture.supplyAsync(query, executor).thenAccept(setter);
+    }
+    
+    private void await(List<CompletableFuture<?>> reads) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0]));
+        try {
+            all.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            reads.forEach(read -> read.cancel(true));
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        } catch (InterruptedException e) {
+            reads.forEach(read -> read.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.carpool.service;
+
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.notification.DepartureNotifier;
+import com.carpool.notification.DepartureReminder;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.repository.RideReminderRepository;
+import com.carpool.repository.RideRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Sends each ride's driver and confirmed riders a reminder lead-minutes before
+ * departure. Rides are loaded one departure window at a time, just ahead of their
+ * reminder time, and parked in a timing wheel (one-second buckets) until due, so the
+ * database sees one indexed range query per window however many rides lie further
+ * ahead. A ride_reminders row is inserted before a batch is handed to the notifier:
+ * at most one send per ride, across restarts and nodes.
+ */
+@Service
+@Transactional
+public class DepartureReminderService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DepartureReminderService.class);
+    
+    private final RideRepository rideRepository;
+    private final ReservationRepository reservationRepository;
+    private final RideReminderRepository rideReminderRepository;
+    private final DepartureNotifier notifier;
+    private final HierarchicalTimingWheel wheel;
+    
+    // Departures before this time have been loaded into the wheel
+    private volatile LocalDateTime loadedUntil;
+    
+    private final Counter sent;
+    private final Counter skipped;
+    
+    @Value("${carpool.reminders.lead-minutes:60}")
+    private long leadMinutes;
+    
+    @Value("${carpool.reminders.load-window-minutes:15}")
+    private long loadWindowMinutes;
+    
+    @Autowired
+    public DepartureReminderService(RideRepository rideRepository,
+                                    ReservationRepository reservationRepository,
+                                    RideReminderRepository rideReminderRepository,
+                                    DepartureNotifier notifier,
+                                    MeterRegistry meterRegistry) {
+        this.rideRepository = rideRepository;
+        this.reservationRepository = reservationRepository;
+        this.rideReminderRepository = rideReminderRepository;
+        this.notifier = notifier;
+        this.wheel = new HierarchicalTimingWheel(1000, 4, System.currentTimeMillis());
+        this.sent = Counter.builder("carpool.reminders")
+                .tag("result", "sent").register(meterRegistry);
+        this.skipped = Counter.builder("carpool.reminders")
+                .tag("result", "skipped").register(meterRegistry);
+        Gauge.builder("carpool.reminders.scheduled", wheel, HierarchicalTimingWheel::size).register(meterRegistry);
+    }
+    
+    /**
+     * Load the rides departing in the next window that is not loaded yet. The first
+     * call starts at now, which also picks up reminders that fell due while the
+     * application was down, as long as the ride has not left. Reads the primary, so a
+     * ride created just before its window is loaded cannot be missed on a lagging replica.
+     */
+    public int loadUpcomingDepartures() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = loadedUntil == null ? now : loadedUntil;
+        LocalDateTime to = now.plusMinutes(leadMinutes + loadWindowMinutes);
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        
+        List<RideRepository.Departure> departures = rideRepository.findUnremindedDepartures(from, to);
+        for (RideRepository.Departure departure : departures) {
+            schedule(departure.getId(), departure.getDateTime());
+        }
+        loadedUntil = to;
+        return departures.size();
+    }
+    
+    /**
+     * Schedule a ride created after its departure window was loaded
+     */
+    public void rideCreated(Ride ride) {
+        LocalDateTime horizon = loadedUntil;
+        if (horizon == null || !ride.getDateTime().isBefore(horizon)) {
+            return;
+        }
+        
+        Long rideId = ride.getId();
+        LocalDateTime dateTime = ride.getDateTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(rideId, dateTime);
+                }
+            });
+        } else {
+            schedule(rideId, dateTime);
+        }
+    }
+    
+    /**
+     * Rides whose reminder is due now
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Long> pollDue() {
+        return wheel.advance(System.currentTimeMillis());
+    }
+    
+    /**
+     * Claim a ride's reminder and, once the claim is committed, send it to the driver
+     * and confirmed riders as one batch. Returns false if it was already claimed or the
+     * ride is no longer active.
+     */
+    public boolean sendReminder(Long rideId) {
+        Ride ride = rideRepository.findById(rideId).orElse(null);
+        if (ride == null || ride.getStatus() != Ride.RideStatus.ACTIVE || ride.getDateTime().isBefore(LocalDateTime.now())) {
+            skipped.increment();
+            return false;
+        }
+        
+        // Another node, or this one before a restart, may have sent it already
+        if (rideReminderRepository.claim(rideId, LocalDateTime.now()) == 0) {
+            skipped.increment();
+            return false;
+        }
+        
+        List<DepartureReminder.Recipient> riders = reservationRepository.findConfirmedWithUsersByRideId(rideId)
+                .stream()
+                .map(r -> recipient(r.getUser(), r.getSeatsReserved()))
+                .collect(Collectors.toList());
+        DepartureReminder reminder = new DepartureReminder(rideId, ride.getOrigin(), ride.getDestination(),
+                ride.getDateTime(), recipient(ride.getDriver(), 0), riders);
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    notifier.notifyDeparture(reminder);
+                    sent.increment();
+                } catch (RuntimeException e) {
+                    // The claim is committed: dropping the reminder is preferred over sending it twice
+                    logger.error("Failed to send departure reminder for ride {}", rideId, e);
+                }
+            }
+        });
+        return true;
+    }
+    
+    private void schedule(Long rideId, LocalDateTime dateTime) {
+        long remindAtMs = dateTime.minusMinutes(leadMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.schedule(rideId, remindAtMs)) {
+            // Reminder time already passed (late ride or downtime): send on the next tick
+            wheel.schedule(rideId, System.currentTimeMillis() + 1);
+        }
+    }
+    
+    private static DepartureReminder.Recipient recipient(User user, int seats) {
+        return new DepartureReminder.Recipient(user.getId(), user.getName(), user.getEmail(), seats);
+    }
+}
@@ -0,0 +1,30 @@
+package com.carpool.service;
+
+import com.carpool.event.OutboxEventType;
+import com.carpool.event.OutboxMessage;
+import com.carpool.event.OutboxSubscriber;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Recomputes a driver's rating after a review. Recomputing from all reviews makes
+ * a redelivered event harmless.
+ */
+@Component
+public class DriverRatingSubscriber implements OutboxSubscriber {
+    
+    @Autowired
+    private ReviewService reviewService;
+    
+    @Override
+    public Set<OutboxEventType> eventTypes() {
+        return Set.of(OutboxEventType.REVIEW_CREATED);
+    }
+    
+    @Override
+    public void onEvent(OutboxMessage message) {
+        reviewService.recomputeDriverRating(message.getLong("driverId"));
+    }
+}
@@ -0,0 +1,167 @@
+package com.carpool.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) of ids with deadlines. Level 0
+ * has one slot per tick; each higher level has slots 64 times as wide, and its
+ * entries cascade down a level when the wheel reaches their slot. Scheduling,
+ * cancelling and expiring an entry are O(1); an entry cascades at most once per
+ * level. Slots are intrusive doubly linked lists, so entries need no extra nodes.
+ * <p>
+ * Not time-driven itself: the owner calls {@link #advance(long)} with the current
+ * time and acts on the ids that fell due.
+ */
+class HierarchicalTimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMs;
+    private final int levels;
+    private final Entry[][] slots;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    HierarchicalTimingWheel(long tickMs, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.levels = levels;
+        this.slots = new Entry[levels][SLOTS];
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedule (or reschedule) an id; returns false if the deadline has already passed
+     */
+    synchronized boolean schedule(long id, long deadlineMs) {
+        cancel(id);
+
+        // Round up so an entry never fires before its deadline
+        long deadlineTick = (deadlineMs + tickMs - 1) / tickMs;
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+
+        Entry entry = new Entry(id, deadlineTick);
+        entries.put(id, entry);
+        place(entry);
+        return true;
+    }
+
+    /**
+     * Remove an id if it is scheduled
+     */
+    synchronized boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Move the wheel to the given time and return the ids that fell due
+     */
+    synchronized List<Long> advance(long nowMs) {
+        List<Long> due = new ArrayList<>();
+        long targetTick = nowMs / tickMs;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade every level whose lower levels just wrapped around
+            for (int level = 1; level < levels; level++) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                Entry entry = detachSlot(level, slotOf(currentTick, level));
+                while (entry != null) {
+                    Entry next = entry.next;
+                    if (entry.deadlineTick <= currentTick) {
+                        entries.remove(entry.id);
+                        due.add(entry.id);
+                    } else {
+                        place(entry);
+                    }
+                    entry = next;
+                }
+            }
+
+            Entry entry = detachSlot(0, slotOf(currentTick, 0));
+            while (entry != null) {
+                entries.remove(entry.id);
+                due.add(entry.id);
+                entry = entry.next;
+            }
+        }
+        return due;
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.deadlineTick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        // Beyond the top level's span: park in its farthest slot and re-place on cascade
+        long span = 1L << (SLOT_BITS * levels);
+        long tick = delta < span ? entry.deadlineTick : currentTick + span - 1;
+
+        int slot = slotOf(tick, level);
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = slots[level][slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        slots[level][slot] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private Entry detachSlot(int level, int slot) {
+        Entry head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final long deadlineTick;
+        private int level;
+        private int slot;
+        private Entry prev;
+        private Entry next;
+
+        Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.carpool.service;
+
+import com.carpool.entity.IdempotencyRecord;
+import com.carpool.exception.BusinessException;
+import com.carpool.exception.IdempotencyConflictException;
+import com.carpool.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response of a POST sent again with the same Idempotency-Key,
+ * so client retries never re-enter the booking path. Responses are kept in a
+ * bounded in-memory map with the idempotency_keys table as the durable copy
+ * (restarts, other nodes).
+ * <p>
+ * Not transactional: the action commits in its own transaction before its
+ * response is stored, and lookups hold no connection. Failed actions are not
+ * stored; the services' own duplicate checks still guard a retried request
+ * whose response was lost before it could be stored.
+ */
+@Service
+public class IdempotencyService {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    
+    // Key hash -> stored response
+    private final Map<String, StoredResponse> responses = new ConcurrentHashMap<>();
+    // Key hashes whose action is running on this node
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    
+    private final Counter executed;
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+    private final Counter conflicts;
+    private final Counter mismatches;
+    
+    @Value("${carpool.idempotency.ttl-hours:24}")
+    private int ttlHours;
+    
+    @Value("${carpool.idempotency.cache-max-entries:10000}")
+    private int cacheMaxEntries;
+    
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.executed = Counter.builder("carpool.idempotency")
+                .tag("result", "executed").register(meterRegistry);
+        this.memoryReplays = Counter.builder("carpool.idempotency")
+                .tag("result", "replayed-memory").register(meterRegistry);
+        this.databaseReplays = Counter.builder("carpool.idempotency")
+                .tag("result", "replayed-database").register(meterRegistry);
+        this.conflicts = Counter.builder("carpool.idempotency")
+                .tag("result", "in-progress").register(meterRegistry);
+        this.mismatches = Counter.builder("carpool.idempotency")
+                .tag("result", "mismatch").register(meterRegistry);
+        Gauge.builder("carpool.idempotency.cached", responses, Map::size).register(meterRegistry);
+    }
+    
+    /**
+     * Run the action once per (scope, user, key) and return its response, or the stored
+     * response if the key was seen before. Without a key the action simply runs.
+     */
+    public <T> Outcome<T> execute(String scope, Long userId, String key, Object request,
+                                  Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return new Outcome<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String keyHash = sha256(scope + ":" + userId + ":" + key);
+        String requestHash = sha256(toJson(request));
+        
+        Optional<T> stored = replay(keyHash, requestHash, responseType);
+        if (stored.isPresent()) {
+            return new Outcome<>(stored.get(), true);
+        }
+        
+        if (!inFlight.add(keyHash)) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+        }
+        try {
+            // The previous holder may have stored its response between the lookup and the claim
+            StoredResponse finished = responses.get(keyHash);
+            if (finished != null && !finished.isExpired()) {
+                return new Outcome<>(replayFromMemory(finished, requestHash, responseType), true);
+            }
+            
+            T response = action.get();
+            executed.increment();
+            store(keyHash, userId, scope, requestHash, response);
+            return new Outcome<>(response, false);
+        } finally {
+            inFlight.remove(keyHash);
+        }
+    }
+    
+    /**
+     * Delete expired responses from the store
+     */
+    public int purgeExpired() {
+        responses.values().removeIf(StoredResponse::isExpired);
+        return idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+    
+    private <T> Optional<T> replay(String keyHash, String requestHash, Class<T> responseType) {
+        StoredResponse cached = responses.get(keyHash);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return Optional.of(replayFromMemory(cached, requestHash, responseType));
+            }
+            responses.remove(keyHash, cached);
+        }
+        
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findOnPrimary(keyHash)
+                .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()));
+        if (record.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        checkSameRequest(record.get().getRequestHash(), requestHash);
+        T response = fromJson(record.get().getResponseBody(), responseType);
+        cache(keyHash, new StoredResponse(record.get().getRequestHash(), response, record.get().getExpiresAt()));
+        databaseReplays.increment();
+        return Optional.of(response);
+    }
+    
+    private <T> T replayFromMemory(StoredResponse cached, String requestHash, Class<T> responseType) {
+        checkSameRequest(cached.getRequestHash(), requestHash);
+        memoryReplays.increment();
+        return responseType.cast(cached.getResponse());
+    }
+    
+    private void checkSameRequest(String storedRequestHash, String requestHash) {
+        if (!storedRequestHash.equals(requestHash)) {
+            mismatches.increment();
+            throw new IdempotencyConflictException(HEADER + " was already used for a different request");
+        }
+    }
+    
+    private void store(String keyHash, Long userId, String scope, String requestHash, Object response) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        try {
+            idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(keyHash, userId, scope, requestHash,
+                    toJson(response), expiresAt));
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored this key first; its duplicate was rejected by the service itself
+            logger.debug("Idempotency key {} already stored", keyHash);
+        }
+        cache(keyHash, new StoredResponse(requestHash, response, expiresAt));
+    }
+    
+    private void cache(String keyHash, StoredResponse stored) {
+        if (responses.size() >= cacheMaxEntries) {
+            responses.values().removeIf(StoredResponse::isExpired);
+            if (responses.size() >= cacheMaxEntries) {
+                return;
+            }
+        }
+        responses.put(keyHash, stored);
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+    
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored " + type.getSimpleName(), e);
+        }
+    }
+    
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * In-memory copy of a stored response
+     */
+    private static class StoredResponse {
+        private final String requestHash;
+        private final Object response;
+        private final LocalDateTime expiresAt;
+        
+        StoredResponse(String requestHash, Object response, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+        
+        boolean isExpired() {
+            return LocalDateTime.now().isAfter(expiresAt);
+        }
+        
+        String getRequestHash() { return requestHash; }
+        Object getResponse() { return response; }
+    }
+    
+    /**
+     * Response of an idempotent call and whether it was replayed
+     */
+    public static class Outcome<T> {
+        private final T response;
+        private final boolean replayed;
+        
+        public Outcome(T response, boolean replayed) {
+            this.response = response;
+            this.replayed = replayed;
+        }
+        
+        public T getResponse() { return response; }
+        public boolean isReplayed() { return replayed; }
+    }
+}
@@ -0,0 +1,183 @@
+package com.carpool.service;
+
+import com.carpool.entity.OutboxEvent;
+import com.carpool.event.OutboxMessage;
+import com.carpool.event.OutboxSubscriber;
+import com.carpool.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays outbox events to the in-process subscribers, a batch at a time in id order.
+ * An event is marked published once every interested subscriber handled it; if one
+ * throws, the event stays pending and is delivered again on a later run (at-least-once),
+ * without holding back the rest of the batch. Retries back off exponentially from
+ * retry-base-ms up to retry-max-ms, with jitter so events failing together do not
+ * retry together. After max-attempts it is left for an operator, with the last error
+ * on the row.
+ * <p>
+ * Not transactional: each subscriber runs in its own transaction, and a slow
+ * subscriber holds no database connection of the relay.
+ */
+@Service
+public class OutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    private final Counter delivered;
+    private final Counter failed;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+    
+    @Value("${carpool.outbox.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${carpool.outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${carpool.outbox.retry-base-ms:1000}")
+    private long retryBaseMs;
+    
+    @Value("${carpool.outbox.retry-max-ms:300000}")
+    private long retryMaxMs;
+    
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       List<OutboxSubscriber> subscribers,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.delivered = Counter.builder("carpool.outbox.events")
+                .tag("result", "delivered").register(meterRegistry);
+        this.failed = Counter.builder("carpool.outbox.events")
+                .tag("result", "failed").register(meterRegistry);
+        Gauge.builder("carpool.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("carpool.outbox.lag.seconds", oldestPendingAgeMs, age -> age.get() / 1000.0)
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Relay one batch; returns the number of events read, so the caller can tell
+     * whether more are waiting
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findPending(maxAttempts, LocalDateTime.now(),
+                PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            oldestPendingAgeMs.set(0);
+            return 0;
+        }
+        oldestPendingAgeMs.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+        
+        List<Long> published = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (deliver(event)) {
+                published.add(event.getId());
+            }
+        }
+        
+        if (!published.isEmpty()) {
+            outboxEventRepository.markPublished(published, LocalDateTime.now());
+            delivered.increment(published.size());
+        }
+        return batch.size();
+    }
+    
+    /**
+     * Refresh the pending gauge (one indexed count per relay run)
+     */
+    public void updatePendingCount() {
+        pending.set(outboxEventRepository.countPending(maxAttempts));
+    }
+    
+    /**
+     * Delete published events older than the retention period
+     */
+    public int purgePublished(LocalDateTime cutoff) {
+        return outboxEventRepository.deletePublishedBefore(cutoff);
+    }
+    
+    private boolean deliver(OutboxEvent event) {
+        OutboxMessage message;
+        try {
+            message = new OutboxMessage(event.getId(), event.getEventType(), event.getAggregateId(),
+                    objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE), event.getCreatedAt());
+        } catch (JsonProcessingException e) {
+            fail(event, "Unreadable payload: " + e.getOriginalMessage());
+            return false;
+        }
+        
+        for (OutboxSubscriber subscriber : subscribers) {
+            if (!subscriber.eventTypes().contains(event.getEventType())) {
+                continue;
+            }
+            String name = ClassUtils.getUserClass(subscriber).getSimpleName();
+            try {
+                Timer.builder("carpool.outbox.dispatch").tag("subscriber", name).register(meterRegistry)
+                        .record(() -> subscriber.onEvent(message));
+            } catch (RuntimeException e) {
+                logger.warn("Outbox subscriber {} failed on event {} ({}): {}", name, event.getId(),
+                        event.getEventType(), e.getMessage());
+                fail(event, name + ": " + e.getMessage());
+                return false;
+            }
+            // Consumer lag: time from the committed change to its handling by this subscriber
+            Timer.builder("carpool.outbox.consumer.lag").tag("subscriber", name).register(meterRegistry)
+                    .record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+        }
+        return true;
+    }
+    
+    private void fail(OutboxEvent event, String error) {
+        failed.increment();
+        String truncated = error == null ? null : error.substring(0, Math.min(error.length(), 512));
+        int attempts = event.getAttempts() + 1;
+        outboxEventRepository.recordFailure(event.getId(), truncated,
+                LocalDateTime.now().plus(Duration.ofMillis(retryDelayMs(attempts))));
+        if (attempts >= maxAttempts) {
+            logger.error("Outbox event {} ({}) gave up after {} attempts: {}", event.getId(),
+                    event.getEventType(), maxAttempts, error);
+        }
+    }
+    
+    /**
+     * Delay before the next delivery of an event that failed the given number of times:
+     * base * 2^(attempts - 1), capped at the maximum, then drawn from its upper half
+     */
+    long retryDelayMs(int attempts) {
+        long delay = retryMaxMs;
+        if (attempts - 1 < Long.numberOfLeadingZeros(retryBaseMs) - 1) {
+            delay = Math.min(retryMaxMs, retryBaseMs << (attempts - 1));
+        }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.carpool.service;
+
+import com.carpool.entity.OutboxEvent;
+import com.carpool.event.OutboxEventType;
+import com.carpool.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Writes outbox events. Must be called inside the transaction making the change,
+ * so the event is committed (or rolled back) together with it.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Record a change to an aggregate; the payload carries what subscribers need without a lookup
+     */
+    public void record(OutboxEventType type, Long aggregateId, Map<String, Object> payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(type, aggregateId, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload for " + type, e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.carpool.service;
+
+import com.carpool.entity.RefreshToken;
+import com.carpool.entity.User;
+import com.carpool.repository.RefreshTokenRepository;
+import com.carpool.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and rotates refresh tokens. Tokens are opaque random strings; only their
+ * SHA-256 is stored. Live tokens are kept in memory so a refresh needs no token read,
+ * with the refresh_tokens table as the durable copy (restarts, other nodes). The user
+ * is read again on every refresh, so a changed email or role reaches the next access
+ * token and a deleted user cannot refresh.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    // Token hash -> owner, chain and expiry of a live token
+    private final Map<String, StoredToken> tokens = new ConcurrentHashMap<>();
+    
+    private final Counter memoryLookups;
+    private final Counter databaseLookups;
+    private final Counter rotated;
+    private final Counter rejected;
+    private final Counter reused;
+    
+    @Value("${carpool.refresh-tokens.ttl-days:30}")
+    private int ttlDays;
+    
+    @Value("${carpool.refresh-tokens.cache-max-entries:100000}")
+    private int cacheMaxEntries;
+    
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.memoryLookups = Counter.builder("carpool.auth.refresh.lookups")
+                .tag("source", "memory").register(meterRegistry);
+        this.databaseLookups = Counter.builder("carpool.auth.refresh.lookups")
+                .tag("source", "database").register(meterRegistry);
+        this.rotated = Counter.builder("carpool.auth.refresh")
+                .tag("result", "rotated").register(meterRegistry);
+        this.rejected = Counter.builder("carpool.auth.refresh")
+                .tag("result", "rejected").register(meterRegistry);
+        this.reused = Counter.builder("carpool.auth.refresh")
+                .tag("result", "reused").register(meterRegistry);
+        Gauge.builder("carpool.auth.refresh.cached", tokens, Map::size).register(meterRegistry);
+    }
+    
+    /**
+     * Issue a refresh token starting a new rotation chain (login, registration)
+     */
+    public IssuedToken issue(Long userId, String email, User.Role role) {
+        return issue(userId, email, role, UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Exchange a refresh token for a new one in the same chain. The presented token is
+     * spent; presenting a spent token again revokes the whole chain, since one of the
+     * two holders is not the legitimate client.
+     */
+    public Optional<IssuedToken> rotate(String rawToken) {
+        String tokenHash = hash(rawToken);
+        StoredToken stored = lookup(tokenHash);
+        
+        if (stored == null || stored.isExpired()) {
+            tokens.remove(tokenHash);
+            rejected.increment();
+            return Optional.empty();
+        }
+        
+        // The conditional update is the single source of truth across nodes
+        if (stored.isRevoked() || refreshTokenRepository.revoke(tokenHash) == 0) {
+            logger.warn("Refresh token reuse detected for user {}, revoking its chain", stored.getUserId());
+            revokeFamily(stored.getFamilyId());
+            reused.increment();
+            return Optional.empty();
+        }
+        
+        // A spent token is only looked up again on reuse, which the database answers
+        afterCommit(() -> tokens.remove(tokenHash));
+        
+        // Claims come from the current row, not from when the chain started
+        Optional<User> user = userRepository.findById(stored.getUserId());
+        if (user.isEmpty()) {
+            revokeFamily(stored.getFamilyId());
+            rejected.increment();
+            return Optional.empty();
+        }
+        
+        rotated.increment();
+        return Optional.of(issue(user.get().getId(), user.get().getEmail(), user.get().getRole(),
+                stored.getFamilyId()));
+    }
+    
+    /**
+     * Revoke the chain a refresh token belongs to (logout)
+     */
+    public void revoke(String rawToken) {
+        StoredToken stored = lookup(hash(rawToken));
+        if (stored != null) {
+            revokeFamily(stored.getFamilyId());
+        }
+    }
+    
+    /**
+     * Revoke every refresh token of a user (e.g. after a password change)
+     */
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+        tokens.values().removeIf(token -> token.getUserId().equals(userId));
+    }
+    
+    /**
+     * Delete expired tokens from the store
+     */
+    public int purgeExpired() {
+        tokens.values().removeIf(StoredToken::isExpired);
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+    
+    private IssuedToken issue(Long userId, String email, User.Role role, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String tokenHash = hash(rawToken);
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(ttlDays);
+        
+        refreshTokenRepository.save(new RefreshToken(tokenHash, userRepository.getReferenceById(userId),
+                familyId, expiresAt));
+        cache(tokenHash, new StoredToken(userId, familyId, expiresAt, false));
+        
+        return new IssuedToken(rawToken, userId, email, role);
+    }
+    
+    private StoredToken lookup(String tokenHash) {
+        StoredToken stored = tokens.get(tokenHash);
+        if (stored != null) {
+            memoryLookups.increment();
+            return stored;
+        }
+        
+        databaseLookups.increment();
+        Optional<RefreshToken> entity = refreshTokenRepository.findById(tokenHash);
+        if (entity.isEmpty()) {
+            return null;
+        }
+        
+        RefreshToken token = entity.get();
+        stored = new StoredToken(token.getUser().getId(), token.getFamilyId(), token.getExpiresAt(),
+                token.isRevoked());
+        cache(tokenHash, stored);
+        return stored;
+    }
+    
+    private void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        tokens.values().forEach(token -> {
+            if (token.getFamilyId().equals(familyId)) {
+                token.markRevoked();
+            }
+        });
+    }
+    
+    private void cache(String tokenHash, StoredToken stored) {
+        if (tokens.size() >= cacheMaxEntries) {
+            tokens.values().removeIf(StoredToken::isExpired);
+            if (tokens.size() >= cacheMaxEntries) {
+                return;
+            }
+        }
+        tokens.put(tokenHash, stored);
+        
+        // The entry is added eagerly; drop it if the transaction that wrote the row rolls back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        tokens.remove(tokenHash);
+                    }
+                }
+            });
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * In-memory view of a stored token
+     */
+    private static class StoredToken {
+        private final Long userId;
+        private final String familyId;
+        private final LocalDateTime expiresAt;
+        private volatile boolean revoked;
+        
+        StoredToken(Long userId, String familyId, LocalDateTime expiresAt, boolean revoked) {
+            this.userId = userId;
+            this.familyId = familyId;
+            this.expiresAt = expiresAt;
+            this.revoked = revoked;
+        }
+        
+        boolean isExpired() {
+            return LocalDateTime.now().isAfter(expiresAt);
+        }
+        
+        void markRevoked() {
+            revoked = true;
+        }
+        
+        Long getUserId() { return userId; }
+        String getFamilyId() { return familyId; }
+        boolean isRevoked() { return revoked; }
+    }
+    
+    /**
+     * A newly issued refresh token with the claims for its access token
+     */
+    public static class IssuedToken {
+        private final String token;
+        private final Long userId;
+        private final String email;
+        private final User.Role role;
+        
+        public IssuedToken(String token, Long userId, String email, User.Role role) {
+            this.token = token;
+            this.userId = userId;
+            this.email = email;
+            this.role = role;
+        }
+        
+        public String getToken() { return token; }
+        public Long getUserId() { return userId; }
+        public String getEmail() { return email; }
+        public User.Role getRole() { return role; }
+    }
+}
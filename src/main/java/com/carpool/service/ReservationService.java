@@ -1,23 +1,35 @@
 package com.carpool.service;
 
+import com.carpool.aop.RetryOnConflict;
+import com.carpool.aop.RideLocked;
 import com.carpool.dto.ReservationCreateDto;
 import com.carpool.dto.ReservationResponseDto;
 import com.carpool.dto.RideResponseDto;
 import com.carpool.dto.UserResponseDto;
+import com.carpool.entity.ArchivedReservation;
+import com.carpool.entity.ArchivedRide;
 import com.carpool.entity.Reservation;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import com.carpool.event.OutboxEventType;
 import com.carpool.exception.BusinessException;
 import com.carpool.exception.ResourceNotFoundException;
+import com.carpool.repository.ArchivedReservationRepository;
+import com.carpool.repository.ArchivedRideRepository;
 import com.carpool.repository.ReservationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,23 +37,109 @@ import java.util.stream.Collectors;
 public class ReservationService {
     
     private final ReservationRepository reservationRepository;
+    private final ArchivedReservationRepository archivedReservationRepository;
+    private final ArchivedRideRepository archivedRideRepository;
     private final RideService rideService;
     private final UserService userService;
+    private final WaitlistService waitlistService;
+    private final SeatHoldService seatHoldService;
+    private final OutboxService outboxService;
     
     @Autowired
     public ReservationService(ReservationRepository reservationRepository, 
+                             ArchivedReservationRepository archivedReservationRepository,
+                             ArchivedRideRepository archivedRideRepository,
                              RideService rideService, 
-                             UserService userService) {
+                             UserService userService,
+                             WaitlistService waitlistService,
+                             SeatHoldService seatHoldService,
+                             OutboxService outboxService) {
         this.reservationRepository = reservationRepository;
+        this.archivedReservationRepository = archivedReservationRepository;
+        this.archivedRideRepository = archivedRideRepository;
         this.rideService = rideService;
         this.userService = userService;
+        this.waitlistService = waitlistService;
+        this.seatHoldService = seatHoldService;
+        this.outboxService = outboxService;
     }
     
     /**
      * Create a new reservation
      */
+    @RideLocked(rideId = "#p0.rideId")
     @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
     public ReservationResponseDto createReservation(ReservationCreateDto reservationDto, Long userId) {
+        return createReservationResponseDto(reserve(reservationDto, userId, null));
+    }
+    
+    /**
+     * Hold seats for checkout; the hold is released unless confirmed before it expires
+     */
+    @RideLocked(rideId = "#p0.rideId")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public ReservationResponseDto holdSeats(ReservationCreateDto reservationDto, Long userId) {
+        Reservation reservation = reserve(reservationDto, userId, seatHoldService.newHoldDeadline());
+        
+        Long reservationId = reservation.getId();
+        LocalDateTime heldUntil = reservation.getHeldUntil();
+        afterCommit(() -> seatHoldService.track(reservationId, heldUntil));
+        
+        return createReservationResponseDto(reservation);
+    }
+    
+    /**
+     * Confirm a held reservation before its hold expires
+     */
+    @RetryOnConflict
+    @Transactional
+    public ReservationResponseDto confirmHold(Long reservationId, Long userId) {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
+        
+        if (!reservation.getUser().getId().equals(userId)) {
+            throw new BusinessException("You can only confirm your own reservations");
+        }
+        if (reservation.getStatus() != Reservation.ReservationStatus.HELD) {
+            throw new BusinessException("Reservation is not held");
+        }
+        if (reservation.getHeldUntil().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("The hold has expired, please book again");
+        }
+        
+        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        reservation.setHeldUntil(null);
+        Reservation savedReservation = reservationRepository.saveAndFlush(reservation);
+        recordEvent(OutboxEventType.RESERVATION_CONFIRMED, savedReservation);
+        afterCommit(() -> seatHoldService.untrack(reservationId));
+        
+        return createReservationResponseDto(savedReservation);
+    }
+    
+    /**
+     * Release a hold that expired without being confirmed; false if it was confirmed or
+     * released in the meantime. The row is deleted rather than cancelled so the rider
+     * can book the ride again.
+     */
+    @RideLocked(reservationId = "#p0")
+    @RetryOnConflict
+    @Transactional
+    public boolean expireHold(Long reservationId) {
+        Optional<Reservation> held = reservationRepository.findById(reservationId)
+                .filter(r -> r.getStatus() == Reservation.ReservationStatus.HELD)
+                .filter(r -> !r.getHeldUntil().isAfter(LocalDateTime.now()));
+        if (held.isEmpty()) {
+            return false;
+        }
+        
+        releaseHold(held.get());
+        return true;
+    }
+    
+    /**
+     * Validate a booking and take its seats; a hold deadline makes it a HELD reservation
+     */
+    private Reservation reserve(ReservationCreateDto reservationDto, Long userId, LocalDateTime heldUntil) {
         User user = userService.findById(userId);
         Ride ride = rideService.findById(reservationDto.getRideId());
         
@@ -54,8 +152,10 @@ public class ReservationService {
             throw new BusinessException("You have already reserved seats for this ride");
         }
         
-        // First update available seats in ride
-        rideService.reduceAvailableSeats(ride.getId(), reservationDto.getSeatsReserved());
+        // Take the seats in this transaction, so they come back if the reservation is not written
+        if (!rideService.takeSeats(ride.getId(), reservationDto.getSeatsReserved())) {
+            throw new BusinessException("Not enough available seats");
+        }
         
         // Then create reservation
         Reservation reservation = new Reservation();
@@ -63,12 +163,52 @@ public class ReservationService {
         reservation.setUser(user);
         reservation.setSeatsReserved(reservationDto.getSeatsReserved());
         reservation.setNotes(reservationDto.getNotes());
-        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+        reservation.setStatus(heldUntil == null
+                ? Reservation.ReservationStatus.CONFIRMED
+                : Reservation.ReservationStatus.HELD);
+        reservation.setHeldUntil(heldUntil);
         
         Reservation savedReservation = reservationRepository.save(reservation);
+        recordEvent(heldUntil == null ? OutboxEventType.RESERVATION_CREATED : OutboxEventType.RESERVATION_HELD,
+                savedReservation);
+        return savedReservation;
+    }
+    
+    /**
+     * Delete a held reservation and hand its seats back (to waitlisted riders first)
+     */
+    private void releaseHold(Reservation reservation) {
+        Long reservationId = reservation.getId();
+        Long rideId = reservation.getRide().getId();
         
-        // Create response DTO manually to avoid lazy loading issues
-        return createReservationResponseDto(savedReservation);
+        // Flush so a concurrent confirmation is detected before seats are released
+        reservationRepository.delete(reservation);
+        reservationRepository.flush();
+        recordEvent(OutboxEventType.RESERVATION_RELEASED, reservation);
+        
+        rideService.returnSeats(rideId, reservation.getSeatsReserved());
+        waitlistService.promoteWaitlisted(rideId);
+        afterCommit(() -> seatHoldService.untrack(reservationId));
+    }
+    
+    private void recordEvent(OutboxEventType type, Reservation reservation) {
+        outboxService.record(type, reservation.getId(), Map.of(
+                "rideId", reservation.getRide().getId(),
+                "userId", reservation.getUser().getId(),
+                "seats", reservation.getSeatsReserved()));
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
     
     /**
@@ -79,9 +219,11 @@ public class ReservationService {
         User user = userService.findById(userId);
         List<Reservation> reservations = reservationRepository.findByUserOrderByCreatedAtDesc(user);
         
-        return reservations.stream()
+        List<ReservationResponseDto> result = reservations.stream()
                 .map(this::createReservationResponseDto)
                 .collect(Collectors.toList());
+        return withArchivedReservations(result, user,
+                Comparator.comparing(ReservationResponseDto::getCreatedAt).reversed());
     }
     
     /**
@@ -89,9 +231,15 @@ public class ReservationService {
      */
     @Transactional(readOnly = true)
     public List<ReservationResponseDto> getUpcomingReservationsByUser(Long userId) {
-        User user = userService.findById(userId);
-        LocalDateTime currentTime = LocalDateTime.now();
-        List<Reservation> reservations = reservationRepository.findUpcomingReservationsByUser(user, currentTime);
+        return getUpcomingReservationsByUser(userService.findById(userId));
+    }
+    
+    /**
+     * Get upcoming reservations of an already loaded user
+     */
+    @Transactional(readOnly = true)
+    public List<ReservationResponseDto> getUpcomingReservationsByUser(User user) {
+        List<Reservation> reservations = reservationRepository.findUpcomingReservationsByUser(user);
         
         return reservations.stream()
                 .map(this::createReservationResponseDto)
@@ -103,13 +251,54 @@ public class ReservationService {
      */
     @Transactional(readOnly = true)
     public List<ReservationResponseDto> getPastReservationsByUser(Long userId) {
-        User user = userService.findById(userId);
+        return getPastReservationsByUser(userService.findById(userId));
+    }
+    
+    /**
+     * Get past reservations of an already loaded user
+     */
+    @Transactional(readOnly = true)
+    public List<ReservationResponseDto> getPastReservationsByUser(User user) {
         LocalDateTime currentTime = LocalDateTime.now();
         List<Reservation> reservations = reservationRepository.findPastReservationsByUser(user, currentTime);
         
-        return reservations.stream()
+        List<ReservationResponseDto> result = reservations.stream()
                 .map(this::createReservationResponseDto)
                 .collect(Collectors.toList());
+        return withArchivedReservations(result, user,
+                Comparator.comparing((ReservationResponseDto dto) -> dto.getRide().getDateTime()).reversed());
+    }
+    
+    /**
+     * Append the user's archived reservations (their rides are always archived too)
+     */
+    private List<ReservationResponseDto> withArchivedReservations(List<ReservationResponseDto> reservations,
+                                                                  User user,
+                                                                  Comparator<ReservationResponseDto> order) {
+        List<ArchivedReservation> archivedReservations =
+                archivedReservationRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        if (archivedReservations.isEmpty()) {
+            return reservations;
+        }
+        
+        Map<Long, ArchivedRide> rides = archivedRideRepository.findAllById(archivedReservations.stream()
+                        .map(ArchivedReservation::getRideId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ArchivedRide::getId, Function.identity()));
+        Map<Long, User> drivers = userService.findAllById(rides.values().stream()
+                .map(ArchivedRide::getDriverId)
+                .collect(Collectors.toSet()));
+        
+        for (ArchivedReservation archivedReservation : archivedReservations) {
+            ArchivedRide ride = rides.get(archivedReservation.getRideId());
+            if (ride == null) {
+                continue;
+            }
+            RideResponseDto rideDto = new RideResponseDto(ride, drivers.get(ride.getDriverId()));
+            reservations.add(new ReservationResponseDto(archivedReservation, rideDto, user));
+        }
+        reservations.sort(order);
+        return reservations;
     }
     
     /**
@@ -128,6 +317,8 @@ public class ReservationService {
     /**
      * Cancel a reservation
      */
+    @RideLocked(reservationId = "#p0")
+    @RetryOnConflict
     @Transactional
     public ReservationResponseDto cancelReservation(Long reservationId, Long userId) {
         Reservation reservation = reservationRepository.findById(reservationId)
@@ -148,12 +339,23 @@ public class ReservationService {
             throw new BusinessException("Cannot cancel reservation for past rides");
         }
         
-        // Cancel reservation
+        // A hold is released like an expired one, leaving the ride bookable for this rider
+        if (reservation.getStatus() == Reservation.ReservationStatus.HELD) {
+            ReservationResponseDto released = createReservationResponseDto(reservation);
+            releaseHold(reservation);
+            released.setStatus(Reservation.ReservationStatus.CANCELLED);
+            return released;
+        }
+        
+        // Cancel reservation; flush so a concurrent modification is detected before seats are released
         reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-        Reservation savedReservation = reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.saveAndFlush(reservation);
+        recordEvent(OutboxEventType.RESERVATION_CANCELLED, savedReservation);
         
-        // Restore available seats in ride
-        rideService.increaseAvailableSeats(reservation.getRide().getId(), reservation.getSeatsReserved());
+        // Restore available seats and hand them to waitlisted riders in the same transaction
+        Long rideId = reservation.getRide().getId();
+        rideService.returnSeats(rideId, reservation.getSeatsReserved());
+        waitlistService.promoteWaitlisted(rideId);
         
         return createReservationResponseDto(savedReservation);
     }
@@ -179,6 +381,7 @@ public class ReservationService {
         dto.setStatus(reservation.getStatus());
         dto.setNotes(reservation.getNotes());
         dto.setCreatedAt(reservation.getCreatedAt());
+        dto.setHeldUntil(reservation.getHeldUntil());
         
         // Create UserResponseDto manually
         User user = reservation.getUser();
@@ -237,7 +440,8 @@ public class ReservationService {
         
         // Check if enough seats are available
         if (ride.getAvailableSeats() < seatsRequested) {
-            throw new BusinessException("Not enough available seats. Available: " + ride.getAvailableSeats());
+            throw new BusinessException("Not enough available seats. Available: " + ride.getAvailableSeats() +
+                    ". Join the waitlist to be booked automatically when seats free up");
         }
         
         // Check if user is not the driver
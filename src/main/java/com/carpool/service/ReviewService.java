@@ -2,12 +2,15 @@ package com.carpool.service;
 
 import com.carpool.dto.ReviewCreateDto;
 import com.carpool.dto.ReviewResponseDto;
+import com.carpool.entity.ArchivedReview;
 import com.carpool.entity.Reservation;
 import com.carpool.entity.Review;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import com.carpool.event.OutboxEventType;
 import com.carpool.exception.BusinessException;
 import com.carpool.exception.ResourceNotFoundException;
+import com.carpool.repository.ArchivedReviewRepository;
 import com.carpool.repository.ReservationRepository;
 import com.carpool.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,8 +18,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,19 +31,25 @@ import java.util.stream.Collectors;
 public class ReviewService {
     
     private final ReviewRepository reviewRepository;
+    private final ArchivedReviewRepository archivedReviewRepository;
     private final ReservationRepository reservationRepository;
     private final RideService rideService;
     private final UserService userService;
+    private final OutboxService outboxService;
     
     @Autowired
     public ReviewService(ReviewRepository reviewRepository,
+                        ArchivedReviewRepository archivedReviewRepository,
                         ReservationRepository reservationRepository,
                         RideService rideService,
-                        UserService userService) {
+                        UserService userService,
+                        OutboxService outboxService) {
         this.reviewRepository = reviewRepository;
+        this.archivedReviewRepository = archivedReviewRepository;
         this.reservationRepository = reservationRepository;
         this.rideService = rideService;
         this.userService = userService;
+        this.outboxService = outboxService;
     }
     
     /**
@@ -66,8 +79,12 @@ public class ReviewService {
         
         Review savedReview = reviewRepository.save(review);
         
-        // Update driver's rating
-        updateDriverRating(driver);
+        // The driver's rating is recomputed by DriverRatingSubscriber once this commits
+        outboxService.record(OutboxEventType.REVIEW_CREATED, savedReview.getId(), Map.of(
+                "rideId", ride.getId(),
+                "reviewerId", reviewer.getId(),
+                "driverId", driver.getId(),
+                "rating", savedReview.getRating()));
         
         return new ReviewResponseDto(savedReview);
     }
@@ -80,9 +97,23 @@ public class ReviewService {
         User driver = userService.findById(driverId);
         List<Review> reviews = reviewRepository.findByDriverOrderByCreatedAtDesc(driver);
         
-        return reviews.stream()
+        List<ReviewResponseDto> result = reviews.stream()
                 .map(ReviewResponseDto::new)
                 .collect(Collectors.toList());
+        return withArchivedReviews(result, archivedReviewRepository.findByDriverIdOrderByCreatedAtDesc(driverId));
+    }
+    
+    /**
+     * Get ETag for reviews received by a driver (also covers the driver's own profile)
+     */
+    @Transactional(readOnly = true)
+    public String getReviewsByDriverETag(Long driverId) {
+        String driverETag = userService.getUserETag(driverId);
+        if (driverETag == null) {
+            return null;
+        }
+        
+        return reviewRepository.findVersionByDriverId(driverId).toETag() + "-" + driverETag;
     }
     
     /**
@@ -90,12 +121,21 @@ public class ReviewService {
      */
     @Transactional(readOnly = true)
     public List<ReviewResponseDto> getReviewsByReviewer(Long reviewerId) {
-        User reviewer = userService.findById(reviewerId);
+        return getReviewsByReviewer(userService.findById(reviewerId));
+    }
+    
+    /**
+     * Get reviews written by an already loaded user
+     */
+    @Transactional(readOnly = true)
+    public List<ReviewResponseDto> getReviewsByReviewer(User reviewer) {
         List<Review> reviews = reviewRepository.findByReviewerOrderByCreatedAtDesc(reviewer);
         
-        return reviews.stream()
+        List<ReviewResponseDto> result = reviews.stream()
                 .map(ReviewResponseDto::new)
                 .collect(Collectors.toList());
+        return withArchivedReviews(result,
+                archivedReviewRepository.findByReviewerIdOrderByCreatedAtDesc(reviewer.getId()));
     }
     
     /**
@@ -116,13 +156,53 @@ public class ReviewService {
      */
     @Transactional(readOnly = true)
     public List<ReviewResponseDto> getRecentReviewsByDriver(Long driverId) {
-        User driver = userService.findById(driverId);
+        return getRecentReviewsByDriver(userService.findById(driverId));
+    }
+    
+    /**
+     * Get recent reviews of an already loaded driver (limited to 10)
+     */
+    @Transactional(readOnly = true)
+    public List<ReviewResponseDto> getRecentReviewsByDriver(User driver) {
         List<Review> reviews = reviewRepository.findRecentReviewsByDriver(driver);
         
-        return reviews.stream()
+        List<ReviewResponseDto> result = reviews.stream()
                 .limit(10)
                 .map(ReviewResponseDto::new)
                 .collect(Collectors.toList());
+        if (result.size() == 10) {
+            return result;
+        }
+        
+        // Only drivers with few hot reviews need the archive to fill the list
+        return withArchivedReviews(result, archivedReviewRepository.findByDriverIdOrderByCreatedAtDesc(driver.getId()))
+                .stream()
+                .limit(10)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Append archived reviews, keeping newest-first order
+     */
+    private List<ReviewResponseDto> withArchivedReviews(List<ReviewResponseDto> reviews,
+                                                        List<ArchivedReview> archivedReviews) {
+        if (archivedReviews.isEmpty()) {
+            return reviews;
+        }
+        
+        Set<Long> userIds = new HashSet<>();
+        for (ArchivedReview archivedReview : archivedReviews) {
+            userIds.add(archivedReview.getReviewerId());
+            userIds.add(archivedReview.getDriverId());
+        }
+        Map<Long, User> users = userService.findAllById(userIds);
+        
+        for (ArchivedReview archivedReview : archivedReviews) {
+            reviews.add(new ReviewResponseDto(archivedReview,
+                    users.get(archivedReview.getReviewerId()), users.get(archivedReview.getDriverId())));
+        }
+        reviews.sort(Comparator.comparing(ReviewResponseDto::getCreatedAt).reversed());
+        return reviews;
     }
     
     /**
@@ -184,16 +264,21 @@ public class ReviewService {
     }
     
     /**
-     * Update driver's average rating
+     * Recompute a driver's average rating from all of their reviews
      */
-    private void updateDriverRating(User driver) {
-        Double averageRating = reviewRepository.findAverageRatingByDriver(driver);
-        Long totalReviews = reviewRepository.countByDriver(driver);
+    public void recomputeDriverRating(Long driverId) {
+        User driver = userService.findById(driverId);
+        
+        // Hot and archived reviews together make up the driver's full history
+        long totalReviews = reviewRepository.countByDriver(driver)
+                + archivedReviewRepository.countByDriverId(driverId);
+        long ratingSum = reviewRepository.sumRatingsByDriver(driver)
+                + archivedReviewRepository.sumRatingsByDriverId(driverId);
         
-        if (averageRating != null) {
+        if (totalReviews > 0) {
             // Round to 1 decimal place
-            averageRating = Math.round(averageRating * 10.0) / 10.0;
-            userService.updateUserRating(driver.getId(), averageRating, totalReviews.intValue());
+            double averageRating = Math.round(ratingSum * 10.0 / totalReviews) / 10.0;
+            userService.updateUserRating(driverId, averageRating, (int) totalReviews);
         }
     }
 }
@@ -0,0 +1,69 @@
+package com.carpool.service;
+
+import com.carpool.entity.Ride;
+import com.carpool.event.OutboxEventType;
+import com.carpool.event.RidesCompletedEvent;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.repository.RideRepository;
+import com.carpool.repository.WaitlistEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Transactional
+public class RideLifecycleService {
+    
+    private final RideRepository rideRepository;
+    private final ReservationRepository reservationRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    
+    @Autowired
+    public RideLifecycleService(RideRepository rideRepository,
+                                ReservationRepository reservationRepository,
+                                WaitlistEntryRepository waitlistEntryRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                OutboxService outboxService) {
+        this.rideRepository = rideRepository;
+        this.reservationRepository = reservationRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+    }
+    
+    /**
+     * Complete one chunk of departed rides together with their reservations and
+     * expire their waitlists. Each call is a short transaction that only locks
+     * the rows of the chunk. Returns the number of rides processed.
+     * <p>
+     * Each ride gets a status change event in the outbox; the completion of its
+     * reservations and the expiry of its waitlist follow from it and get none.
+     */
+    public int completeDepartedRides(LocalDateTime currentTime, int chunkSize) {
+        List<Long> rideIds = rideRepository.findDepartedActiveRideIds(currentTime, PageRequest.of(0, chunkSize));
+        if (rideIds.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        reservationRepository.completeReservationsForRides(rideIds, now);
+        waitlistEntryRepository.expireWaitingForRides(rideIds, now);
+        rideRepository.completeRides(rideIds, now);
+        for (Long rideId : rideIds) {
+            outboxService.record(OutboxEventType.RIDE_STATUS_CHANGED, rideId, Map.of(
+                    "previousStatus", Ride.RideStatus.ACTIVE.name(),
+                    "status", Ride.RideStatus.COMPLETED.name()));
+        }
+        
+        eventPublisher.publishEvent(new RidesCompletedEvent(rideIds));
+        return rideIds.size();
+    }
+}
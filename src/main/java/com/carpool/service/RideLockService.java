@@ -0,0 +1,127 @@
+package com.carpool.service;
+
+import com.carpool.entity.RideLock;
+import com.carpool.exception.ServiceUnavailableException;
+import com.carpool.repository.RideLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-ride leases in the ride_locks table, the cluster-wide lock behind
+ * {@link com.carpool.aop.RideLocked}. One row per ride: bookings of different rides
+ * never touch the same row. A lease expires after lease-ms, so a node that dies
+ * while holding one blocks its ride only briefly.
+ * <p>
+ * Seat writes call {@link #fence(Long)}: it locks the lease row for the rest of the
+ * transaction and rejects the write if the lease was taken over (the holder stalled
+ * past its expiry), so two nodes can never both write a ride's seats under a lease.
+ */
+@Service
+public class RideLockService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RideLockService.class);
+    
+    private final RideLockRepository rideLockRepository;
+    private final String holder = UUID.randomUUID().toString();
+    // Ride id -> fencing token of the leases held by the current thread
+    private final ThreadLocal<Map<Long, Long>> heldLeases = ThreadLocal.withInitial(HashMap::new);
+    
+    private final Counter fenced;
+    private final Counter lostOnRelease;
+    
+    @Value("${carpool.ride-locks.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${carpool.ride-locks.lease-ms:10000}")
+    private long leaseMs;
+    
+    @Value("${carpool.ride-locks.wait-ms:3000}")
+    private long waitMs;
+    
+    @Autowired
+    public RideLockService(RideLockRepository rideLockRepository, MeterRegistry meterRegistry) {
+        this.rideLockRepository = rideLockRepository;
+        this.fenced = Counter.builder("carpool.ride-locks.lost")
+                .tag("detected", "fence").register(meterRegistry);
+        this.lostOnRelease = Counter.builder("carpool.ride-locks.lost")
+                .tag("detected", "release").register(meterRegistry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public long getWaitMs() {
+        return waitMs;
+    }
+    
+    /**
+     * Take a ride's lease if it is free or expired; returns its fencing token, or null if it is held
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Long tryAcquire(Long rideId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(leaseMs * 1_000_000);
+        
+        if (rideLockRepository.takeOver(rideId, holder, expiresAt, now) == 0
+                && rideLockRepository.create(rideId, holder, expiresAt) == 0) {
+            return null;
+        }
+        return rideLockRepository.findToken(rideId, holder).orElse(null);
+    }
+    
+    /**
+     * Give a lease back
+     */
+    public void release(Long rideId, long token) {
+        if (rideLockRepository.release(rideId, token, LocalDateTime.now()) == 0) {
+            lostOnRelease.increment();
+            logger.warn("Lease on ride {} (token {}) expired and was taken over before release", rideId, token);
+        }
+    }
+    
+    /**
+     * Record that the current thread holds a ride's lease (until {@link #exited(Long)})
+     */
+    public void entered(Long rideId, long token) {
+        heldLeases.get().put(rideId, token);
+    }
+    
+    public void exited(Long rideId) {
+        heldLeases.get().remove(rideId);
+    }
+    
+    public boolean isHeld(Long rideId) {
+        return heldLeases.get().containsKey(rideId);
+    }
+    
+    /**
+     * Before writing a ride's seats: if this thread works under the ride's lease, lock
+     * the lease row until commit and make sure the lease is still ours
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fence(Long rideId) {
+        Long token = heldLeases.get().get(rideId);
+        if (token == null) {
+            return;
+        }
+        
+        RideLock lease = rideLockRepository.findForUpdate(rideId).orElse(null);
+        if (lease == null || lease.getFencingToken() != token) {
+            fenced.increment();
+            throw new ServiceUnavailableException("The ride is busy, please try again", 1);
+        }
+    }
+}
@@ -1,19 +1,34 @@
 package com.carpool.service;
 
+import com.carpool.aop.RetryOnConflict;
+import com.carpool.dto.ResourceVersion;
 import com.carpool.dto.RideCreateDto;
 import com.carpool.dto.RideResponseDto;
+import com.carpool.dto.RideSeriesCreateDto;
+import com.carpool.dto.RideSeriesResponseDto;
+import com.carpool.entity.ArchivedRide;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import com.carpool.event.OutboxEventType;
+import com.carpool.event.RideChangedEvent;
+import com.carpool.event.RidesPublishedEvent;
+import com.carpool.exception.BusinessException;
 import com.carpool.exception.ResourceNotFoundException;
 import com.carpool.exception.UnauthorizedAccessException;
+import com.carpool.repository.ArchivedRideRepository;
 import com.carpool.repository.RideRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.annotation.Propagation;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,12 +36,28 @@ import java.util.stream.Collectors;
 public class RideService {
     
     private final RideRepository rideRepository;
+    private final ArchivedRideRepository archivedRideRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DepartureReminderService departureReminderService;
+    private final OutboxService outboxService;
+    private final RideLockService rideLockService;
+    
+    @Value("${carpool.ride-series.max-rides:2000}")
+    private int maxSeriesRides;
     
     @Autowired
-    public RideService(RideRepository rideRepository, UserService userService) {
+    public RideService(RideRepository rideRepository, ArchivedRideRepository archivedRideRepository,
+                       UserService userService, ApplicationEventPublisher eventPublisher,
+                       DepartureReminderService departureReminderService, OutboxService outboxService,
+                       RideLockService rideLockService) {
         this.rideRepository = rideRepository;
+        this.archivedRideRepository = archivedRideRepository;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.departureReminderService = departureReminderService;
+        this.outboxService = outboxService;
+        this.rideLockService = rideLockService;
     }
     
     /**
@@ -52,21 +83,84 @@ public class RideService {
         ride.setStatus(Ride.RideStatus.ACTIVE);
         
         Ride savedRide = rideRepository.save(ride);
+        eventPublisher.publishEvent(new RideChangedEvent(savedRide));
+        departureReminderService.rideCreated(savedRide);
+        recordRideCreated(savedRide);
         return new RideResponseDto(savedRide);
     }
     
+    /**
+     * Publish a recurring ride (e.g. a weekday commute) as one ride per matching day.
+     * Occurrences already in the past are skipped; pooled ids let Hibernate batch the inserts.
+     */
+    public RideSeriesResponseDto createRideSeries(RideSeriesCreateDto seriesDto, Long driverId) {
+        User driver = userService.findById(driverId);
+        
+        // Check if user is a driver
+        if (driver.getRole() != User.Role.DRIVER) {
+            throw new UnauthorizedAccessException("Only drivers can create rides");
+        }
+        
+        if (seriesDto.getEndDate().isBefore(seriesDto.getStartDate())) {
+            throw new BusinessException("End date must not be before start date");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Ride> rides = new ArrayList<>();
+        
+        for (LocalDate date = seriesDto.getStartDate(); !date.isAfter(seriesDto.getEndDate()); date = date.plusDays(1)) {
+            if (seriesDto.getDaysOfWeek() != null && !seriesDto.getDaysOfWeek().isEmpty()
+                    && !seriesDto.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            
+            LocalDateTime dateTime = date.atTime(seriesDto.getDepartureTime());
+            if (!dateTime.isAfter(now)) {
+                continue;
+            }
+            
+            if (rides.size() == maxSeriesRides) {
+                throw new BusinessException("A ride series cannot contain more than " + maxSeriesRides + " rides");
+            }
+            
+            Ride ride = new Ride();
+            ride.setDriver(driver);
+            ride.setOrigin(seriesDto.getOrigin());
+            ride.setDestination(seriesDto.getDestination());
+            ride.setDateTime(dateTime);
+            ride.setPrice(seriesDto.getPrice());
+            ride.setAvailableSeats(seriesDto.getAvailableSeats());
+            ride.setTotalSeats(seriesDto.getAvailableSeats());
+            ride.setDescription(seriesDto.getDescription());
+            ride.setStatus(Ride.RideStatus.ACTIVE);
+            rides.add(ride);
+        }
+        
+        if (rides.isEmpty()) {
+            throw new BusinessException("The ride series does not contain any future departures");
+        }
+        
+        rideRepository.saveAll(rides);
+        eventPublisher.publishEvent(new RidesPublishedEvent(driverId, rides.size(), seriesDto.getOrigin(),
+                seriesDto.getDestination(), rides.get(0).getDateTime(), rides.get(rides.size() - 1).getDateTime()));
+        rides.forEach(departureReminderService::rideCreated);
+        rides.forEach(this::recordRideCreated);
+        
+        return new RideSeriesResponseDto(rides.size(), rides.get(0).getDateTime(),
+                rides.get(rides.size() - 1).getDateTime());
+    }
+    
     /**
      * Search rides by origin and destination
      */
     @Transactional(readOnly = true)
     public List<RideResponseDto> searchRides(String origin, String destination, LocalDateTime date) {
         List<Ride> rides;
-        LocalDateTime currentTime = LocalDateTime.now();
         
         if (date != null) {
-            rides = rideRepository.findByOriginDestinationAndDate(origin, destination, date, currentTime);
+            rides = rideRepository.findByOriginDestinationAndDate(origin, destination, date);
         } else {
-            rides = rideRepository.findByOriginAndDestination(origin, destination, currentTime);
+            rides = rideRepository.findByOriginAndDestination(origin, destination);
         }
         
         return rides.stream()
@@ -79,8 +173,7 @@ public class RideService {
      */
     @Transactional(readOnly = true)
     public List<RideResponseDto> getAllActiveRides() {
-        LocalDateTime currentTime = LocalDateTime.now();
-        List<Ride> rides = rideRepository.findActiveRidesWithAvailableSeats(currentTime);
+        List<Ride> rides = rideRepository.findActiveRidesWithAvailableSeats();
         
         return rides.stream()
                 .map(RideResponseDto::new)
@@ -98,17 +191,58 @@ public class RideService {
         return new RideResponseDto(ride);
     }
     
+    /**
+     * Get ETag for a ride without loading the entity graph
+     */
+    @Transactional(readOnly = true)
+    public String getRideETag(Long rideId) {
+        ResourceVersion version = rideRepository.findVersionById(rideId);
+        return version.exists() ? version.toETag() : null;
+    }
+    
+    /**
+     * Get ETag for the active rides listing
+     */
+    @Transactional(readOnly = true)
+    public String getAllActiveRidesETag() {
+        return rideRepository.findActiveRidesVersion().toETag();
+    }
+    
+    /**
+     * Get ETag for ride search results
+     */
+    @Transactional(readOnly = true)
+    public String getSearchRidesETag(String origin, String destination, LocalDateTime date) {
+        ResourceVersion version;
+        
+        if (date != null) {
+            version = rideRepository.findSearchVersionByDate(origin, destination, date);
+        } else {
+            version = rideRepository.findSearchVersion(origin, destination);
+        }
+        
+        return version.toETag();
+    }
+    
     /**
      * Get rides by driver
      */
     @Transactional(readOnly = true)
     public List<RideResponseDto> getRidesByDriver(Long driverId) {
-        User driver = userService.findById(driverId);
+        return getRidesByDriver(userService.findById(driverId));
+    }
+    
+    /**
+     * Get rides of an already loaded driver
+     */
+    @Transactional(readOnly = true)
+    public List<RideResponseDto> getRidesByDriver(User driver) {
         List<Ride> rides = rideRepository.findByDriverOrderByDateTimeDesc(driver);
         
-        return rides.stream()
+        List<RideResponseDto> result = rides.stream()
                 .map(RideResponseDto::new)
                 .collect(Collectors.toList());
+        return withArchivedRides(result, driver);
     }
     
     /**
@@ -134,14 +268,32 @@ public class RideService {
         LocalDateTime currentTime = LocalDateTime.now();
         List<Ride> rides = rideRepository.findPastRidesByDriver(driver, currentTime);
         
-        return rides.stream()
+        List<RideResponseDto> result = rides.stream()
                 .map(RideResponseDto::new)
                 .collect(Collectors.toList());
+        return withArchivedRides(result, driver);
+    }
+    
+    /**
+     * Append the driver's archived rides, keeping newest-first order
+     */
+    private List<RideResponseDto> withArchivedRides(List<RideResponseDto> rides, User driver) {
+        List<ArchivedRide> archivedRides = archivedRideRepository.findByDriverIdOrderByDateTimeDesc(driver.getId());
+        if (archivedRides.isEmpty()) {
+            return rides;
+        }
+        
+        for (ArchivedRide archivedRide : archivedRides) {
+            rides.add(new RideResponseDto(archivedRide, driver));
+        }
+        rides.sort(Comparator.comparing(RideResponseDto::getDateTime).reversed());
+        return rides;
     }
     
     /**
      * Update ride status
      */
+    @RetryOnConflict
     public RideResponseDto updateRideStatus(Long rideId, Ride.RideStatus status, Long driverId) {
         Ride ride = rideRepository.findById(rideId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ride not found with id: " + rideId));
@@ -151,37 +303,59 @@ public class RideService {
             throw new UnauthorizedAccessException("Only the driver can update ride status");
         }
         
+        Ride.RideStatus previousStatus = ride.getStatus();
         ride.setStatus(status);
         Ride savedRide = rideRepository.save(ride);
+        eventPublisher.publishEvent(new RideChangedEvent(savedRide));
+        outboxService.record(OutboxEventType.RIDE_STATUS_CHANGED, rideId, Map.of(
+                "driverId", driverId,
+                "previousStatus", previousStatus.name(),
+                "status", status.name()));
         return new RideResponseDto(savedRide);
     }
     
+    private void recordRideCreated(Ride ride) {
+        outboxService.record(OutboxEventType.RIDE_CREATED, ride.getId(), Map.of(
+                "driverId", ride.getDriver().getId(),
+                "origin", ride.getOrigin(),
+                "destination", ride.getDestination(),
+                "dateTime", ride.getDateTime(),
+                "availableSeats", ride.getAvailableSeats()));
+    }
+    
     /**
-     * Reduce available seats when booking
+     * Take seats within the caller's transaction; returns false if not enough seats are left
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void reduceAvailableSeats(Long rideId, Integer seatsToReduce) {
-        Ride ride = rideRepository.findById(rideId)
-                .orElseThrow(() -> new ResourceNotFoundException("Ride not found with id: " + rideId));
-        
-        if (ride.getAvailableSeats() < seatsToReduce) {
-            throw new IllegalArgumentException("Not enough available seats");
+    public boolean takeSeats(Long rideId, Integer seats) {
+        rideLockService.fence(rideId);
+        boolean taken = rideRepository.takeSeats(rideId, seats, LocalDateTime.now()) > 0;
+        if (taken) {
+            eventPublisher.publishEvent(new RideChangedEvent(findById(rideId)));
         }
-        
-        ride.setAvailableSeats(ride.getAvailableSeats() - seatsToReduce);
-        rideRepository.save(ride);
+        return taken;
     }
     
     /**
-     * Increase available seats when cancelling reservation
+     * Return seats within the caller's transaction
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void increaseAvailableSeats(Long rideId, Integer seatsToAdd) {
-        Ride ride = rideRepository.findById(rideId)
-                .orElseThrow(() -> new ResourceNotFoundException("Ride not found with id: " + rideId));
-        
-        ride.setAvailableSeats(ride.getAvailableSeats() + seatsToAdd);
-        rideRepository.save(ride);
+    public void returnSeats(Long rideId, Integer seats) {
+        rideLockService.fence(rideId);
+        if (rideRepository.returnSeats(rideId, seats, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Ride not found with id: " + rideId);
+        }
+        eventPublisher.publishEvent(new RideChangedEvent(findById(rideId)));
+    }
+    
+    /**
+     * Read the current number of available seats, bypassing the persistence context
+     */
+    @Transactional(readOnly = true)
+    public int getAvailableSeats(Long rideId) {
+        Integer seats = rideRepository.findAvailableSeatsById(rideId);
+        if (seats == null) {
+            throw new ResourceNotFoundException("Ride not found with id: " + rideId);
+        }
+        return seats;
     }
     
     /**
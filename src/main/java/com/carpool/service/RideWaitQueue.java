@@ -0,0 +1,109 @@
+package com.carpool.service;
+
+import java.util.Arrays;
+
+/**
+ * Compact FIFO of waitlist entries for a single ride, backed by parallel
+ * primitive arrays used as a ring buffer (no per-entry objects).
+ */
+class RideWaitQueue {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] entryIds = new long[INITIAL_CAPACITY];
+    private int[] seats = new int[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    private final long loadedAt = System.nanoTime();
+
+    synchronized void add(long entryId, int seatsRequested) {
+        if (positionOf(entryId) > 0) {
+            return;
+        }
+        if (size == entryIds.length) {
+            grow();
+        }
+        int tail = (head + size) % entryIds.length;
+        entryIds[tail] = entryId;
+        seats[tail] = seatsRequested;
+        size++;
+    }
+
+    synchronized boolean remove(long entryId) {
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % entryIds.length;
+            if (entryIds[index] == entryId) {
+                if (i == 0) {
+                    head = (head + 1) % entryIds.length;
+                    size--;
+                    return true;
+                }
+                // Shift the remainder of the queue one slot towards the head
+                for (int j = i; j < size - 1; j++) {
+                    int to = (head + j) % entryIds.length;
+                    int from = (head + j + 1) % entryIds.length;
+                    entryIds[to] = entryIds[from];
+                    seats[to] = seats[from];
+                }
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 1-based position of an entry, or 0 if it is not queued
+     */
+    synchronized int positionOf(long entryId) {
+        for (int i = 0; i < size; i++) {
+            if (entryIds[(head + i) % entryIds.length] == entryId) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Entries to promote into the given number of free seats: FIFO order,
+     * skipping requests that do not fit in what is left
+     */
+    synchronized long[] candidates(int freeSeats) {
+        long[] picked = new long[size];
+        int count = 0;
+        int remaining = freeSeats;
+        for (int i = 0; i < size && remaining > 0; i++) {
+            int index = (head + i) % entryIds.length;
+            if (seats[index] <= remaining) {
+                picked[count++] = entryIds[index];
+                remaining -= seats[index];
+            }
+        }
+        return Arrays.copyOf(picked, count);
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Whether the queue was loaded more than the given time ago
+     */
+    boolean isOlderThan(long millis) {
+        return System.nanoTime() - loadedAt > millis * 1_000_000L;
+    }
+
+    private void grow() {
+        int capacity = entryIds.length * 2;
+        long[] newEntryIds = new long[capacity];
+        int[] newSeats = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % entryIds.length;
+            newEntryIds[i] = entryIds[index];
+            newSeats[i] = seats[index];
+        }
+        entryIds = newEntryIds;
+        seats = newSeats;
+        head = 0;
+    }
+}
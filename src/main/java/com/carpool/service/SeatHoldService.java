@@ -0,0 +1,124 @@
+package com.carpool.service;
+
+import com.carpool.repository.ReservationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Tracks when seat holds expire. Each HELD reservation is an entry in a hierarchical
+ * timing wheel, so neither a scheduled task per hold nor polling the reservations
+ * table is needed; the wheel is rebuilt from the held reservations on startup.
+ * Releasing an expired hold is left to {@link ReservationService#expireHold(Long)}.
+ * <p>
+ * Only the node that placed a hold has it in its wheel. Should that node go away for
+ * good, {@link #findOverdueHolds()} finds the hold by held_until for a low-frequency
+ * sweep on any node.
+ */
+@Service
+public class SeatHoldService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+    
+    private final ReservationRepository reservationRepository;
+    private final HierarchicalTimingWheel wheel;
+    
+    @Value("${carpool.seat-holds.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    @Value("${carpool.seat-holds.recovery-page-size:5000}")
+    private int recoveryPageSize;
+    
+    @Value("${carpool.seat-holds.sweep-grace-seconds:30}")
+    private long sweepGraceSeconds;
+    
+    @Value("${carpool.seat-holds.sweep-batch-size:500}")
+    private int sweepBatchSize;
+    
+    @Autowired
+    public SeatHoldService(ReservationRepository reservationRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${carpool.seat-holds.tick-ms:1000}") long tickMs) {
+        this.reservationRepository = reservationRepository;
+        // Four levels of 64 slots span 64^4 ticks (about 194 days at one second)
+        this.wheel = new HierarchicalTimingWheel(tickMs, 4, System.currentTimeMillis());
+        Gauge.builder("carpool.seat-holds.tracked", wheel, HierarchicalTimingWheel::size).register(meterRegistry);
+    }
+    
+    /**
+     * Expiry time for a hold placed now
+     */
+    public LocalDateTime newHoldDeadline() {
+        return LocalDateTime.now().plusSeconds(ttlSeconds);
+    }
+    
+    /**
+     * Track a hold; one already past its deadline is due on the next tick
+     */
+    public void track(Long reservationId, LocalDateTime heldUntil) {
+        long deadlineMs = heldUntil.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.schedule(reservationId, deadlineMs)) {
+            wheel.schedule(reservationId, System.currentTimeMillis() + 1);
+        }
+    }
+    
+    /**
+     * Stop tracking a hold (confirmed, released or expired)
+     */
+    public void untrack(Long reservationId) {
+        wheel.cancel(reservationId);
+    }
+    
+    /**
+     * Advance the wheel to now and return the holds that fell due
+     */
+    public List<Long> pollExpired() {
+        return wheel.advance(System.currentTimeMillis());
+    }
+    
+    /**
+     * Holds still HELD more than the grace period after their deadline, oldest first.
+     * The placing node releases a hold on time, so these are holds no wheel is tracking.
+     */
+    public List<Long> findOverdueHolds() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(sweepGraceSeconds);
+        return reservationRepository.findHeldIdsExpiredBefore(cutoff, PageRequest.of(0, sweepBatchSize));
+    }
+    
+    /**
+     * Rebuild the wheel from the held reservations in the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverHolds() {
+        int recovered = 0;
+        long afterId = 0;
+        
+        while (true) {
+            List<ReservationRepository.HeldReservation> page =
+                    reservationRepository.findHeldAfter(afterId, PageRequest.of(0, recoveryPageSize));
+            for (ReservationRepository.HeldReservation hold : page) {
+                track(hold.getId(), hold.getHeldUntil());
+                afterId = hold.getId();
+            }
+            recovered += page.size();
+            if (page.size() < recoveryPageSize) {
+                break;
+            }
+        }
+        
+        if (recovered > 0) {
+            logger.info("Recovered {} seat holds", recovered);
+        }
+    }
+}
@@ -1,40 +1,54 @@
 package com.carpool.service;
 
+import com.carpool.dto.ResourceVersion;
 import com.carpool.dto.UserRegistrationDto;
 import com.carpool.dto.UserResponseDto;
 import com.carpool.entity.User;
+import com.carpool.event.UserChangedEvent;
 import com.carpool.exception.ResourceNotFoundException;
 import com.carpool.exception.UserAlreadyExistsException;
 import com.carpool.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class UserService {
     
+    // MySQL ER_DUP_ENTRY (its SQLState, 23000, covers every integrity violation)
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    // Standard SQLState for a unique violation (H2, PostgreSQL)
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
     
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher, RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.refreshTokenService = refreshTokenService;
     }
     
     /**
      * Register a new user
      */
     public UserResponseDto registerUser(UserRegistrationDto registrationDto) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new UserAlreadyExistsException("User with email " + registrationDto.getEmail() + " already exists");
-        }
-        
         // Create new user
         User user = new User();
         user.setName(registrationDto.getName());
@@ -42,10 +56,35 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(registrationDto.getPassword()));
         user.setRole(registrationDto.getRole());
         
-        User savedUser = userRepository.save(user);
+        // Duplicates are caught by the unique email index: one INSERT, and no window
+        // between a separate existence check and the insert
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            throw new UserAlreadyExistsException("User with email " + registrationDto.getEmail() + " already exists");
+        }
         return new UserResponseDto(savedUser);
     }
     
+    /**
+     * Whether an INSERT into users hit a unique key. Its only unique keys are the
+     * primary key, which pooled ids never repeat, and email; NOT NULL, length and
+     * other violations are not duplicates.
+     */
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY
+                        || UNIQUE_VIOLATION_STATE.equals(sqlException.getSQLState());
+            }
+        }
+        return false;
+    }
+    
     /**
      * Find user by email
      */
@@ -63,6 +102,15 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
     
+    /**
+     * Find users by ID in one query, keyed by ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, User> findAllById(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+    
     /**
      * Get user profile
      */
@@ -72,6 +120,15 @@ public class UserService {
         return new UserResponseDto(user);
     }
     
+    /**
+     * Get ETag for a user profile without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public String getUserETag(Long userId) {
+        ResourceVersion version = userRepository.findVersionById(userId);
+        return version.exists() ? version.toETag() : null;
+    }
+    
     /**
      * Update user profile
      */
@@ -90,9 +147,12 @@ public class UserService {
         // Update password only if provided
         if (updateDto.getPassword() != null && !updateDto.getPassword().trim().isEmpty()) {
             user.setPassword(passwordEncoder.encode(updateDto.getPassword()));
+            // Sessions started with the old password must log in again
+            refreshTokenService.revokeAllForUser(userId);
         }
         
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         return new UserResponseDto(savedUser);
     }
     
@@ -104,6 +164,7 @@ public class UserService {
         user.setRating(rating);
         user.setTotalReviews(totalReviews);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
     }
     
     /**
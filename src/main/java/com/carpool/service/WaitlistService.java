@@ -0,0 +1,333 @@
+package com.carpool.service;
+
+import com.carpool.aop.RideLocked;
+import com.carpool.cache.CacheInvalidationHandler;
+import com.carpool.cache.CacheInvalidationLog;
+import com.carpool.cache.InvalidationRegion;
+import com.carpool.dto.WaitlistCreateDto;
+import com.carpool.dto.WaitlistEntryResponseDto;
+import com.carpool.entity.Reservation;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.entity.WaitlistEntry;
+import com.carpool.event.OutboxEventType;
+import com.carpool.exception.BusinessException;
+import com.carpool.exception.ResourceNotFoundException;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.repository.WaitlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class WaitlistService implements CacheInvalidationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ReservationRepository reservationRepository;
+    private final RideService rideService;
+    private final UserService userService;
+    private final OutboxService outboxService;
+    private final CacheInvalidationLog cacheInvalidationLog;
+
+    // In-memory view of WAITING entries per ride, loaded lazily from the database
+    private final Map<Long, RideWaitQueue> queues = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a queue loaded across one is not kept
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Reload bound for a queue whose invalidation from another node was missed; 0 keeps queues
+    @Value("${carpool.waitlist.queue-ttl-ms:30000}")
+    private long queueTtlMs;
+
+    @Autowired
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           ReservationRepository reservationRepository,
+                           RideService rideService,
+                           UserService userService,
+                           OutboxService outboxService,
+                           CacheInvalidationLog cacheInvalidationLog) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.reservationRepository = reservationRepository;
+        this.rideService = rideService;
+        this.userService = userService;
+        this.outboxService = outboxService;
+        this.cacheInvalidationLog = cacheInvalidationLog;
+    }
+
+    /**
+     * Join the waitlist of a full ride. Holds the ride's lock so a cancellation on
+     * another node cannot promote past a rider who is joining.
+     */
+    @RideLocked(rideId = "#p0.rideId")
+    public WaitlistEntryResponseDto joinWaitlist(WaitlistCreateDto waitlistDto, Long userId) {
+        User user = userService.findById(userId);
+        Ride ride = rideService.findById(waitlistDto.getRideId());
+
+        validateWaitlistEntry(ride, user, waitlistDto.getSeatsRequested());
+
+        // A previous cancelled/promoted entry is replaced so the rider re-joins at the tail
+        Optional<WaitlistEntry> existingEntry = waitlistEntryRepository.findByRideIdAndUserId(ride.getId(), userId);
+        if (existingEntry.isPresent()) {
+            if (existingEntry.get().getStatus() == WaitlistEntry.WaitlistStatus.WAITING) {
+                throw new BusinessException("You are already on the waitlist for this ride");
+            }
+            waitlistEntryRepository.delete(existingEntry.get());
+            waitlistEntryRepository.flush();
+        }
+
+        RideWaitQueue queue = queueFor(ride.getId());
+        WaitlistEntry entry = new WaitlistEntry(ride, user, waitlistDto.getSeatsRequested());
+        WaitlistEntry savedEntry = waitlistEntryRepository.save(entry);
+
+        queue.add(savedEntry.getId(), savedEntry.getSeatsRequested());
+        evictOnRollback(ride.getId());
+        queueChangedOnThisNode(ride.getId());
+
+        return new WaitlistEntryResponseDto(savedEntry, queue.positionOf(savedEntry.getId()));
+    }
+
+    /**
+     * Get waitlist entries by user
+     */
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryResponseDto> getEntriesByUser(Long userId) {
+        return waitlistEntryRepository.findByUserId(userId).stream()
+                .map(entry -> new WaitlistEntryResponseDto(entry, positionOf(entry)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Leave a waitlist
+     */
+    public WaitlistEntryResponseDto cancelEntry(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with id: " + entryId));
+
+        if (!entry.getUser().getId().equals(userId)) {
+            throw new BusinessException("You can only cancel your own waitlist entries");
+        }
+
+        if (entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+            throw new BusinessException("Waitlist entry is no longer waiting");
+        }
+
+        entry.setStatus(WaitlistEntry.WaitlistStatus.CANCELLED);
+        WaitlistEntry savedEntry = waitlistEntryRepository.save(entry);
+
+        Long rideId = entry.getRide().getId();
+        queueFor(rideId).remove(entryId);
+        evictOnRollback(rideId);
+        queueChangedOnThisNode(rideId);
+
+        return new WaitlistEntryResponseDto(savedEntry, 0);
+    }
+
+    /**
+     * Promote waitlisted riders into freed seats, within the caller's transaction.
+     * Returns the ids of the promoted entries.
+     */
+    public List<Long> promoteWaitlisted(Long rideId) {
+        RideWaitQueue queue = queueFor(rideId);
+        if (queue.isEmpty()) {
+            return List.of();
+        }
+
+        evictOnRollback(rideId);
+
+        Ride ride = rideService.findById(rideId);
+        List<Long> promoted = new ArrayList<>();
+
+        for (long entryId : queue.candidates(rideService.getAvailableSeats(rideId))) {
+            // Claim the entry first; a concurrent promoter or cancellation makes this a no-op
+            if (waitlistEntryRepository.transition(entryId, WaitlistEntry.WaitlistStatus.WAITING,
+                    WaitlistEntry.WaitlistStatus.PROMOTED, LocalDateTime.now()) == 0) {
+                // Only forget the entry once its row has left the queue for good; a row that
+                // is not visible yet belongs to a join that has not committed
+                Optional<WaitlistEntry.WaitlistStatus> status = waitlistEntryRepository.findStatusById(entryId);
+                if (status.isPresent() && status.get() != WaitlistEntry.WaitlistStatus.WAITING) {
+                    queue.remove(entryId);
+                }
+                continue;
+            }
+
+            WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with id: " + entryId));
+
+            Optional<Reservation> existing = reservationRepository.findByRideAndUser(ride, entry.getUser());
+            if (existing.isPresent() && existing.get().getStatus() != Reservation.ReservationStatus.CANCELLED) {
+                // Booked or holding seats since joining: the entry is spent, and the row is left alone
+                waitlistEntryRepository.transition(entryId, WaitlistEntry.WaitlistStatus.PROMOTED,
+                        WaitlistEntry.WaitlistStatus.CANCELLED, LocalDateTime.now());
+                queue.remove(entryId);
+                continue;
+            }
+
+            if (!rideService.takeSeats(rideId, entry.getSeatsRequested())) {
+                // Seats were taken by a concurrent booking; leave the entry at the head of the queue
+                waitlistEntryRepository.transition(entryId, WaitlistEntry.WaitlistStatus.PROMOTED,
+                        WaitlistEntry.WaitlistStatus.WAITING, LocalDateTime.now());
+                break;
+            }
+
+            // A cancelled reservation is replaced, like a re-joined waitlist entry, so nothing
+            // of the old booking (notes, hold deadline, creation time) carries over
+            if (existing.isPresent()) {
+                reservationRepository.delete(existing.get());
+                reservationRepository.flush();
+            }
+            Reservation reservation = new Reservation();
+            reservation.setRide(ride);
+            reservation.setUser(entry.getUser());
+            reservation.setSeatsReserved(entry.getSeatsRequested());
+            reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+            Reservation savedReservation = reservationRepository.save(reservation);
+            outboxService.record(OutboxEventType.RESERVATION_CREATED, savedReservation.getId(), Map.of(
+                    "rideId", rideId,
+                    "userId", entry.getUser().getId(),
+                    "seats", entry.getSeatsRequested(),
+                    "waitlistEntryId", entryId));
+
+            queue.remove(entryId);
+            promoted.add(entryId);
+            logger.debug("Promoted waitlist entry {} on ride {}", entryId, rideId);
+        }
+
+        if (!promoted.isEmpty()) {
+            queueChangedOnThisNode(rideId);
+        }
+        return promoted;
+    }
+
+    /**
+     * Drop the in-memory queue of a ride (e.g. once the ride is no longer bookable)
+     */
+    public void evict(Long rideId) {
+        evictions.incrementAndGet();
+        queues.remove(rideId);
+    }
+
+    @Override
+    public Set<InvalidationRegion> regions() {
+        return EnumSet.of(InvalidationRegion.RIDE, InvalidationRegion.WAITLIST);
+    }
+
+    /**
+     * Drop a ride's queue when another node changed its waitlist, or the ride completed
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void evict(InvalidationRegion region, String key) {
+        evict(Long.valueOf(key));
+    }
+
+    private RideWaitQueue queueFor(Long rideId) {
+        RideWaitQueue queue = queues.get(rideId);
+        if (queue != null) {
+            if (queueTtlMs <= 0 || !queue.isOlderThan(queueTtlMs)) {
+                return queue;
+            }
+            queues.remove(rideId, queue);
+        }
+
+        // Loaded outside the map so no bin lock is held during the query
+        long evictionsBefore = evictions.get();
+        RideWaitQueue loaded = new RideWaitQueue();
+        for (WaitlistEntry entry : waitlistEntryRepository.findWaitingByRideId(rideId)) {
+            loaded.add(entry.getId(), entry.getSeatsRequested());
+        }
+        RideWaitQueue existing = queues.putIfAbsent(rideId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (evictions.get() != evictionsBefore) {
+            // Evicted while loading, so the load may be stale: use it for this call only
+            queues.remove(rideId, loaded);
+        }
+        return loaded;
+    }
+
+    private int positionOf(WaitlistEntry entry) {
+        if (entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+            return 0;
+        }
+        return queueFor(entry.getRide().getId()).positionOf(entry.getId());
+    }
+
+    /**
+     * Other nodes reload the queue from the database once this transaction commits
+     */
+    private void queueChangedOnThisNode(Long rideId) {
+        cacheInvalidationLog.invalidateOnOtherNodes(InvalidationRegion.WAITLIST, rideId.toString());
+    }
+
+    /**
+     * The in-memory queue is updated eagerly; reload it from the database if the transaction rolls back
+     */
+    private void evictOnRollback(Long rideId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evict(rideId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Validate waitlist business rules
+     */
+    private void validateWaitlistEntry(Ride ride, User user, Integer seatsRequested) {
+        if (ride.getStatus() != Ride.RideStatus.ACTIVE) {
+            throw new BusinessException("Cannot join the waitlist of an inactive ride");
+        }
+
+        if (ride.getDateTime().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("Cannot join the waitlist of a past ride");
+        }
+
+        if (ride.getDriver().getId().equals(user.getId())) {
+            throw new BusinessException("Drivers cannot join the waitlist of their own rides");
+        }
+
+        if (seatsRequested > ride.getTotalSeats()) {
+            throw new BusinessException("Requested seats exceed the ride capacity of " + ride.getTotalSeats());
+        }
+
+        if (ride.getAvailableSeats() >= seatsRequested) {
+            throw new BusinessException("Seats are available, reserve the ride directly");
+        }
+
+        Optional<Reservation> reservation = reservationRepository.findByRideAndUser(ride, user);
+        if (reservation.isPresent()) {
+            Reservation.ReservationStatus status = reservation.get().getStatus();
+            if (status == Reservation.ReservationStatus.CONFIRMED) {
+                throw new BusinessException("You have already reserved seats for this ride");
+            }
+            if (status == Reservation.ReservationStatus.HELD) {
+                throw new BusinessException("You are holding seats on this ride; confirm or cancel the hold first");
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+-- Version 1 for H2 (tests and local runs): the same schema as db/baseline/mysql, except
+-- that index names shared by several tables get the table name appended, because index
+-- names are unique per schema in H2 and per table in MySQL.
+
+-- Create users table
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('USER', 'DRIVER') NOT NULL DEFAULT 'USER',
+    rating DECIMAL(3,2) DEFAULT 0.0,
+    total_reviews INT DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    INDEX idx_email (email),
+    INDEX idx_role (role),
+    INDEX idx_rating_users (rating)
+);
+
+-- Create rides table
+CREATE TABLE IF NOT EXISTS rides (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    driver_id BIGINT NOT NULL,
+    origin VARCHAR(255) NOT NULL,
+    destination VARCHAR(255) NOT NULL,
+    date_time DATETIME NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    available_seats INT NOT NULL,
+    total_seats INT NOT NULL,
+    description TEXT,
+    status ENUM('ACTIVE', 'COMPLETED', 'CANCELLED') NOT NULL DEFAULT 'ACTIVE',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (driver_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_driver_rides (driver_id),
+    INDEX idx_origin (origin),
+    INDEX idx_destination (destination),
+    INDEX idx_date_time (date_time),
+    INDEX idx_status_rides (status),
+    INDEX idx_available_seats (available_seats),
+    INDEX idx_origin_destination (origin, destination),
+    INDEX idx_search (origin, destination, date_time, status, available_seats)
+);
+
+-- Create reservations table
+CREATE TABLE IF NOT EXISTS reservations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ride_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    seats_reserved INT NOT NULL DEFAULT 1,
+    status ENUM('CONFIRMED', 'CANCELLED', 'COMPLETED') NOT NULL DEFAULT 'CONFIRMED',
+    notes TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    UNIQUE KEY unique_user_ride (ride_id, user_id),
+    INDEX idx_ride_reservations (ride_id),
+    INDEX idx_user (user_id),
+    INDEX idx_status_reservations (status)
+);
+
+-- Create reviews table
+CREATE TABLE IF NOT EXISTS reviews (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ride_id BIGINT NOT NULL,
+    reviewer_id BIGINT NOT NULL,
+    driver_id BIGINT NOT NULL,
+    rating INT NOT NULL CHECK (rating >= 1 AND rating <= 5),
+    comment TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE CASCADE,
+    FOREIGN KEY (reviewer_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (driver_id) REFERENCES users(id) ON DELETE CASCADE,
+    UNIQUE KEY unique_reviewer_ride (ride_id, reviewer_id),
+    INDEX idx_ride_reviews (ride_id),
+    INDEX idx_reviewer (reviewer_id),
+    INDEX idx_driver_reviews (driver_id),
+    INDEX idx_rating_reviews (rating)
+);
+
+-- Create a view for ride search with driver information
+CREATE OR REPLACE VIEW ride_search_view AS
+SELECT 
+    r.id,
+    r.origin,
+    r.destination,
+    r.date_time,
+    r.price,
+    r.available_seats,
+    r.total_seats,
+    r.description,
+    r.status,
+    r.created_at,
+    u.id as driver_id,
+    u.name as driver_name,
+    u.rating as driver_rating,
+    u.total_reviews as driver_total_reviews
+FROM rides r
+JOIN users u ON r.driver_id = u.id
+WHERE r.status = 'ACTIVE' 
+AND r.available_seats > 0 
+AND r.date_time > NOW();
+
+-- Create indexes for better performance
+CREATE INDEX idx_rides_search_optimized ON rides (status, available_seats, date_time, origin, destination);
+CREATE INDEX idx_users_role_rating ON users (role, rating DESC);
+CREATE INDEX idx_reservations_user_status ON reservations (user_id, status);
+CREATE INDEX idx_reviews_driver_rating ON reviews (driver_id, rating DESC);
+
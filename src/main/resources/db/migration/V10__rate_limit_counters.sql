@@ -0,0 +1,9 @@
+-- Requests per client and rate-limited route in fixed windows, summed over all nodes
+-- when carpool.rate-limit.shared.enabled is set
+CREATE TABLE rate_limit_counters (
+    counter_key VARCHAR(191) NOT NULL PRIMARY KEY,
+    hits BIGINT NOT NULL,
+    window_end DATETIME(6) NOT NULL
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_rate_limit_counters_window_end ON rate_limit_counters (window_end);
@@ -0,0 +1,2 @@
+-- Earliest time a failed outbox event is delivered again; NULL for events not yet tried
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at DATETIME(6);
@@ -0,0 +1,5 @@
+-- idx_reservations_status (V5) repeated the version 1 index on reservations (status),
+-- which still serves the startup scan of held reservations in id order. The sweep of
+-- overdue holds reads HELD rows by held_until, which this index serves instead.
+ALTER TABLE reservations DROP INDEX idx_reservations_status;
+CREATE INDEX idx_reservations_status_held_until ON reservations (status, held_until);
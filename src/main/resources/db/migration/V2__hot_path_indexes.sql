@@ -0,0 +1,17 @@
+-- Composite indexes for the per-user / per-driver history queries, so each one
+-- is an index range scan in the requested order instead of a filesort.
+
+-- RideRepository.findByDriverOrderByDateTimeDesc, findUpcomingRidesByDriver, findPastRidesByDriver
+CREATE INDEX idx_rides_driver_date ON rides (driver_id, date_time);
+
+-- ReservationRepository.findByUserOrderByCreatedAtDesc
+CREATE INDEX idx_reservations_user_created ON reservations (user_id, created_at);
+
+-- ReviewRepository.findByDriverOrderByCreatedAtDesc, findRecentReviewsByDriver, countByDriver, sumRatingsByDriver
+CREATE INDEX idx_reviews_driver_created ON reviews (driver_id, created_at);
+
+-- ReviewRepository.findByReviewerOrderByCreatedAtDesc
+CREATE INDEX idx_reviews_reviewer_created ON reviews (reviewer_id, created_at);
+
+-- WaitlistEntryRepository.findByUserId
+CREATE INDEX idx_waitlist_user_created ON waitlist_entries (user_id, created_at);
@@ -0,0 +1,13 @@
+-- Stored responses of POSTs sent with an Idempotency-Key; key_hash is the SHA-256 of
+-- user, endpoint and key, request_hash the SHA-256 of the request body
+CREATE TABLE idempotency_keys (
+    key_hash VARCHAR(64) NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    scope VARCHAR(32) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_body TEXT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys (expires_at);
@@ -0,0 +1,8 @@
+-- Seat holds: HELD reservations carry the time their hold runs out. HELD is appended
+-- to the enums so MySQL can change them in place without rebuilding the tables.
+ALTER TABLE reservations MODIFY status ENUM('CONFIRMED', 'CANCELLED', 'COMPLETED', 'HELD') NOT NULL;
+ALTER TABLE reservations ADD COLUMN held_until DATETIME(6) NULL;
+ALTER TABLE reservations_archive MODIFY status ENUM('CONFIRMED', 'CANCELLED', 'COMPLETED', 'HELD');
+
+-- Held reservations are read in id order on startup; InnoDB appends the primary key to the index
+CREATE INDEX idx_reservations_status ON reservations (status);
@@ -0,0 +1,6 @@
+-- One row per ride whose departure reminder was sent; inserted before sending, so a
+-- reminder is never sent twice (across restarts and nodes)
+CREATE TABLE ride_reminders (
+    ride_id BIGINT NOT NULL PRIMARY KEY,
+    sent_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB;
@@ -0,0 +1,15 @@
+-- Transactional outbox: written with each ride/reservation/review change and relayed
+-- to in-process subscribers; published_at stays NULL until every subscriber handled it
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    attempts INT NOT NULL,
+    last_error VARCHAR(512)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_outbox_events_pending ON outbox_events (published_at, id);
@@ -0,0 +1,11 @@
+-- Cache invalidation log: each node writes the keys its transactions invalidate and
+-- tails the entries of the other nodes by id, so local caches stay coherent across nodes
+CREATE TABLE cache_invalidations (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    region VARCHAR(16) NOT NULL,
+    cache_key VARCHAR(600) NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    created_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_cache_invalidations_created_at ON cache_invalidations (created_at);
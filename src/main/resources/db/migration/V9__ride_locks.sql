@@ -0,0 +1,8 @@
+-- Cluster-wide per-ride leases around seat booking; fencing_token grows with every
+-- acquisition so writes made under a lease that was taken over can be rejected
+CREATE TABLE ride_locks (
+    ride_id BIGINT NOT NULL PRIMARY KEY,
+    holder VARCHAR(64),
+    fencing_token BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB;
@@ -3,7 +3,9 @@ class AuthService {
     constructor() {
         this.baseURL = '/api';
         this.token = localStorage.getItem('authToken');
+        this.refreshToken = localStorage.getItem('refreshToken');
         this.user = this.token ? JSON.parse(localStorage.getItem('user') || '{}') : null;
+        this.refreshInFlight = null;
     }
 
     // Check if user is authenticated
@@ -38,11 +40,7 @@ class AuthService {
             }
 
             const data = await response.json();
-            this.token = data.token;
-            this.user = data.user;
-
-            localStorage.setItem('authToken', this.token);
-            localStorage.setItem('user', JSON.stringify(this.user));
+            this.storeSession(data);
 
             return data;
         } catch (error) {
@@ -68,11 +66,7 @@ class AuthService {
             }
 
             const data = await response.json();
-            this.token = data.token;
-            this.user = data.user;
-
-            localStorage.setItem('authToken', this.token);
-            localStorage.setItem('user', JSON.stringify(this.user));
+            this.storeSession(data);
 
             return data;
         } catch (error) {
@@ -81,17 +75,74 @@ class AuthService {
         }
     }
 
+    // Keep the tokens (and user, when present) from a login/register/refresh response
+    storeSession(data) {
+        this.token = data.token;
+        this.refreshToken = data.refreshToken;
+        localStorage.setItem('authToken', this.token);
+        localStorage.setItem('refreshToken', this.refreshToken);
+
+        if (data.user) {
+            this.user = data.user;
+            localStorage.setItem('user', JSON.stringify(this.user));
+        }
+    }
+
+    // Exchange the refresh token for a new access token; concurrent callers share one request
+    refreshAccessToken() {
+        if (!this.refreshToken) {
+            return Promise.resolve(false);
+        }
+
+        if (!this.refreshInFlight) {
+            this.refreshInFlight = fetch(`${this.baseURL}/auth/refresh`, {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json'
+                },
+                body: JSON.stringify({ refreshToken: this.refreshToken })
+            })
+                .then(async response => {
+                    if (!response.ok) {
+                        return false;
+                    }
+                    this.storeSession(await response.json());
+                    return true;
+                })
+                .catch(() => false)
+                .finally(() => {
+                    this.refreshInFlight = null;
+                });
+        }
+
+        return this.refreshInFlight;
+    }
+
     // Logout user
     logout() {
+        if (this.refreshToken) {
+            // Revoke the session server-side; navigation does not wait for it
+            fetch(`${this.baseURL}/auth/logout`, {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json'
+                },
+                body: JSON.stringify({ refreshToken: this.refreshToken }),
+                keepalive: true
+            }).catch(() => {});
+        }
+
         this.token = null;
+        this.refreshToken = null;
         this.user = null;
         localStorage.removeItem('authToken');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
         window.location.href = 'index.html';
     }
 
     // Make authenticated API request
-    async apiRequest(url, options = {}) {
+    async apiRequest(url, options = {}, retried = false) {
         const config = {
             headers: {
                 'Content-Type': 'application/json',
@@ -108,7 +159,10 @@ class AuthService {
             const response = await fetch(`${this.baseURL}${url}`, config);
             
             if (response.status === 401) {
-                // Token expired or invalid
+                // Access token expired: renew it once and replay the request
+                if (!retried && await this.refreshAccessToken()) {
+                    return this.apiRequest(url, options, true);
+                }
                 this.logout();
                 return;
             }
@@ -299,16 +299,14 @@ async function handlePublishRide(event) {
 // Load dashboard data
 async function loadDashboard() {
     try {
-        const [ridesResponse, reservationsResponse] = await Promise.all([
-            authService.apiRequest('/rides'),
-            authService.apiRequest('/reservations/my-reservations')
-        ]);
+        // One call: the server gathers profile, reservations, rides and reviews in parallel
+        const response = await authService.apiRequest('/dashboard');
         
-        if (ridesResponse.ok && reservationsResponse.ok) {
-            const rides = await ridesResponse.json();
-            const reservations = await reservationsResponse.json();
+        if (response.ok) {
+            const dashboard = await response.json();
             
-            displayDashboardStats(rides, reservations);
+            displayDashboardStats(dashboard);
+            displayDashboardLists(dashboard);
         }
     } catch (error) {
         console.error('Dashboard error:', error);
@@ -316,8 +314,9 @@ async function loadDashboard() {
     }
 }
 
-function displayDashboardStats(rides, reservations) {
-    const user = authService.getCurrentUser();
+function displayDashboardStats(dashboard) {
+    const user = dashboard.user;
+    const reservationCount = dashboard.upcomingReservations.length + dashboard.pastReservations.length;
     
     // Update welcome message
     const welcomeMsg = document.getElementById('welcomeMessage');
@@ -363,11 +362,49 @@ function displayDashboardStats(rides, reservations) {
     const totalReservations = document.getElementById('totalReservations');
     const userRating = document.getElementById('userRating');
     
-    if (totalRides) totalRides.textContent = rides.length;
-    if (totalReservations) totalReservations.textContent = reservations.length;
+    if (totalRides) totalRides.textContent = dashboard.myRides.length;
+    if (totalReservations) totalReservations.textContent = reservationCount;
     if (userRating) userRating.textContent = user.rating?.toFixed(1) || '0.0';
 }
 
+function displayDashboardLists(dashboard) {
+    const upcomingTrips = document.getElementById('upcomingTrips');
+    if (upcomingTrips && dashboard.upcomingReservations.length > 0) {
+        upcomingTrips.innerHTML = dashboard.upcomingReservations.slice(0, 5).map(reservation => `
+            <div class="d-flex justify-content-between border-bottom py-2">
+                <span>${reservation.ride.origin} → ${reservation.ride.destination}</span>
+                <small class="text-muted">${formatDateTime(reservation.ride.dateTime)}</small>
+            </div>
+        `).join('');
+    }
+    
+    // Drivers see the rides they published, riders the trips they took
+    const recentRides = document.getElementById('recentRides');
+    const rides = dashboard.user.role === 'DRIVER'
+        ? dashboard.myRides
+        : dashboard.pastReservations.map(reservation => reservation.ride);
+    if (recentRides && rides.length > 0) {
+        recentRides.innerHTML = rides.slice(0, 5).map(ride => `
+            <div class="d-flex justify-content-between border-bottom py-2">
+                <span>${ride.origin} → ${ride.destination}</span>
+                <small class="text-muted">${formatDateTime(ride.dateTime)}</small>
+            </div>
+        `).join('');
+    }
+    
+    const recentActivity = document.getElementById('recentActivity');
+    const reviews = dashboard.reviewsReceived.length > 0 ? dashboard.reviewsReceived : dashboard.reviewsWritten;
+    if (recentActivity && reviews.length > 0) {
+        recentActivity.innerHTML = reviews.slice(0, 5).map(review => `
+            <div class="border-bottom py-2">
+                <i class="bi bi-star-fill text-warning me-1"></i>${review.rating}
+                <small class="text-muted ms-2">${formatDateTime(review.createdAt)}</small>
+                ${review.comment ? `<p class="mb-0 small">${review.comment}</p>` : ''}
+            </div>
+        `).join('');
+    }
+}
+
 // Load reservations
 async function loadReservations() {
     const container = document.getElementById('reservationsContainer');
@@ -445,6 +482,7 @@ function displayReservations(reservations) {
 function getStatusColor(status) {
     switch (status) {
         case 'CONFIRMED': return 'success';
+        case 'HELD': return 'warning';
         case 'CANCELLED': return 'danger';
         case 'COMPLETED': return 'secondary';
         default: return 'primary';
@@ -0,0 +1,105 @@
+package com.carpool.cache;
+
+import com.carpool.entity.CacheInvalidation;
+import com.carpool.repository.CacheInvalidationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheInvalidationLogTest {
+
+    private CacheInvalidationRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheInvalidationLog log;
+    private final List<String> evicted = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(CacheInvalidationRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<CacheInvalidationHandler> handlers = mock(ObjectProvider.class);
+        when(handlers.orderedStream()).thenAnswer(invocation -> Stream.of(new RecordingHandler()));
+        log = new CacheInvalidationLog(repository, handlers, meterRegistry);
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "batchSize", 1000);
+        ReflectionTestUtils.setField(log, "gapTimeoutMs", 10000L);
+
+        when(repository.findMaxId()).thenReturn(10L);
+        when(repository.findAfter(anyLong(), any())).thenReturn(List.of());
+        when(repository.findOnPrimary(anyCollection())).thenReturn(List.of());
+        log.open();
+    }
+
+    @Test
+    void entryCommittedWithinTheGapTimeoutIsApplied() {
+        // 11 is still uncommitted when 12 is read
+        when(repository.findAfter(eq(10L), any())).thenReturn(List.of(entry(12, "b")));
+        assertThat(log.poll()).isEqualTo(1);
+
+        when(repository.findAfter(eq(12L), any())).thenReturn(List.of());
+        when(repository.findOnPrimary(anyCollection())).thenReturn(List.of(entry(11, "a")));
+        assertThat(log.poll()).isEqualTo(1);
+
+        assertThat(evicted).containsExactly("b", "a");
+        assertThat(skippedGaps()).isZero();
+    }
+
+    @Test
+    void gapStillMissingAfterTheTimeoutIsSkippedAndCounted() {
+        ReflectionTestUtils.setField(log, "gapTimeoutMs", 0L);
+        when(repository.findAfter(eq(10L), any())).thenReturn(List.of(entry(13, "c")));
+        log.poll();
+
+        when(repository.findAfter(eq(13L), any())).thenReturn(List.of());
+        log.poll();
+
+        assertThat(skippedGaps()).isEqualTo(2);
+        assertThat(meterRegistry.get("carpool.cache.invalidation.gaps").gauge().value()).isZero();
+
+        // Committed too late: no longer looked for, so never applied here
+        when(repository.findOnPrimary(anyCollection())).thenReturn(List.of(entry(11, "a")));
+        assertThat(log.poll()).isZero();
+        assertThat(evicted).containsExactly("c");
+    }
+
+    private double skippedGaps() {
+        return meterRegistry.get("carpool.cache.invalidation.gaps.skipped").counter().count();
+    }
+
+    private static CacheInvalidation entry(long id, String key) {
+        CacheInvalidation entry = new CacheInvalidation(InvalidationRegion.RIDE, key, "other-node",
+                LocalDateTime.now());
+        entry.setId(id);
+        return entry;
+    }
+
+    private class RecordingHandler implements CacheInvalidationHandler {
+
+        @Override
+        public Set<InvalidationRegion> regions() {
+            return Set.of(InvalidationRegion.RIDE);
+        }
+
+        @Override
+        public void evict(InvalidationRegion region, String key) {
+            evicted.add(key);
+        }
+    }
+}
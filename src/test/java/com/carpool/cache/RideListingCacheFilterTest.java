@@ -0,0 +1,81 @@
+package com.carpool.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RideListingCacheFilterTest {
+
+    private static final String ETAG = "\"3-18b2f-0\"";
+    private static final String JSON = "[{\"id\":1}]";
+
+    private RideListingCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RideListingCache cache = new RideListingCache(new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 16);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "gzipMinBytes", 1024);
+        cache.put(null, null, null, JSON.getBytes(StandardCharsets.UTF_8), "application/json", ETAG,
+                cache.generation());
+        filter = new RideListingCacheFilter(cache, null, 1000);
+    }
+
+    @Test
+    void exactValidatorIsNotModified() throws Exception {
+        assertThat(get(ETAG).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void weakValidatorIsNotModified() throws Exception {
+        MockHttpServletResponse response = get("W/" + ETAG);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void validatorListContainingTheETagIsNotModified() throws Exception {
+        assertThat(get("\"other\", " + ETAG).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void wildcardIsNotModified() throws Exception {
+        assertThat(get("*").getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void otherValidatorGetsTheCachedBody() throws Exception {
+        MockHttpServletResponse response = get("\"other\"");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsString()).isEqualTo(JSON);
+    }
+
+    private MockHttpServletResponse get(String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rides");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // The chain must not be reached: every request here is a cache hit
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                throw new AssertionError("cache hit expected");
+            }
+        });
+        return response;
+    }
+}
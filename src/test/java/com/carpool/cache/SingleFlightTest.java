@@ -0,0 +1,129 @@
+package com.carpool.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test.flight", 0, 100, meterRegistry);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            Future<String> leader = pool.submit(() -> {
+                SingleFlight.Call<String> call = singleFlight.join("route");
+                assertThat(call.isLeader()).isTrue();
+                leaderStarted.countDown();
+                computations.incrementAndGet();
+                release.await();
+                call.complete("result");
+                return "result";
+            });
+            leaderStarted.await();
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(pool.submit(() -> {
+                    SingleFlight.Call<String> call = singleFlight.join("route");
+                    assertThat(call.isLeader()).isFalse();
+                    return call.await(5_000);
+                }));
+            }
+            // Let every follower join the running flight before it completes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (callers("follower-in-flight") < 7 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            for (Future<String> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            }
+            assertThat(computations.get()).isEqualTo(1);
+            assertThat(callers("leader")).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void differentKeysDoNotCoalesce() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test.flight", 0, 100, meterRegistry);
+
+        assertThat(singleFlight.join("a").isLeader()).isTrue();
+        assertThat(singleFlight.join("b").isLeader()).isTrue();
+    }
+
+    @Test
+    void finishedResultIsSharedWhileFresh() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test.flight", 500, 100, meterRegistry);
+        singleFlight.join("route").complete("result");
+
+        SingleFlight.Call<String> fresh = singleFlight.join("route");
+        assertThat(fresh.isLeader()).isFalse();
+        assertThat(fresh.await(0)).isEqualTo("result");
+
+        Thread.sleep(600);
+        assertThat(singleFlight.join("route").isLeader()).isTrue();
+    }
+
+    @Test
+    void withoutFreshnessTheNextCallerLeadsAgain() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test.flight", 0, 100, meterRegistry);
+        singleFlight.join("route").complete("result");
+
+        assertThat(singleFlight.join("route").isLeader()).isTrue();
+    }
+
+    @Test
+    void unsharableResultLetsFollowersComputeTheirOwn() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test.flight", 1_000, 100, meterRegistry);
+        SingleFlight.Call<String> leader = singleFlight.join("route");
+        SingleFlight.Call<String> follower = singleFlight.join("route");
+
+        leader.complete(null);
+
+        assertThat(follower.await(1_000)).isNull();
+        // Nothing was kept, even inside the freshness window
+        assertThat(singleFlight.join("route").isLeader()).isTrue();
+    }
+
+    @Test
+    void followerStopsWaitingForASlowLeader() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test.flight", 0, 100, meterRegistry);
+        singleFlight.join("route");
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.join("route").await(50);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    private double callers(String role) {
+        return meterRegistry.get("test.flight").tag("role", role).counter().count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.carpool.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The production configuration on MySQL 8: Flyway builds the schema from the MySQL
+ * version 1, the context only starts if Hibernate validates it, and the V2 history
+ * queries read their index in order (no filesort).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+class MySqlSchemaTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        Integer users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE '%@schema.test'", Integer.class);
+        if (users != null && users > 0) {
+            return;
+        }
+        // 50 drivers with 20 rides each; every user books, reviews and waits on 20 rides
+        String numbers = "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 1000) ";
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, role, created_at) " + numbers
+                + "SELECT 100000 + n, 'User', CONCAT(n, '@schema.test'), 'x', 'DRIVER', NOW() FROM seq WHERE n <= 50");
+        jdbcTemplate.update("INSERT INTO rides (id, driver_id, origin, destination, date_time, price, available_seats, total_seats, status, created_at) "
+                + numbers + "SELECT 100000 + n, 100000 + 1 + MOD(n, 50), 'A', 'B', NOW() + INTERVAL n HOUR, 5, 3, 3, 'ACTIVE', NOW() FROM seq");
+        jdbcTemplate.update("INSERT INTO reservations (id, ride_id, user_id, seats_reserved, status, created_at) "
+                + numbers + "SELECT 100000 + n, 100000 + n, 100000 + 1 + MOD(n * 7, 50), 1, 'CONFIRMED', NOW() - INTERVAL n MINUTE FROM seq");
+        jdbcTemplate.update("INSERT INTO reviews (id, ride_id, reviewer_id, driver_id, rating, created_at) "
+                + numbers + "SELECT 100000 + n, 100000 + n, 100000 + 1 + MOD(n * 7, 50), 100000 + 1 + MOD(n, 50), 4, NOW() - INTERVAL n MINUTE FROM seq");
+        jdbcTemplate.update("INSERT INTO waitlist_entries (id, ride_id, user_id, seats_requested, status, created_at) "
+                + numbers + "SELECT 100000 + n, 100000 + n, 100000 + 1 + MOD(n * 7, 50), 1, 'WAITING', NOW() - INTERVAL n MINUTE FROM seq");
+        jdbcTemplate.execute("ANALYZE TABLE users, rides, reservations, reviews, waitlist_entries");
+    }
+
+    @Test
+    void migratedSchemaPassesHibernateValidation() {
+        // application.yml runs Hibernate with ddl-auto=validate: the context started
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("12");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT * FROM rides WHERE driver_id = 100001 ORDER BY date_time DESC | idx_rides_driver_date",
+            "SELECT * FROM rides WHERE driver_id = 100001 AND date_time > NOW() ORDER BY date_time | idx_rides_driver_date",
+            "SELECT * FROM rides WHERE driver_id = 100001 AND date_time < NOW() ORDER BY date_time DESC | idx_rides_driver_date",
+            "SELECT * FROM reservations WHERE user_id = 100001 ORDER BY created_at DESC | idx_reservations_user_created",
+            "SELECT * FROM reviews WHERE driver_id = 100001 ORDER BY created_at DESC | idx_reviews_driver_created",
+            "SELECT * FROM reviews WHERE reviewer_id = 100001 ORDER BY created_at DESC | idx_reviews_reviewer_created",
+            "SELECT * FROM waitlist_entries WHERE user_id = 100001 ORDER BY created_at DESC | idx_waitlist_user_created",
+    })
+    void historyQueryReadsItsIndexInOrder(String sql, String index) {
+        Map<String, Object> plan = jdbcTemplate.queryForMap("EXPLAIN " + sql);
+
+        assertThat(plan.get("key")).isEqualTo(index);
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+}
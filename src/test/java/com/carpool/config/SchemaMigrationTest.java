@@ -0,0 +1,168 @@
+package com.carpool.config;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.RunScript;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The migration chain on H2 in MySQL mode, configured like application.yml; see
+ * MySqlSchemaTest for the same checks on MySQL.
+ */
+class SchemaMigrationTest {
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private final String url = "jdbc:h2:mem:migration-" + databases.incrementAndGet()
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void emptyDatabaseIsMigratedToTheLatestVersion() throws Exception {
+        flyway().migrate();
+
+        assertThat(flyway().info().current().getVersion().getVersion()).isEqualTo("12");
+        try (Connection connection = connect()) {
+            assertSeriesSchema(connection.getMetaData());
+            // The version 1 foreign keys keep ON DELETE CASCADE
+            assertThat(deleteRule(connection.getMetaData(), "rides", "driver_id")).isEqualTo(DatabaseMetaData.importedKeyCascade);
+            assertThat(deleteRule(connection.getMetaData(), "reservations", "ride_id")).isEqualTo(DatabaseMetaData.importedKeyCascade);
+            assertThat(deleteRule(connection.getMetaData(), "reviews", "reviewer_id")).isEqualTo(DatabaseMetaData.importedKeyCascade);
+        }
+    }
+
+    @Test
+    void setupScriptDatabaseIsAdoptedAtVersionOne() throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            runVersionOne(connection);
+            statement.execute("INSERT INTO users (name, email, password, role, rating) VALUES ('Driver', 'd@example.com', 'x', 'DRIVER', 4.5)");
+            statement.execute("INSERT INTO rides (driver_id, origin, destination, date_time, price, available_seats, total_seats) "
+                    + "VALUES (1, 'Sofia', 'Plovdiv', CURRENT_TIMESTAMP, 10, 3, 3)");
+        }
+
+        flyway().migrate();
+
+        assertThat(flyway().info().current().getVersion().getVersion()).isEqualTo("12");
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertSeriesSchema(connection.getMetaData());
+            try (ResultSet rows = statement.executeQuery("SELECT r.version, u.rating FROM rides r JOIN users u ON u.id = r.driver_id")) {
+                assertThat(rows.next()).isTrue();
+                assertThat(rows.getLong(1)).isZero();
+                assertThat(rows.getDouble(2)).isEqualTo(4.5);
+            }
+        }
+    }
+
+    @Test
+    void objectsLeftByDdlAutoUpdateAreKept() throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            runVersionOne(connection);
+            // What a build that ran with ddl-auto=update may already have added
+            statement.execute("ALTER TABLE rides ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            statement.execute("CREATE TABLE id_generators (entity VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+            statement.execute("INSERT INTO id_generators VALUES ('rides', 500)");
+        }
+
+        flyway().migrate();
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertSeriesSchema(connection.getMetaData());
+            try (ResultSet rows = statement.executeQuery("SELECT next_val FROM id_generators WHERE entity = 'rides'")) {
+                assertThat(rows.next()).isTrue();
+                assertThat(rows.getLong(1)).isEqualTo(500);
+            }
+        }
+    }
+
+    @Test
+    void driverRideHistoryUsesTheDriverDateIndex() throws Exception {
+        flyway().migrate();
+
+        // H2 only prefers the composite index when date_time is also restricted; whether it
+        // saves the sort of the plain ORDER BY queries is checked on MySQL
+        assertThat(plan("SELECT * FROM rides WHERE driver_id = 1 AND date_time > CURRENT_TIMESTAMP ORDER BY date_time"))
+                .contains("idx_rides_driver_date");
+        assertThat(plan("SELECT * FROM rides WHERE driver_id = 1 AND date_time < CURRENT_TIMESTAMP ORDER BY date_time DESC"))
+                .contains("idx_rides_driver_date");
+    }
+
+    @Test
+    void overdueHoldSweepUsesTheStatusHeldUntilIndex() throws Exception {
+        flyway().migrate();
+
+        assertThat(plan("SELECT id FROM reservations WHERE status = 'HELD' AND held_until < CURRENT_TIMESTAMP "
+                + "ORDER BY held_until")).contains("idx_reservations_status_held_until");
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/baseline/h2")
+                .javaMigrations(new SeriesSchemaMigration())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    private Connection connect() throws Exception {
+        return DriverManager.getConnection(url, "sa", "");
+    }
+
+    // The schema database-setup.sql creates, without Flyway's history table
+    private static void runVersionOne(Connection connection) throws Exception {
+        try (InputStreamReader script = new InputStreamReader(SchemaMigrationTest.class.getResourceAsStream(
+                "/db/baseline/h2/V1__baseline_schema.sql"), StandardCharsets.UTF_8)) {
+            RunScript.execute(connection, script);
+        }
+    }
+
+    private static void assertSeriesSchema(DatabaseMetaData metaData) throws Exception {
+        assertThat(columnType(metaData, "rides", "version")).isEqualTo(Types.BIGINT);
+        assertThat(columnType(metaData, "reservations", "version")).isEqualTo(Types.BIGINT);
+        assertThat(columnType(metaData, "users", "rating")).isEqualTo(Types.DOUBLE);
+        for (String table : new String[] {"waitlist_entries", "rides_archive", "reservations_archive",
+                "reviews_archive", "id_generators", "outbox_events"}) {
+            try (ResultSet tables = metaData.getTables(null, null, table, null)) {
+                assertThat(tables.next()).as(table).isTrue();
+            }
+        }
+        assertThat(deleteRule(metaData, "waitlist_entries", "ride_id")).isEqualTo(DatabaseMetaData.importedKeyCascade);
+    }
+
+    private static int columnType(DatabaseMetaData metaData, String table, String column) throws Exception {
+        try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+            assertThat(columns.next()).as(table + "." + column).isTrue();
+            return columns.getInt("DATA_TYPE");
+        }
+    }
+
+    private static int deleteRule(DatabaseMetaData metaData, String table, String column) throws Exception {
+        try (ResultSet keys = metaData.getImportedKeys(null, null, table)) {
+            while (keys.next()) {
+                if (column.equals(keys.getString("FKCOLUMN_NAME"))) {
+                    return keys.getInt("DELETE_RULE");
+                }
+            }
+        }
+        throw new AssertionError("no foreign key on " + table + "." + column);
+    }
+
+    private String plan(String sql) throws Exception {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            plan.next();
+            return plan.getString(1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.carpool.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The login throttle keys anonymous clients by the address a trusted proxy forwarded
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "carpool.security.login-throttle.address-capacity=2",
+        "carpool.security.login-throttle.address-refill-per-minute=1",
+        "carpool.security.login-throttle.account-capacity=100"
+})
+@ActiveProfiles("test")
+class AuthControllerClientAddressTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void forwardedClientsGetTheirOwnBuckets() {
+        assertThat(login("203.0.113.10")).isEqualTo(400);
+        assertThat(login("203.0.113.10")).isEqualTo(400);
+        assertThat(login("203.0.113.10")).isEqualTo(429);
+
+        // Same proxy (this host), different client behind it
+        assertThat(login("203.0.113.11")).isEqualTo(400);
+    }
+
+    @Test
+    void forwardedAddressIsTheClientNotAnotherProxy() {
+        // The rightmost untrusted hop is the client; a spoofed leftmost entry does not help
+        assertThat(login("198.51.100.1, 203.0.113.20")).isEqualTo(400);
+        assertThat(login("198.51.100.2, 203.0.113.20")).isEqualTo(400);
+        assertThat(login("198.51.100.3, 203.0.113.20")).isEqualTo(429);
+    }
+
+    private int login(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        String body = "{\"email\":\"nobody@example.com\",\"password\":\"wrong-password\"}";
+        return restTemplate.postForEntity("/api/auth/login", new HttpEntity<>(body, headers), String.class)
+                .getStatusCode().value();
+    }
+}
@@ -0,0 +1,113 @@
+package com.carpool.controller;
+
+import com.carpool.dto.UserRegistrationDto;
+import com.carpool.entity.User;
+import com.carpool.exception.UserAlreadyExistsException;
+import com.carpool.service.UserService;
+import com.carpool.support.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements per authentication flow, as Hibernate sends them, and how registration
+ * failures are reported
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthFlowIntegrationTest {
+
+    private static final String PASSWORD = "secret-password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        // Also reserves a block of user ids, so no test below allocates one
+        email = "rider-" + UUID.randomUUID() + "@example.com";
+        userService.registerUser(new UserRegistrationDto("Rider", email, PASSWORD, User.Role.USER));
+    }
+
+    @Test
+    void loginReadsTheUserOnceAndStoresTheRefreshToken() throws Exception {
+        StatementCounter.reset();
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+
+        assertStatements("select", "users", "insert", "refresh_tokens");
+    }
+
+    @Test
+    void registrationInsertsTheUserAndTheRefreshToken() throws Exception {
+        StatementCounter.reset();
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(registration("new-" + email)))
+                .andExpect(status().isCreated());
+
+        assertStatements("insert", "users", "insert", "refresh_tokens");
+    }
+
+    @Test
+    void duplicateRegistrationIsOneFailedInsert() throws Exception {
+        StatementCounter.reset();
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(registration(email)))
+                .andExpect(status().isBadRequest());
+
+        assertStatements("insert", "users");
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotReportedAsDuplicates() {
+        // A valid address, longer than the 255-character column
+        String longEmail = "r".repeat(60) + "@" + ("d".repeat(60) + ".").repeat(4) + "example.com";
+        UserRegistrationDto tooLong = new UserRegistrationDto("Rider", longEmail, PASSWORD, User.Role.USER);
+
+        assertThatThrownBy(() -> userService.registerUser(tooLong))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(UserAlreadyExistsException.class);
+    }
+
+    @Test
+    void duplicateEmailIsReportedAsSuch() {
+        UserRegistrationDto duplicate = new UserRegistrationDto("Rider", email, PASSWORD, User.Role.USER);
+
+        assertThatThrownBy(() -> userService.registerUser(duplicate)).isInstanceOf(UserAlreadyExistsException.class);
+    }
+
+    private static String registration(String email) {
+        return "{\"name\":\"Rider\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\",\"role\":\"USER\"}";
+    }
+
+    // Pairs of statement kind and table, in order
+    private static void assertStatements(String... kindAndTable) {
+        List<String> statements = StatementCounter.statements();
+        assertThat(statements).as("statements: %s", statements).hasSize(kindAndTable.length / 2);
+        for (int i = 0; i < statements.size(); i++) {
+            String sql = statements.get(i).toLowerCase();
+            assertThat(sql).as(sql).startsWith(kindAndTable[2 * i]).contains(kindAndTable[2 * i + 1]);
+        }
+    }
+}
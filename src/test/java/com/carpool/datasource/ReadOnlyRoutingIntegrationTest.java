@@ -0,0 +1,76 @@
+package com.carpool.datasource;
+
+import com.carpool.config.SeriesSchemaMigration;
+import com.carpool.dto.UserRegistrationDto;
+import com.carpool.entity.User;
+import com.carpool.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primary and replica are two separate H2 databases with the same schema; nothing is
+ * replicated, so a row is only visible through the database it was written to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-it-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "carpool.datasource.routing.enabled=true",
+        "carpool.datasource.replicas[0].name=replica-1",
+        "carpool.datasource.replicas[0].url=" + ReadOnlyRoutingIntegrationTest.REPLICA_URL,
+        "carpool.datasource.lag-query=SELECT 0 AS Seconds_Behind_Source"
+})
+@ActiveProfiles("test")
+class ReadOnlyRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-it-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/baseline/h2")
+                .javaMigrations(new SeriesSchemaMigration())
+                .load().migrate();
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readOnlyTransactionReadsTheReplica() throws Exception {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO users (id, name, email, password, role, created_at) "
+                    + "VALUES (900001, 'Replica Only', 'replica-only@example.com', 'x', 'USER', CURRENT_TIMESTAMP)");
+        }
+        double replicaReads = replicaReads();
+
+        // findByEmail is @Transactional(readOnly = true)
+        assertThat(userService.findByEmail("replica-only@example.com"))
+                .map(User::getName).contains("Replica Only");
+        assertThat(replicaReads()).isGreaterThan(replicaReads);
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        userService.registerUser(new UserRegistrationDto("Primary Only", "primary-only@example.com",
+                "primary-password", User.Role.USER));
+
+        // Written to the primary, which the replica does not follow here
+        assertThat(userService.findByEmail("primary-only@example.com")).isEmpty();
+    }
+
+    private double replicaReads() {
+        return meterRegistry.get("carpool.datasource.reads").tag("target", "replica").counter().count();
+    }
+}
@@ -0,0 +1,84 @@
+package com.carpool.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String IN_SYNC = "SELECT 0 AS Seconds_Behind_Source";
+    private static final String LAGGING = "SELECT 60 AS Seconds_Behind_Source";
+
+    @AfterEach
+    void clearReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToAHealthyReplica() throws Exception {
+        ReadWriteRoutingDataSource routing = routing(60_000, IN_SYNC);
+        routing.checkReplicas();
+
+        assertThat(target(routing, false)).isEqualTo("primary");
+        assertThat(target(routing, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaIsUnusedUntilChecked() throws Exception {
+        ReadWriteRoutingDataSource routing = routing(60_000, IN_SYNC);
+
+        assertThat(target(routing, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaIsOutOfRotation() throws Exception {
+        ReadWriteRoutingDataSource routing = routing(60_000, LAGGING);
+        routing.checkReplicas();
+
+        assertThat(target(routing, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void staleCheckSendsReadsToThePrimary() throws Exception {
+        ReadWriteRoutingDataSource routing = routing(50, IN_SYNC);
+        routing.checkReplicas();
+        assertThat(target(routing, true)).isEqualTo("replica");
+
+        // The monitor stops checking: the last good result expires
+        Thread.sleep(120);
+        assertThat(target(routing, true)).isEqualTo("primary");
+
+        routing.checkReplicas();
+        assertThat(target(routing, true)).isEqualTo("replica");
+    }
+
+    private static ReadWriteRoutingDataSource routing(long maxCheckAgeMs, String lagQuery) {
+        ReadWriteRoutingDataSource.ReplicaNode replica =
+                new ReadWriteRoutingDataSource.ReplicaNode("replica", h2("replica"), maxCheckAgeMs);
+        return new ReadWriteRoutingDataSource(h2("primary"), List.of(replica), 5, lagQuery,
+                "Seconds_Behind_Source", new SimpleMeterRegistry());
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    // Name of the database a connection taken in a (read-only) transaction points at
+    private static String target(ReadWriteRoutingDataSource routing, boolean readOnly) throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        try (Connection connection = routing.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring(url.lastIndexOf('-') + 1);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.carpool.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(60);
+
+    @Test
+    void admitsUpToTheLimitAndAgainAfterRelease() {
+        AdaptiveConcurrencyLimit limiter = limiter(4, 2, 100);
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.tryAcquire(EndpointClass.OTHER));
+        }
+
+        assertThat(permits).doesNotContainNull();
+        // OTHER's own share (30%) of 4 is 2, already in use
+        assertThat(limiter.tryAcquire(EndpointClass.OTHER)).isNull();
+
+        permits.get(0).release();
+        assertThat(limiter.tryAcquire(EndpointClass.OTHER)).isNotNull();
+    }
+
+    @Test
+    void floodOfOneClassCannotLockAnotherOut() {
+        AdaptiveConcurrencyLimit limiter = limiter(10, 2, 100);
+        int browsing = 0;
+        while (limiter.tryAcquire(EndpointClass.BROWSING) != null) {
+            browsing++;
+        }
+
+        assertThat(browsing).isEqualTo(10);
+        // Booking keeps its half of the limit even though the limit is used up
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(EndpointClass.BOOKING)).isNotNull();
+        }
+        assertThat(limiter.tryAcquire(EndpointClass.BOOKING)).isNull();
+    }
+
+    @Test
+    void steadyLatencyUnderLoadGrowsTheLimit() {
+        AdaptiveConcurrencyLimit limiter = limiter(20, 2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(FAST, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(40);
+    }
+
+    @Test
+    void idleLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimit limiter = limiter(20, 2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(FAST, 1);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void risingLatencyShrinksTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimit limiter = limiter(20, 4, 100);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(FAST, limiter.getLimit());
+        }
+        int settled = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(SLOW, limiter.getLimit());
+        }
+        assertThat(limiter.getLimit()).isLessThan(settled / 2);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(SLOW * 4, limiter.getLimit());
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void limitRecoversOnceLatencyReturnsToNormal() {
+        AdaptiveConcurrencyLimit limiter = limiter(20, 4, 100);
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(FAST, limiter.getLimit());
+        }
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(SLOW, limiter.getLimit());
+        }
+        int overloaded = limiter.getLimit();
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(FAST, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(overloaded * 2);
+    }
+
+    @Test
+    void limitNeverExceedsTheMaximum() {
+        AdaptiveConcurrencyLimit limiter = limiter(20, 2, 30);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(FAST, limiter.getLimit());
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(30);
+    }
+
+    private static AdaptiveConcurrencyLimit limiter(int initialLimit, int minLimit, int maxLimit) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(minLimit);
+        properties.setMaxLimit(maxLimit);
+        return new AdaptiveConcurrencyLimit(properties, new SimpleMeterRegistry());
+    }
+}
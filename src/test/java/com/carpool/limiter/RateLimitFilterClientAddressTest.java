@@ -0,0 +1,55 @@
+package com.carpool.limiter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The rate limits key anonymous clients by the address a trusted proxy forwarded
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "carpool.rate-limit.routes[0].pattern=/api/rides/search",
+        "carpool.rate-limit.routes[0].capacity=2",
+        "carpool.rate-limit.routes[0].refill-per-second=0.01"
+})
+@ActiveProfiles("test")
+class RateLimitFilterClientAddressTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void forwardedClientsGetTheirOwnBuckets() {
+        assertThat(search("203.0.113.30").getStatusCode().value()).isNotEqualTo(429);
+        assertThat(search("203.0.113.30").getStatusCode().value()).isNotEqualTo(429);
+
+        ResponseEntity<String> limited = search("203.0.113.30");
+        assertThat(limited.getStatusCode().value()).isEqualTo(429);
+        assertThat(limited.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+        // Same proxy (this host), different client behind it
+        assertThat(search("203.0.113.31").getStatusCode().value()).isNotEqualTo(429);
+    }
+
+    @Test
+    void spoofedLeftmostEntryDoesNotEarnANewBucket() {
+        assertThat(search("198.51.100.1, 203.0.113.40").getStatusCode().value()).isNotEqualTo(429);
+        assertThat(search("198.51.100.2, 203.0.113.40").getStatusCode().value()).isNotEqualTo(429);
+        assertThat(search("198.51.100.3, 203.0.113.40").getStatusCode().value()).isEqualTo(429);
+    }
+
+    private ResponseEntity<String> search(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", forwardedFor);
+        return restTemplate.exchange("/api/rides/search?origin=Sofia&destination=Varna", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.carpool.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedRateLimiterTest {
+
+    @Test
+    void limitsEachKeyOnItsOwn() {
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 1_000);
+
+        assertThat(limiter.tryAcquire("user:1", 2, 0.01)).isZero();
+        assertThat(limiter.tryAcquire("user:1", 2, 0.01)).isZero();
+        assertThat(limiter.tryAcquire("user:1", 2, 0.01)).isPositive();
+
+        assertThat(limiter.tryAcquire("user:2", 2, 0.01)).isZero();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void answersTheSecondsUntilTheNextToken() {
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 1_000);
+        limiter.tryAcquire("ip:203.0.113.1", 1, 0.2);
+
+        assertThat(limiter.tryAcquire("ip:203.0.113.1", 1, 0.2)).isBetween(4L, 5L);
+    }
+
+    @Test
+    void refilledBucketsAreEvicted() throws Exception {
+        StripedRateLimiter limiter = new StripedRateLimiter(4, 1_000);
+        limiter.tryAcquire("fast", 1, 100);
+        limiter.tryAcquire("slow", 1, 0.01);
+
+        Thread.sleep(30);
+
+        assertThat(limiter.evictFull()).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+        // The evicted key starts over with a full bucket
+        assertThat(limiter.tryAcquire("fast", 1, 100)).isZero();
+    }
+
+    @Test
+    void newKeyDisplacesTheLeastRecentlyUsedBucketOfAFullStripe() {
+        // Two stripes of two keys; one-character keys hash to their code, so a, c and e share one
+        StripedRateLimiter limiter = new StripedRateLimiter(2, 4);
+        limiter.tryAcquire("a", 1, 0.01);
+        limiter.tryAcquire("c", 1, 0.01);
+        assertThat(limiter.tryAcquire("a", 1, 0.01)).isPositive();
+
+        assertThat(limiter.tryAcquire("e", 1, 0.01)).isZero();
+
+        // c was the least recently used: a keeps its spent bucket, c starts over
+        assertThat(limiter.tryAcquire("a", 1, 0.01)).isPositive();
+        assertThat(limiter.displaced()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("c", 1, 0.01)).isZero();
+    }
+
+    @Test
+    void refilledBucketMakingRoomIsNotCountedAsDisplaced() throws Exception {
+        StripedRateLimiter limiter = new StripedRateLimiter(2, 4);
+        limiter.tryAcquire("a", 1, 100);
+        limiter.tryAcquire("c", 1, 0.01);
+
+        Thread.sleep(30);
+
+        assertThat(limiter.tryAcquire("e", 1, 0.01)).isZero();
+        assertThat(limiter.displaced()).isZero();
+        assertThat(limiter.tryAcquire("c", 1, 0.01)).isPositive();
+    }
+
+    @Test
+    void stripeCountIsRoundedToAPowerOfTwo() {
+        // 3 stripes become 4, sharing 8 keys: two per stripe
+        StripedRateLimiter limiter = new StripedRateLimiter(3, 8);
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("key" + i, 1, 0.01);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void concurrentRequestsOfOneKeyNeverExceedItsCapacity() throws Exception {
+        StripedRateLimiter limiter = new StripedRateLimiter(8, 1_000);
+        int capacity = 50;
+        AtomicInteger admitted = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.tryAcquire("shared", capacity, 0.001) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(admitted.get()).isEqualTo(capacity);
+    }
+}
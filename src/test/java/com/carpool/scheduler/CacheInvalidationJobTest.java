@@ -0,0 +1,44 @@
+package com.carpool.scheduler;
+
+import com.carpool.cache.CacheInvalidationLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheInvalidationJobTest {
+
+    private final CacheInvalidationJob job = new CacheInvalidationJob();
+
+    @AfterEach
+    void tearDown() {
+        job.stop();
+    }
+
+    @Test
+    void pollRunsRepeatedlyOnItsOwnThread() {
+        CacheInvalidationLog log = mock(CacheInvalidationLog.class);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(log.poll()).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            throw new IllegalStateException("database down");
+        });
+        ReflectionTestUtils.setField(job, "cacheInvalidationLog", log);
+        ReflectionTestUtils.setField(job, "pollIntervalMs", 10L);
+
+        job.start();
+
+        // A failing poll does not stop the next ones
+        verify(log, timeout(2000).atLeast(3)).poll();
+        assertThat(threads).allMatch(name -> name.startsWith("cache-invalidation-"));
+    }
+}
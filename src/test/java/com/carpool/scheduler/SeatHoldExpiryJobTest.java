@@ -0,0 +1,96 @@
+package com.carpool.scheduler;
+
+import com.carpool.dto.ReservationCreateDto;
+import com.carpool.dto.RideCreateDto;
+import com.carpool.dto.UserRegistrationDto;
+import com.carpool.entity.User;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.service.ReservationService;
+import com.carpool.service.RideService;
+import com.carpool.service.SeatHoldService;
+import com.carpool.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Holds placed by a node that went away are released by another node's sweep
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SeatHoldExpiryJobTest {
+
+    @Autowired
+    private SeatHoldExpiryJob seatHoldExpiryJob;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rideId;
+    private Long riderId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        Long driverId = userService.registerUser(new UserRegistrationDto("Driver", "driver-" + suffix + "@example.com",
+                "secret-password", User.Role.DRIVER)).getId();
+        riderId = userService.registerUser(new UserRegistrationDto("Rider", "rider-" + suffix + "@example.com",
+                "secret-password", User.Role.USER)).getId();
+        rideId = rideService.createRide(new RideCreateDto("Sofia", "Plovdiv", LocalDateTime.now().plusDays(1),
+                new BigDecimal("10.00"), 3, null), driverId).getId();
+    }
+
+    @Test
+    void overdueHoldNoNodeTracksIsReleased() {
+        Long holdId = holdOnVanishedNode(LocalDateTime.now().minusMinutes(5));
+        assertThat(rideService.getAvailableSeats(rideId)).isEqualTo(1);
+
+        seatHoldExpiryJob.sweepOverdueHolds();
+
+        assertThat(reservationRepository.findById(holdId)).isEmpty();
+        assertThat(rideService.getAvailableSeats(rideId)).isEqualTo(3);
+    }
+
+    @Test
+    void holdWithinTheGracePeriodIsLeftToItsNode() {
+        Long holdId = holdOnVanishedNode(LocalDateTime.now().minusSeconds(5));
+
+        seatHoldExpiryJob.sweepOverdueHolds();
+
+        assertThat(reservationRepository.findById(holdId)).isPresent();
+        assertThat(rideService.getAvailableSeats(rideId)).isEqualTo(1);
+    }
+
+    // A hold whose placing node is gone: in the table, in no wheel
+    private Long holdOnVanishedNode(LocalDateTime heldUntil) {
+        Long holdId = reservationService.holdSeats(new ReservationCreateDto(rideId, 2, null), riderId).getId();
+        seatHoldService.untrack(holdId);
+        jdbcTemplate.update("UPDATE reservations SET held_until = ? WHERE id = ?", Timestamp.valueOf(heldUntil), holdId);
+        return holdId;
+    }
+}
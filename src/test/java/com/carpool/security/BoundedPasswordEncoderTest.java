@@ -0,0 +1,147 @@
+package com.carpool.security;
+
+import com.carpool.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowEncoder delegate = new SlowEncoder();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        delegate.release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void fullQueueIsRefusedAtOnce() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5_000, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        awaitGauge("carpool.auth.hashing.active", 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        awaitGauge("carpool.auth.hashing.queued", 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+
+        delegate.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+        assertThat(meterRegistry.counter("carpool.auth.hashing.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutHashKeepsRunningButQueuedOneIsDropped() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 4, 100, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        awaitGauge("carpool.auth.hashing.active", 1);
+        assertThatThrownBy(() -> encoder.encode("b")).isInstanceOf(ServiceUnavailableException.class);
+        assertThatThrownBy(running::join).hasCauseInstanceOf(ServiceUnavailableException.class);
+
+        // Both callers gave up, yet the started hash still holds the only thread
+        assertThat(gauge("carpool.auth.hashing.active")).isEqualTo(1);
+
+        delegate.release.countDown();
+        awaitGauge("carpool.auth.hashing.active", 0);
+        assertThat(encoder.encode("c")).isEqualTo("hash:c");
+        // "b" was cancelled while queued and never hashed
+        assertThat(delegate.started.get()).isEqualTo(2);
+    }
+
+    @Test
+    void hashThatCannotFinishInTimeIsRefusedWithoutQueueing() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 16, 1_000, meterRegistry);
+        delegate.release.countDown();
+        delegate.hashMs = 300;
+        encoder.encode("warm-up");
+        delegate.release = new CountDownLatch(1);
+        delegate.hashMs = 0;
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        awaitGauge("carpool.auth.hashing.active", 1);
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            String password = "q" + i;
+            queued.add(CompletableFuture.supplyAsync(() -> encoder.encode(password)));
+            awaitGauge("carpool.auth.hashing.queued", i);
+        }
+
+        // Three hashes of ~300 ms queued ahead: this one cannot finish within 1000 ms
+        assertThatThrownBy(() -> encoder.encode("late")).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(gauge("carpool.auth.hashing.queued")).isEqualTo(3);
+
+        delegate.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        for (int i = 1; i <= 3; i++) {
+            assertThat(queued.get(i - 1).get(5, TimeUnit.SECONDS)).isEqualTo("hash:q" + i);
+        }
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private void awaitGauge(String name, double value) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge(name) != value) {
+            assertThat(System.nanoTime()).as(name + " never reached " + value).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Hashes once released, ignoring interruption the way bcrypt does
+     */
+    private static class SlowEncoder implements PasswordEncoder {
+
+        volatile CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger started = new AtomicInteger();
+        volatile long hashMs;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.incrementAndGet();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hashMs);
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.carpool.security;
+
+import com.carpool.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        // Two stripes of two keys each, so a few emails fill the account map
+        throttle = new LoginThrottle(new SimpleMeterRegistry(), 2, 4);
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        ReflectionTestUtils.setField(throttle, "accountCapacity", 2);
+        ReflectionTestUtils.setField(throttle, "accountRefillPerMinute", 0.1);
+        ReflectionTestUtils.setField(throttle, "addressCapacity", 1000);
+        ReflectionTestUtils.setField(throttle, "addressRefillPerMinute", 1000);
+    }
+
+    @Test
+    void accountIsThrottledAcrossAddresses() {
+        throttle.checkLogin("Rider@Example.com", "203.0.113.1");
+        throttle.checkLogin("rider@example.com", "203.0.113.2");
+
+        assertThatThrownBy(() -> throttle.checkLogin("rider@example.com ", "203.0.113.3"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void floodOfNewEmailsDoesNotLockOutAnotherAccount() {
+        // Every tracked account is spent, none has refilled
+        for (int i = 0; i < 400; i++) {
+            String email = "random" + i + "@example.com";
+            throttle.checkLogin(email, "198.51.100.1");
+            throttle.checkLogin(email, "198.51.100.1");
+        }
+
+        assertThatCode(() -> throttle.checkLogin("rider@example.com", "203.0.113.1")).doesNotThrowAnyException();
+    }
+}
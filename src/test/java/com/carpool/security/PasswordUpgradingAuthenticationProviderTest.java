@@ -0,0 +1,101 @@
+package com.carpool.security;
+
+import com.carpool.entity.User;
+import com.carpool.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordUpgradingAuthenticationProviderTest {
+
+    private static final String EMAIL = "rider@example.com";
+    private static final String PASSWORD = "secret-password";
+
+    // The stored hash has a lower cost than new hashes get, so every login upgrades it
+    private final PasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+            Map.of("bcrypt", new BCryptPasswordEncoder(5)));
+    private UserDetailsPasswordService passwordService;
+    private PasswordUpgradingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User("Rider", EMAIL, "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD),
+                User.Role.USER);
+        user.setId(1L);
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenAnswer(invocation -> UserPrincipal.create(user));
+        passwordService = mock(UserDetailsPasswordService.class);
+
+        provider = new PasswordUpgradingAuthenticationProvider(passwordService);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+    }
+
+    @Test
+    void weakHashIsReEncoded() {
+        assertThat(login().isAuthenticated()).isTrue();
+
+        verify(passwordService).updatePassword(any(),
+                argThat(hash -> hash.startsWith("{bcrypt}$2a$05$") && encoder.matches(PASSWORD, hash)));
+    }
+
+    @Test
+    void failedUpdateDoesNotFailTheLogin() {
+        when(passwordService.updatePassword(any(), anyString()))
+                .thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        Authentication authentication = login();
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(((UserPrincipal) authentication.getPrincipal()).getEmail()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void busyHashingPoolSkipsTheUpgrade() {
+        provider.setPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                // The provider also encodes a dummy password once, for its unknown-user timing
+                if (PASSWORD.contentEquals(rawPassword)) {
+                    throw new ServiceUnavailableException("busy", 1);
+                }
+                return encoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return encoder.upgradeEncoding(encodedPassword);
+            }
+        });
+
+        assertThat(login().isAuthenticated()).isTrue();
+        verify(passwordService, never()).updatePassword(any(), anyString());
+    }
+
+    private Authentication login() {
+        return provider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+    }
+}
@@ -0,0 +1,62 @@
+package com.carpool.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsABurstUpToItsCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 0.001);
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void refillsAtItsRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 20);
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+
+        // One token every 50 ms
+        Thread.sleep(80);
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void neverHoldsMoreThanItsCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(2, 1_000);
+        Thread.sleep(20);
+
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void reportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 0.1);
+        assertThat(bucket.secondsUntilNextToken()).isEqualTo(1);
+
+        bucket.tryConsume();
+        // Ten seconds per token, rounded up
+        assertThat(bucket.secondsUntilNextToken()).isBetween(9L, 10L);
+    }
+
+    @Test
+    void isFullOnlyOnceRefilled() throws Exception {
+        TokenBucket bucket = new TokenBucket(2, 50);
+        assertThat(bucket.isFull()).isTrue();
+
+        bucket.tryConsume();
+        assertThat(bucket.isFull()).isFalse();
+
+        Thread.sleep(60);
+        assertThat(bucket.isFull()).isTrue();
+    }
+}
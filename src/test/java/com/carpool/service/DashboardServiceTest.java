@@ -0,0 +1,54 @@
+package com.carpool.service;
+
+import com.carpool.dto.DashboardResponseDto;
+import com.carpool.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTest {
+
+    private static final long USER_ID = 3;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = mock(UserService.class);
+        User user = new User("Rider", "rider@example.com", "x", User.Role.USER);
+        user.setId(USER_ID);
+        when(userService.findById(USER_ID)).thenReturn(user);
+
+        meterRegistry = new SimpleMeterRegistry();
+        dashboardService = new DashboardService(userService, mock(ReservationService.class),
+                mock(RideService.class), mock(ReviewService.class), meterRegistry, 2, 4, 10000);
+    }
+
+    @Test
+    void readsRunOnThePool() {
+        DashboardResponseDto dashboard = dashboardService.getDashboard(USER_ID);
+
+        assertThat(dashboard.getUpcomingReservations()).isEmpty();
+        assertThat(meterRegistry.get("carpool.dashboard.inline").counter().count()).isZero();
+    }
+
+    @Test
+    void readsRunInlineOnceThePoolHasShutDown() {
+        dashboardService.shutdown();
+
+        // Well under max-wait-ms: no read is dropped and left to time out
+        DashboardResponseDto dashboard = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> dashboardService.getDashboard(USER_ID));
+
+        assertThat(dashboard.getUpcomingReservations()).isEmpty();
+        assertThat(meterRegistry.get("carpool.dashboard.inline").counter().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,125 @@
+package com.carpool.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    @Test
+    void entryFiresOnTheFirstTickAtOrAfterItsDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 3, 0);
+        assertThat(wheel.schedule(1, 95)).isTrue();
+
+        assertThat(wheel.advance(90)).isEmpty();
+        // 95 ms rounds up to tick 10 (100 ms): never early
+        assertThat(wheel.advance(99)).isEmpty();
+        assertThat(wheel.advance(100)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entriesOnHigherLevelsCascadeDownAndFireOnTime() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 3, 0);
+        // Level 0 covers 64 ticks, level 1 64 * 64, level 2 64^3
+        wheel.schedule(1, 50 * TICK_MS);
+        wheel.schedule(2, 700 * TICK_MS);
+        wheel.schedule(3, 5_000 * TICK_MS);
+
+        assertThat(wheel.advance(49 * TICK_MS)).isEmpty();
+        assertThat(wheel.advance(50 * TICK_MS)).containsExactly(1L);
+        assertThat(wheel.advance(699 * TICK_MS)).isEmpty();
+        assertThat(wheel.advance(700 * TICK_MS)).containsExactly(2L);
+        assertThat(wheel.advance(4_999 * TICK_MS)).isEmpty();
+        assertThat(wheel.advance(5_000 * TICK_MS)).containsExactly(3L);
+    }
+
+    @Test
+    void deadlineBeyondTheTopLevelIsKeptUntilDue() {
+        // Two levels span 4096 ticks
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 2, 0);
+        wheel.schedule(1, 10_000 * TICK_MS);
+
+        assertThat(wheel.advance(9_999 * TICK_MS)).isEmpty();
+        assertThat(wheel.advance(10_000 * TICK_MS)).containsExactly(1L);
+    }
+
+    @Test
+    void cancelledEntryNeverFires() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 3, 0);
+        wheel.schedule(1, 100);
+        wheel.schedule(2, 100);
+
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(1)).isFalse();
+        assertThat(wheel.advance(1_000)).containsExactly(2L);
+    }
+
+    @Test
+    void reschedulingMovesTheDeadline() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 3, 0);
+        wheel.schedule(1, 100);
+        wheel.schedule(1, 2_000);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(1_000)).isEmpty();
+        assertThat(wheel.advance(2_000)).containsExactly(1L);
+    }
+
+    @Test
+    void pastDeadlineIsRefused() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 3, 1_000);
+
+        assertThat(wheel.schedule(1, 1_000)).isFalse();
+        assertThat(wheel.schedule(2, 500)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void matchesASortedScheduleUnderRandomOperations() {
+        Random random = new Random(42);
+        long start = 123_456;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK_MS, 3, start);
+        Map<Long, Long> expected = new HashMap<>();
+        long now = start;
+
+        for (int round = 0; round < 5_000; round++) {
+            long id = random.nextInt(500);
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                // Mostly near deadlines, some on the upper levels
+                long delay = random.nextInt(10) == 0 ? random.nextInt(3_000_000) : random.nextInt(2_000);
+                long deadline = now + delay;
+                if (wheel.schedule(id, deadline)) {
+                    expected.put(id, deadline);
+                } else {
+                    expected.remove(id);
+                }
+            } else if (operation < 8) {
+                assertThat(wheel.cancel(id)).isEqualTo(expected.remove(id) != null);
+            } else {
+                now += random.nextInt(operation == 9 ? 200_000 : 500);
+                List<Long> due = wheel.advance(now);
+                List<Long> expectedDue = new ArrayList<>();
+                long tickNow = now / TICK_MS * TICK_MS;
+                expected.entrySet().removeIf(entry -> {
+                    if (entry.getValue() <= tickNow) {
+                        expectedDue.add(entry.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+                assertThat(due).containsExactlyInAnyOrderElementsOf(expectedDue);
+            }
+            assertThat(wheel.size()).isEqualTo(expected.size());
+        }
+    }
+}
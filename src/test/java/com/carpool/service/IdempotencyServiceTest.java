@@ -0,0 +1,153 @@
+package com.carpool.service;
+
+import com.carpool.entity.IdempotencyRecord;
+import com.carpool.exception.IdempotencyConflictException;
+import com.carpool.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "reservations";
+    private static final long USER_ID = 3;
+    private static final Map<String, Object> REQUEST = Map.of("rideId", 7, "seatsReserved", 1);
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger bookings = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findOnPrimary(anyString())).thenReturn(Optional.empty());
+        idempotencyService = newService();
+    }
+
+    @Test
+    void retryReplaysTheFirstResponseWithoutRunningTheActionAgain() {
+        IdempotencyService.Outcome<Booking> first = book("key-1", REQUEST);
+        IdempotencyService.Outcome<Booking> retry = book("key-1", REQUEST);
+
+        assertThat(first.isReplayed()).isFalse();
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getResponse().id).isEqualTo(first.getResponse().id);
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        book("key-1", REQUEST);
+        idempotencyService.execute(SCOPE, USER_ID + 1, "key-1", REQUEST, Booking.class, this::newBooking);
+
+        assertThat(bookings.get()).isEqualTo(2);
+    }
+
+    @Test
+    void sameKeyWithADifferentRequestIsRejected() {
+        book("key-1", REQUEST);
+
+        assertThatThrownBy(() -> book("key-1", Map.of("rideId", 8, "seatsReserved", 1)))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void responseStoredByAnotherNodeIsReplayedFromTheDatabase() {
+        IdempotencyService.Outcome<Booking> first = book("key-1", REQUEST);
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).saveAndFlush(stored.capture());
+
+        // A fresh node (or this one after a restart) has nothing in memory
+        IdempotencyService otherNode = newService();
+        when(repository.findOnPrimary(stored.getValue().getKeyHash())).thenReturn(Optional.of(stored.getValue()));
+        IdempotencyService.Outcome<Booking> retry = otherNode.execute(SCOPE, USER_ID, "key-1", REQUEST,
+                Booking.class, this::newBooking);
+
+        assertThat(retry.isReplayed()).isTrue();
+        assertThat(retry.getResponse().id).isEqualTo(first.getResponse().id);
+        assertThat(bookings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void failedActionIsNotStored() {
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, USER_ID, "key-1", REQUEST, Booking.class, () -> {
+            throw new IllegalStateException("ride is full");
+        })).isInstanceOf(IllegalStateException.class);
+
+        verify(repository, never()).saveAndFlush(any());
+        assertThat(book("key-1", REQUEST).isReplayed()).isFalse();
+    }
+
+    @Test
+    void retryWhileTheFirstIsRunningIsAConflict() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Outcome<Booking>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(SCOPE, USER_ID, "key-1", REQUEST, Booking.class, () -> {
+                    running.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return newBooking();
+                }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> book("key-1", REQUEST)).isInstanceOf(IdempotencyConflictException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).isReplayed()).isFalse();
+        assertThat(book("key-1", REQUEST).isReplayed()).isTrue();
+    }
+
+    @Test
+    void withoutAKeyTheActionAlwaysRuns() {
+        book(null, REQUEST);
+        book(null, REQUEST);
+
+        assertThat(bookings.get()).isEqualTo(2);
+        verify(repository, never()).findOnPrimary(anyString());
+    }
+
+    private IdempotencyService newService() {
+        IdempotencyService service = new IdempotencyService(repository, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "ttlHours", 24);
+        ReflectionTestUtils.setField(service, "cacheMaxEntries", 100);
+        return service;
+    }
+
+    private IdempotencyService.Outcome<Booking> book(String key, Object request) {
+        return idempotencyService.execute(SCOPE, USER_ID, key, request, Booking.class, this::newBooking);
+    }
+
+    private Booking newBooking() {
+        Booking booking = new Booking();
+        booking.id = 100 + bookings.incrementAndGet();
+        return booking;
+    }
+
+    public static class Booking {
+        public long id;
+    }
+}
@@ -0,0 +1,100 @@
+package com.carpool.service;
+
+import com.carpool.dto.RideCreateDto;
+import com.carpool.dto.UserRegistrationDto;
+import com.carpool.entity.OutboxEvent;
+import com.carpool.entity.User;
+import com.carpool.event.OutboxEventType;
+import com.carpool.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The bulk lifecycle jobs leave outbox events, and failed events wait for their retry
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxEventsIntegrationTest {
+
+    @Autowired
+    private RideLifecycleService rideLifecycleService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rideId;
+
+    @BeforeEach
+    void setUp() {
+        Long driverId = userService.registerUser(new UserRegistrationDto("Driver",
+                "driver-" + UUID.randomUUID() + "@example.com", "secret-password", User.Role.DRIVER)).getId();
+        rideId = rideService.createRide(new RideCreateDto("Sofia", "Varna", LocalDateTime.now().plusDays(1),
+                new BigDecimal("10.00"), 3, null), driverId).getId();
+        jdbcTemplate.update("UPDATE rides SET date_time = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(2)), rideId);
+    }
+
+    @Test
+    void completingDepartedRidesRecordsTheirStatusChange() {
+        rideLifecycleService.completeDepartedRides(LocalDateTime.now(), 1000);
+
+        assertThat(eventTypesFor(rideId)).contains(OutboxEventType.RIDE_STATUS_CHANGED.name());
+        assertThat(jdbcTemplate.queryForObject("SELECT payload FROM outbox_events WHERE aggregate_id = ? " +
+                "AND event_type = 'RIDE_STATUS_CHANGED'", String.class, rideId)).contains("\"COMPLETED\"");
+    }
+
+    @Test
+    void archivingRidesRecordsThem() {
+        rideLifecycleService.completeDepartedRides(LocalDateTime.now(), 1000);
+
+        archiveService.archiveChunk(LocalDateTime.now().minusDays(1), 1000);
+
+        assertThat(eventTypesFor(rideId)).contains(OutboxEventType.RIDE_ARCHIVED.name());
+    }
+
+    @Test
+    void failedEventIsNotPendingBeforeItsNextAttempt() {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.RIDE_CREATED, rideId, "{}");
+        event.setAttempts(1);
+        event.setNextAttemptAt(LocalDateTime.now().plusHours(1));
+        Long eventId = outboxEventRepository.save(event).getId();
+
+        assertThat(pendingIds(LocalDateTime.now())).doesNotContain(eventId);
+        assertThat(pendingIds(LocalDateTime.now().plusHours(2))).contains(eventId);
+    }
+
+    private List<String> eventTypesFor(Long aggregateId) {
+        return jdbcTemplate.queryForList("SELECT event_type FROM outbox_events WHERE aggregate_id = ? " +
+                "AND aggregate_type = 'ride'", String.class, aggregateId);
+    }
+
+    private List<Long> pendingIds(LocalDateTime now) {
+        return outboxEventRepository.findPending(10, now, PageRequest.of(0, 10000)).stream()
+                .map(OutboxEvent::getId).toList();
+    }
+}
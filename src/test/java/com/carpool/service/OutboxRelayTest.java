@@ -0,0 +1,103 @@
+package com.carpool.service;
+
+import com.carpool.entity.OutboxEvent;
+import com.carpool.event.OutboxEventType;
+import com.carpool.event.OutboxMessage;
+import com.carpool.event.OutboxSubscriber;
+import com.carpool.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository repository;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        relay = new OutboxRelay(repository, List.of(new FailingSubscriber()), new ObjectMapper(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 10);
+        ReflectionTestUtils.setField(relay, "retryBaseMs", 1000L);
+        ReflectionTestUtils.setField(relay, "retryMaxMs", 300000L);
+    }
+
+    @Test
+    void retryDelayDoublesPerFailureWithinItsJitterRange() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(relay.retryDelayMs(1)).isBetween(500L, 1000L);
+            assertThat(relay.retryDelayMs(2)).isBetween(1000L, 2000L);
+            assertThat(relay.retryDelayMs(4)).isBetween(4000L, 8000L);
+        }
+    }
+
+    @Test
+    void retryDelayIsCappedAtTheMaximum() {
+        for (int i = 0; i < 100; i++) {
+            // 2^8 s is still under the cap; 2^9 s is past it
+            assertThat(relay.retryDelayMs(9)).isBetween(128000L, 256000L);
+            for (int attempts : new int[] {10, 40, 70}) {
+                assertThat(relay.retryDelayMs(attempts)).isBetween(150000L, 300000L);
+            }
+        }
+    }
+
+    @Test
+    void failedEventIsHeldBackUntilItsNextAttempt() {
+        OutboxEvent event = event(3);
+        when(repository.findPending(anyInt(), any(), any())).thenReturn(List.of(event));
+
+        LocalDateTime before = LocalDateTime.now();
+        relay.relayBatch();
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).recordFailure(eq(event.getId()), anyString(), nextAttempt.capture());
+        // Fourth failure: 8 s, drawn from 4-8 s
+        assertThat(Duration.between(before, nextAttempt.getValue())).isBetween(
+                Duration.ofSeconds(4), Duration.ofSeconds(9));
+        verify(repository, never()).markPublished(anyList(), any());
+    }
+
+    private static OutboxEvent event(int attempts) {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.REVIEW_CREATED, 5L, "{}");
+        event.setId(42L);
+        event.setAttempts(attempts);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    private static class FailingSubscriber implements OutboxSubscriber {
+
+        @Override
+        public Set<OutboxEventType> eventTypes() {
+            return Set.of(OutboxEventType.REVIEW_CREATED);
+        }
+
+        @Override
+        public void onEvent(OutboxMessage message) {
+            throw new IllegalStateException("subscriber down");
+        }
+    }
+}
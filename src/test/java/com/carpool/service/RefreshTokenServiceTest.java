@@ -0,0 +1,80 @@
+package com.carpool.service;
+
+import com.carpool.entity.RefreshToken;
+import com.carpool.entity.User;
+import com.carpool.repository.RefreshTokenRepository;
+import com.carpool.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private static final long USER_ID = 5;
+
+    private UserRepository userRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(refreshTokenService, "ttlDays", 30);
+        ReflectionTestUtils.setField(refreshTokenService, "cacheMaxEntries", 100);
+
+        user = new User("Rider", "rider@example.com", "x", User.Role.USER);
+        user.setId(USER_ID);
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(user);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(refreshTokenRepository.revoke(anyString())).thenReturn(1);
+    }
+
+    @Test
+    void refreshCarriesTheCurrentEmailAndRole() {
+        String token = refreshTokenService.issue(USER_ID, user.getEmail(), user.getRole()).getToken();
+        user.setEmail("driver@example.com");
+        user.setRole(User.Role.DRIVER);
+
+        RefreshTokenService.IssuedToken rotated = refreshTokenService.rotate(token).orElseThrow();
+
+        assertThat(rotated.getEmail()).isEqualTo("driver@example.com");
+        assertThat(rotated.getRole()).isEqualTo(User.Role.DRIVER);
+    }
+
+    @Test
+    void deletedUserCannotRefresh() {
+        String token = refreshTokenService.issue(USER_ID, user.getEmail(), user.getRole()).getToken();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        assertThat(refreshTokenService.rotate(token)).isEmpty();
+        verify(refreshTokenRepository).revokeFamily(anyString());
+    }
+
+    @Test
+    void reusedTokenRevokesItsChain() {
+        String token = refreshTokenService.issue(USER_ID, user.getEmail(), user.getRole()).getToken();
+        assertThat(refreshTokenService.rotate(token)).isPresent();
+
+        // Dropped from memory after the rotation; the database has it, already spent
+        when(refreshTokenRepository.findById(anyString())).thenReturn(Optional.of(
+                new RefreshToken("hash", user, "family", LocalDateTime.now().plusDays(1))));
+        when(refreshTokenRepository.revoke(anyString())).thenReturn(0);
+
+        assertThat(refreshTokenService.rotate(token)).isEmpty();
+        verify(refreshTokenRepository).revokeFamily("family");
+    }
+}
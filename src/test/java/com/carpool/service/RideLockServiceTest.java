@@ -0,0 +1,123 @@
+package com.carpool.service;
+
+import com.carpool.exception.ServiceUnavailableException;
+import com.carpool.repository.RideLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two nodes sharing the ride_locks table: leases, takeover after expiry and the fence
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RideLockServiceTest {
+
+    private static final long LEASE_MS = 200;
+
+    @Autowired
+    private RideLockRepository rideLockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private RideLockService nodeA;
+    private RideLockService nodeB;
+    private long rideId;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = node();
+        nodeB = node();
+        rideId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    @Test
+    void heldLeaseIsNotGrantedToAnotherNode() {
+        Long token = inTransaction(() -> nodeA.tryAcquire(rideId));
+
+        assertThat(token).isNotNull();
+        assertThat(inTransaction(() -> nodeB.tryAcquire(rideId))).isNull();
+    }
+
+    @Test
+    void releasedLeaseIsFreeAtOnce() {
+        long token = inTransaction(() -> nodeA.tryAcquire(rideId));
+        nodeA.release(rideId, token);
+
+        assertThat(inTransaction(() -> nodeB.tryAcquire(rideId))).isEqualTo(token + 1);
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverWithAHigherToken() throws Exception {
+        long tokenA = inTransaction(() -> nodeA.tryAcquire(rideId));
+        Thread.sleep(LEASE_MS + 50);
+
+        Long tokenB = inTransaction(() -> nodeB.tryAcquire(rideId));
+
+        assertThat(tokenB).isEqualTo(tokenA + 1);
+    }
+
+    @Test
+    void fenceRejectsTheWriteOfAHolderWhoseLeaseWasTakenOver() throws Exception {
+        long tokenA = inTransaction(() -> nodeA.tryAcquire(rideId));
+        nodeA.entered(rideId, tokenA);
+        // Node A stalls past its lease; node B takes the ride over
+        Thread.sleep(LEASE_MS + 50);
+        long tokenB = inTransaction(() -> nodeB.tryAcquire(rideId));
+
+        assertThatThrownBy(() -> inTransaction(() -> {
+            nodeA.fence(rideId);
+            return null;
+        })).isInstanceOf(ServiceUnavailableException.class);
+
+        nodeB.entered(rideId, tokenB);
+        assertThatCode(() -> inTransaction(() -> {
+            nodeB.fence(rideId);
+            return null;
+        })).doesNotThrowAnyException();
+    }
+
+    @Test
+    void lateReleaseDoesNotFreeTheNewHoldersLease() throws Exception {
+        long tokenA = inTransaction(() -> nodeA.tryAcquire(rideId));
+        Thread.sleep(LEASE_MS + 50);
+        inTransaction(() -> nodeB.tryAcquire(rideId));
+
+        nodeA.release(rideId, tokenA);
+
+        assertThat(inTransaction(() -> nodeA.tryAcquire(rideId))).isNull();
+    }
+
+    @Test
+    void fenceIsANoOpOutsideALease() {
+        assertThatCode(() -> inTransaction(() -> {
+            nodeA.fence(rideId);
+            return null;
+        })).doesNotThrowAnyException();
+    }
+
+    // A node with its own holder id; the calls run in the test's transactions instead of its proxies'
+    private RideLockService node() {
+        RideLockService node = new RideLockService(rideLockRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(node, "enabled", true);
+        ReflectionTestUtils.setField(node, "leaseMs", LEASE_MS);
+        return node;
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
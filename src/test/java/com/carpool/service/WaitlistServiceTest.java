@@ -0,0 +1,194 @@
+package com.carpool.service;
+
+import com.carpool.cache.CacheInvalidationLog;
+import com.carpool.dto.WaitlistCreateDto;
+import com.carpool.entity.Reservation;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.entity.WaitlistEntry;
+import com.carpool.exception.BusinessException;
+import com.carpool.repository.ReservationRepository;
+import com.carpool.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WaitlistServiceTest {
+
+    private static final long RIDE_ID = 7;
+    private static final long ENTRY_ID = 70;
+    private static final long RIDER_ID = 2;
+
+    private WaitlistEntryRepository waitlistEntryRepository;
+    private ReservationRepository reservationRepository;
+    private RideService rideService;
+    private UserService userService;
+    private WaitlistService waitlistService;
+    private Ride ride;
+    private User rider;
+    private WaitlistEntry entry;
+
+    @BeforeEach
+    void setUp() {
+        waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+        reservationRepository = mock(ReservationRepository.class);
+        rideService = mock(RideService.class);
+        userService = mock(UserService.class);
+        waitlistService = new WaitlistService(waitlistEntryRepository, reservationRepository,
+                rideService, userService, mock(OutboxService.class), mock(CacheInvalidationLog.class));
+
+        User driver = new User("Driver", "driver@example.com", "x", User.Role.DRIVER);
+        driver.setId(1L);
+        ride = new Ride(driver, "Sofia", "Plovdiv", LocalDateTime.now().plusDays(1),
+                new BigDecimal("10"), 3, null);
+        ride.setId(RIDE_ID);
+        rider = new User("Rider", "rider@example.com", "x", User.Role.USER);
+        rider.setId(RIDER_ID);
+        entry = new WaitlistEntry(ride, rider, 1);
+        entry.setId(ENTRY_ID);
+
+        when(waitlistEntryRepository.findWaitingByRideId(RIDE_ID)).thenReturn(List.of(entry));
+        when(rideService.findById(RIDE_ID)).thenReturn(ride);
+        when(rideService.getAvailableSeats(RIDE_ID)).thenReturn(1);
+        // Someone else holds or has finished the entry: the claim never succeeds here
+        when(waitlistEntryRepository.transition(eq(ENTRY_ID), any(), any(), any())).thenReturn(0);
+    }
+
+    @Test
+    void entryNotVisibleYetStaysQueued() {
+        when(waitlistEntryRepository.findStatusById(ENTRY_ID)).thenReturn(Optional.empty());
+
+        assertThat(waitlistService.promoteWaitlisted(RIDE_ID)).isEmpty();
+        assertThat(waitlistService.promoteWaitlisted(RIDE_ID)).isEmpty();
+
+        // Still queued, so the second promotion tried it again
+        verify(waitlistEntryRepository, times(2)).transition(eq(ENTRY_ID), any(), any(), any());
+    }
+
+    @Test
+    void entryThatLeftTheWaitlistIsDropped() {
+        when(waitlistEntryRepository.findStatusById(ENTRY_ID))
+                .thenReturn(Optional.of(WaitlistEntry.WaitlistStatus.CANCELLED));
+
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        waitlistService.promoteWaitlisted(RIDE_ID);
+
+        verify(waitlistEntryRepository, times(1)).transition(eq(ENTRY_ID), any(), any(), any());
+    }
+
+    @Test
+    void queueIsLoadedOnceAndReloadedAfterEviction() {
+        when(waitlistEntryRepository.findStatusById(anyLong())).thenReturn(Optional.empty());
+
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        verify(waitlistEntryRepository, times(1)).findWaitingByRideId(RIDE_ID);
+
+        waitlistService.evict(RIDE_ID);
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        verify(waitlistEntryRepository, times(2)).findWaitingByRideId(RIDE_ID);
+    }
+
+    @Test
+    void queueIsReloadedOnceItsTtlPassed() throws InterruptedException {
+        when(waitlistEntryRepository.findStatusById(anyLong())).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(waitlistService, "queueTtlMs", 50L);
+
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        verify(waitlistEntryRepository, times(1)).findWaitingByRideId(RIDE_ID);
+
+        // An invalidation from another node was missed: the queue still reloads
+        Thread.sleep(100);
+        waitlistService.promoteWaitlisted(RIDE_ID);
+        verify(waitlistEntryRepository, times(2)).findWaitingByRideId(RIDE_ID);
+    }
+
+    @Test
+    void riderHoldingSeatsCannotJoinTheWaitlist() {
+        ride.setAvailableSeats(0);
+        when(userService.findById(RIDER_ID)).thenReturn(rider);
+        when(reservationRepository.findByRideAndUser(ride, rider))
+                .thenReturn(Optional.of(reservation(Reservation.ReservationStatus.HELD)));
+
+        assertThatThrownBy(() -> waitlistService.joinWaitlist(new WaitlistCreateDto(RIDE_ID, 1), RIDER_ID))
+                .isInstanceOf(BusinessException.class);
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void riderWhoHoldsSeatsSinceJoiningIsNotPromotedOverTheHold() {
+        claimSucceeds();
+        Reservation held = reservation(Reservation.ReservationStatus.HELD);
+        when(reservationRepository.findByRideAndUser(ride, rider)).thenReturn(Optional.of(held));
+
+        assertThat(waitlistService.promoteWaitlisted(RIDE_ID)).isEmpty();
+
+        // The hold keeps its seats and deadline; the spent entry leaves the queue
+        verify(rideService, never()).takeSeats(anyLong(), any());
+        verify(reservationRepository, never()).save(any());
+        assertThat(held.getStatus()).isEqualTo(Reservation.ReservationStatus.HELD);
+        assertThat(held.getSeatsReserved()).isEqualTo(2);
+        verify(waitlistEntryRepository).transition(eq(ENTRY_ID), eq(WaitlistEntry.WaitlistStatus.PROMOTED),
+                eq(WaitlistEntry.WaitlistStatus.CANCELLED), any());
+        assertThat(waitlistService.promoteWaitlisted(RIDE_ID)).isEmpty();
+        verify(waitlistEntryRepository, times(1)).findById(ENTRY_ID);
+    }
+
+    @Test
+    void cancelledReservationIsReplacedByAFreshOne() {
+        claimSucceeds();
+        Reservation cancelled = reservation(Reservation.ReservationStatus.CANCELLED);
+        when(reservationRepository.findByRideAndUser(ride, rider)).thenReturn(Optional.of(cancelled));
+        when(rideService.takeSeats(RIDE_ID, 1)).thenReturn(true);
+        when(reservationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(waitlistService.promoteWaitlisted(RIDE_ID)).containsExactly(ENTRY_ID);
+
+        verify(reservationRepository).delete(cancelled);
+        ArgumentCaptor<Reservation> saved = ArgumentCaptor.forClass(Reservation.class);
+        verify(reservationRepository).save(saved.capture());
+        assertThat(saved.getValue()).isNotSameAs(cancelled);
+        assertThat(saved.getValue().getStatus()).isEqualTo(Reservation.ReservationStatus.CONFIRMED);
+        assertThat(saved.getValue().getSeatsReserved()).isEqualTo(1);
+        assertThat(saved.getValue().getHeldUntil()).isNull();
+        assertThat(saved.getValue().getNotes()).isNull();
+    }
+
+    private void claimSucceeds() {
+        when(waitlistEntryRepository.transition(eq(ENTRY_ID), eq(WaitlistEntry.WaitlistStatus.WAITING),
+                eq(WaitlistEntry.WaitlistStatus.PROMOTED), any())).thenReturn(1);
+        when(waitlistEntryRepository.findById(ENTRY_ID)).thenReturn(Optional.of(entry));
+    }
+
+    private Reservation reservation(Reservation.ReservationStatus status) {
+        Reservation reservation = new Reservation();
+        reservation.setId(700L);
+        reservation.setRide(ride);
+        reservation.setUser(rider);
+        reservation.setSeatsReserved(2);
+        reservation.setStatus(status);
+        reservation.setNotes("window seat");
+        if (status == Reservation.ReservationStatus.HELD) {
+            reservation.setHeldUntil(LocalDateTime.now().plusMinutes(5));
+        }
+        return reservation;
+    }
+}